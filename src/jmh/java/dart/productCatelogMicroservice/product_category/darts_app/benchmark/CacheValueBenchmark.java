@@ -0,0 +1,84 @@
+package dart.productCatelogMicroservice.product_category.darts_app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CacheValueCodec;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding one cached category, in the binary format and in the JSON format
+ * written by the hash value serializer of {@code RedisConfig}, with short descriptions and
+ * with descriptions long enough to be compressed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueBenchmark {
+
+    @Param({"binary", "json"})
+    public String format;
+
+    @Param({"48", "1024"})
+    public int descriptionLength;
+
+    private final UtilityManager utilityManager = new UtilityManager();
+    private final LocalDateTime updatedAt = LocalDateTime.of(2024, 3, 2, 8, 0, 0);
+    private CacheValueCodec codec;
+    private CacheModel category;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = new CacheValueCodec(template(), new ObjectMapper(), format, 256);
+        category = SyntheticCatalog.category(descriptionLength);
+        value = codec.encode(category);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(category);
+    }
+
+    @Benchmark
+    public CacheModel decode() {
+        return codec.decode(value);
+    }
+
+    @Benchmark
+    public String dateToStringDate() {
+        return utilityManager.DateToStringDate(updatedAt);
+    }
+
+    private static RedisTemplate<String, Object> template() {
+        // Same value serializer as RedisConfig, without a connection
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
+        return template;
+    }
+}
@@ -0,0 +1,70 @@
+package dart.productCatelogMicroservice.product_category.darts_app.benchmark;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryTreeSnapshot;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the category tree from the flat catalog, as done on every snapshot rebuild and subtree read,
+ * and turning database rows into cached categories, as done when the cache is rebuilt.
+ * Linking replaces the children of every category, so the same catalog can be linked again on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HierarchyBuildBenchmark {
+
+    @Param({"WIDE", "DEEP", "SKEWED"})
+    public SyntheticCatalog.Shape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final BuilderManager builderManager = new BuilderManager(new UtilityManager());
+    private List<CacheModel> categories;
+    private List<ProductCategoryDbModel> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categories = SyntheticCatalog.cacheModels(shape, size);
+        rows = SyntheticCatalog.dbModels(shape, size);
+    }
+
+    @Benchmark
+    public List<CacheModel> buildHierarchy() {
+        return builderManager.buildHierarchy(categories, 0);
+    }
+
+    @Benchmark
+    public CategoryTreeSnapshot buildTreeSnapshot() {
+        return builderManager.buildTreeSnapshot(categories, 1);
+    }
+
+    @Benchmark
+    public void cacheModelBuilder(Blackhole blackhole) {
+        for (ProductCategoryDbModel row : rows) {
+            blackhole.consume(builderManager.CacheModelBuilder(row));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dart.productCatelogMicroservice.product_category.darts_app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the full hierarchy response as JSON, with the object mapper settings Spring MVC uses.
+ * The serialized bodies are cached per catalog version, so this is the cost paid on the first read after each write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ResponseSerializationBenchmark {
+
+    @Param({"WIDE", "DEEP", "SKEWED"})
+    public SyntheticCatalog.Shape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ProductCategoryHierarchyModel response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BuilderManager builderManager = new BuilderManager(new UtilityManager());
+        List<CacheModel> roots = builderManager.buildHierarchy(SyntheticCatalog.cacheModels(shape, size), 0);
+        response = new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", roots);
+    }
+
+    @Benchmark
+    public byte[] writeHierarchy() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,137 @@
+package dart.productCatelogMicroservice.product_category.darts_app.benchmark;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates catalogs of a given size and shape for the benchmarks.
+ * IDs run from 1 to the size, root categories have parent ID 0, and the same size and shape
+ * always produce the same catalog, so results of different runs are comparable.
+ */
+public final class SyntheticCatalog {
+
+    /**
+     * The shape of the generated tree.
+     */
+    public enum Shape {
+        /** Ten roots, about one in a hundred categories on the second level, everything else a leaf below them. */
+        WIDE,
+        /** Chains of {@link #DEEP_CHAIN_LENGTH} categories hanging off the roots, each link with one extra leaf. */
+        DEEP,
+        /** Parents drawn with a strong bias towards the oldest categories, so a few nodes hold most of the catalog. */
+        SKEWED
+    }
+
+    // Kept below Jackson's default nesting limit, since every level adds an object and an array to the response
+    static final int DEEP_CHAIN_LENGTH = 200;
+    private static final long SEED = 20240301L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30);
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Returns the parent ID of every category, indexed by category ID; index 0 is unused.
+     */
+    public static int[] parentIds(Shape shape, int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] parents = new int[size + 1];
+        switch (shape) {
+            case WIDE -> {
+                int roots = Math.min(10, size);
+                int secondLevel = roots + Math.max(1, size / 100);
+                for (int id = 1; id <= size; id++) {
+                    if (id <= roots) {
+                        parents[id] = 0;
+                    } else if (id <= secondLevel) {
+                        parents[id] = 1 + random.nextInt(roots);
+                    } else {
+                        parents[id] = roots + 1 + random.nextInt(secondLevel - roots);
+                    }
+                }
+            }
+            case DEEP -> {
+                // Odd IDs extend the current chain, even IDs are leaves hung off the link before them
+                int chainStart = 1;
+                for (int id = 1; id <= size; id++) {
+                    if (id % 2 == 0) {
+                        parents[id] = id - 1;
+                    } else if (id - chainStart >= 2 * DEEP_CHAIN_LENGTH) {
+                        chainStart = id;
+                        parents[id] = 0;
+                    } else {
+                        parents[id] = id == chainStart ? 0 : id - 2;
+                    }
+                }
+            }
+            case SKEWED -> {
+                parents[1] = 0;
+                for (int id = 2; id <= size; id++) {
+                    // Cubing a uniform draw favours small IDs: half the categories get a parent among the first eighth of the IDs before them
+                    double draw = random.nextDouble();
+                    parents[id] = id <= 5 ? 0 : 1 + (int) ((id - 1) * draw * draw * draw);
+                }
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Returns the catalog as cached categories, without children.
+     */
+    public static List<CacheModel> cacheModels(Shape shape, int size) {
+        int[] parents = parentIds(shape, size);
+        String createdAt = "2024-03-01 10:15:30";
+        List<CacheModel> categories = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            categories.add(new CacheModel(id, name(id), description(id, 48), parents[id], id % 50 != 0, createdAt, createdAt, null, new ArrayList<>()));
+        }
+        return categories;
+    }
+
+    /**
+     * Returns the catalog as database rows, as read before they are turned into cached categories.
+     */
+    public static List<ProductCategoryDbModel> dbModels(Shape shape, int size) {
+        int[] parents = parentIds(shape, size);
+        List<ProductCategoryDbModel> categories = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            categories.add(ProductCategoryDbModel.builder()
+                    .id(id)
+                    .name(name(id))
+                    .description(description(id, 48))
+                    .parentid(parents[id])
+                    .isactive(id % 50 != 0)
+                    .createdat(CREATED_AT.plusSeconds(id))
+                    .updatedat(CREATED_AT.plusSeconds(id))
+                    .build());
+        }
+        return categories;
+    }
+
+    /**
+     * Returns one category with a description of the given length.
+     */
+    public static CacheModel category(int descriptionLength) {
+        return new CacheModel(4242, name(4242), description(4242, descriptionLength), 17, true, "2024-03-01 10:15:30", "2024-03-02 08:00:00", null, new ArrayList<>());
+    }
+
+    private static String name(int id) {
+        return "category-" + id;
+    }
+
+    private static String description(int id, int length) {
+        StringBuilder description = new StringBuilder(length);
+        description.append("Products of category ").append(id).append(". ");
+        while (description.length() < length) {
+            description.append("Everyday items for home, office and travel. ");
+        }
+        description.setLength(length);
+        return description.toString();
+    }
+}
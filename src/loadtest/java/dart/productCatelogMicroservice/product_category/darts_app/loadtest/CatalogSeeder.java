@@ -0,0 +1,55 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dart.productCatelogMicroservice.product_category.darts_app.benchmark.SyntheticCatalog;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the service with a synthetic catalog through the bulk endpoint.
+ * Parents always come before their children in the generated catalog, so every item names
+ * its parent, which is either earlier in the same batch or created by an earlier batch.
+ */
+final class CatalogSeeder {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final LoadTestClient client;
+
+    CatalogSeeder(LoadTestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Creates the catalog and returns the created categories with the IDs the service assigned.
+     *
+     * @throws IllegalStateException if a batch or one of its items is rejected
+     */
+    SeededCatalog seed(SyntheticCatalog.Shape shape, int size) throws IOException, InterruptedException {
+        List<CacheModel> categories = SyntheticCatalog.cacheModels(shape, size);
+        SeededCatalog catalog = new SeededCatalog();
+
+        for (int from = 0; from < categories.size(); from += BATCH_SIZE) {
+            List<CacheModel> batch = categories.subList(from, Math.min(from + BATCH_SIZE, categories.size()));
+            List<ProductCategoryReqModel> requests = new ArrayList<>(batch.size());
+            for (CacheModel category : batch) {
+                // Synthetic IDs start at 1, so the parent of a category is at index parentid - 1
+                String parentName = category.getParentid() == 0 ? null : categories.get(category.getParentid() - 1).getName();
+                requests.add(new ProductCategoryReqModel(category.getName(), category.getDescription(), 0, "true", parentName));
+            }
+
+            LoadTestClient.JsonResponse response = client.post("/api/categories/bulk", requests);
+            if (response.status() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.status() + ": " + response.body().path("message").asText());
+            }
+            for (JsonNode result : response.body().path("results")) {
+                catalog.add(result.path("id").asInt(), result.path("name").asText());
+            }
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,73 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the requests sent to one endpoint.
+ * Latencies are taken from the time a request was scheduled, not from when it was sent,
+ * so time spent queued behind a slow service counts against it.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Records one request.
+     *
+     * @param latencyNanos time from the scheduled start of the request to its response
+     * @param status       the HTTP status, or 0 when no response was received
+     */
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS));
+        if (status == 0) {
+            failures.increment();
+        } else if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            success.increment();
+        }
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long success() {
+        return success.sum();
+    }
+
+    long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the latency at the given percentile, in milliseconds.
+     */
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,81 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP client for the category API of the service under test.
+ * Reads ask for gzip like production clients do, and their bodies are discarded unread.
+ */
+final class LoadTestClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUri;
+
+    LoadTestClient(int port) {
+        this.baseUri = URI.create("http://localhost:" + port);
+    }
+
+    /**
+     * Sends a GET and returns its status.
+     */
+    int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = request(path)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Sends a POST with a JSON body and returns the status with the parsed response body.
+     */
+    JsonResponse post(String path, Object body) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request(path).POST(json(body)).build(), HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode responseBody = response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+        return new JsonResponse(response.statusCode(), responseBody);
+    }
+
+    /**
+     * Sends a PUT with a JSON body and returns its status.
+     */
+    int put(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = request(path).PUT(json(body)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Sends a DELETE and returns its status.
+     */
+    int delete(String path) throws IOException, InterruptedException {
+        HttpRequest request = request(path).DELETE().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws JsonProcessingException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+
+    record JsonResponse(int status, JsonNode body) {
+    }
+}
@@ -0,0 +1,65 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import dart.productCatelogMicroservice.product_category.darts_app.benchmark.SyntheticCatalog;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from the loadtest.* system properties that the loadtest Maven profile passes on.
+ * Rates are requests per second and are held regardless of how fast the service answers.
+ *
+ * @param catalogSize number of categories seeded before the run
+ * @param shape       shape of the seeded tree
+ * @param warmup      how long the workload runs before anything is recorded
+ * @param duration    how long the workload is recorded
+ * @param readRate    rate of navigation reads
+ * @param writeRate   rate of creates, updates and deletes outside bursts
+ * @param burstRate   rate of writes during a burst
+ * @param burstEvery  time from the start of one write burst to the next
+ * @param burstLength length of a write burst
+ * @param report      file the JSON report is written to
+ */
+public record LoadTestOptions(
+        int catalogSize,
+        SyntheticCatalog.Shape shape,
+        Duration warmup,
+        Duration duration,
+        double readRate,
+        double writeRate,
+        double burstRate,
+        Duration burstEvery,
+        Duration burstLength,
+        Path report
+) {
+
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Integer.parseInt(property("catalog-size", "20000")),
+                SyntheticCatalog.Shape.valueOf(property("shape", "SKEWED")),
+                Duration.parse(property("warmup", "PT15S")),
+                Duration.parse(property("duration", "PT60S")),
+                Double.parseDouble(property("read-rate", "500")),
+                Double.parseDouble(property("write-rate", "10")),
+                Double.parseDouble(property("burst-rate", "100")),
+                Duration.parse(property("burst-every", "PT15S")),
+                Duration.parse(property("burst-length", "PT3S")),
+                Path.of(property("report", "target/loadtest-report.json"))
+        );
+    }
+
+    /**
+     * Returns the write rate at the given time since the workload started.
+     */
+    public double writeRateAt(long elapsedNanos) {
+        long every = burstEvery.toNanos();
+        if (every <= 0 || burstLength.isZero()) {
+            return writeRate;
+        }
+        return elapsedNanos % every < burstLength.toNanos() ? burstRate : writeRate;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
@@ -0,0 +1,100 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throughput, latency percentiles and error rates per endpoint of one recorded run.
+ * The error rate counts 5xx responses and requests that got no response; 4xx responses are
+ * reported separately, since the workload provokes some of them on purpose: details and children
+ * of a leaf category are answered with 404, and deletes are refused while products are associated
+ * with a category.
+ */
+final class LoadTestReport {
+
+    private final LoadTestOptions options;
+    private final Map<String, EndpointStats> stats;
+
+    LoadTestReport(LoadTestOptions options, Map<String, EndpointStats> stats) {
+        this.options = options;
+        this.stats = stats;
+    }
+
+    void print(PrintStream out) {
+        double seconds = seconds(options.duration());
+        out.printf("%nLoad test: %d %s categories, %.0f reads/s, %.0f writes/s (%.0f/s in bursts), %ds recorded%n",
+                options.catalogSize(), options.shape(), options.readRate(), options.writeRate(), options.burstRate(), options.duration().toSeconds());
+        out.printf("%-36s %9s %9s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "5xx", "error%");
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            out.printf("%-36s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %7.2f%n",
+                    entry.getKey(), endpoint.count(), endpoint.count() / seconds,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(90), endpoint.percentileMillis(99), endpoint.percentileMillis(99.9),
+                    endpoint.maxMillis(), endpoint.clientErrors(), endpoint.serverErrors() + endpoint.failures(), errorRate(endpoint) * 100);
+        }
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("catalogSize", options.catalogSize());
+        settings.put("shape", options.shape().name());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        settings.put("readRate", options.readRate());
+        settings.put("writeRate", options.writeRate());
+        settings.put("burstRate", options.burstRate());
+        settings.put("burstEverySeconds", options.burstEvery().toSeconds());
+        settings.put("burstLengthSeconds", options.burstLength().toSeconds());
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        double seconds = seconds(options.duration());
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", endpoint.percentileMillis(50));
+            latency.put("p90", endpoint.percentileMillis(90));
+            latency.put("p99", endpoint.percentileMillis(99));
+            latency.put("p99.9", endpoint.percentileMillis(99.9));
+            latency.put("max", endpoint.maxMillis());
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey());
+            row.put("requests", endpoint.count());
+            row.put("throughput", endpoint.count() / seconds);
+            row.put("latencyMillis", latency);
+            row.put("success", endpoint.success());
+            row.put("clientErrors", endpoint.clientErrors());
+            row.put("serverErrors", endpoint.serverErrors());
+            row.put("failures", endpoint.failures());
+            row.put("errorRate", errorRate(endpoint));
+            endpoints.add(row);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("endpoints", endpoints);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private static double errorRate(EndpointStats endpoint) {
+        return endpoint.count() == 0 ? 0 : (double) (endpoint.serverErrors() + endpoint.failures()) / endpoint.count();
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,46 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import dart.productCatelogMicroservice.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the load test: starts the stand-ins, boots the service against them on a random port,
+ * seeds the catalog, runs the workload once unrecorded to warm up and once recorded, and reports
+ * the recorded run. Settings come from {@link LoadTestOptions}.
+ */
+public final class LoadTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Devtools would restart the service in a new class loader when launched from a main method
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+
+        try (LocalStandIns standIns = LocalStandIns.start("product.category.events");
+             ConfigurableApplicationContext service = new SpringApplicationBuilder(Application.class)
+                     .profiles("loadtest")
+                     .run(standIns.applicationArguments())) {
+            LoadTestClient client = new LoadTestClient(Integer.parseInt(service.getEnvironment().getProperty("local.server.port")));
+
+            logger.info("Seeding {} {} categories", options.catalogSize(), options.shape());
+            SeededCatalog catalog = new CatalogSeeder(client).seed(options.shape(), options.catalogSize());
+
+            WorkloadDriver driver = new WorkloadDriver(client, catalog, options);
+            logger.info("Warming up for {}", options.warmup());
+            driver.run(options.warmup());
+            logger.info("Recording for {}", options.duration());
+            LoadTestReport report = new LoadTestReport(options, driver.run(options.duration()));
+
+            report.print(System.out);
+            report.write(options.report());
+            logger.info("Report written to {}", options.report().toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import com.github.fppt.jedismock.RedisServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+
+/**
+ * In-process stand-ins for the services the application depends on: a real Postgres server
+ * started from bundled binaries (the migrations use Postgres-only SQL), a Redis-protocol server
+ * held in memory, and a single Kafka broker.
+ */
+final class LocalStandIns implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final EmbeddedKafkaKraftBroker kafka;
+
+    private LocalStandIns(EmbeddedPostgres postgres, RedisServer redis, EmbeddedKafkaKraftBroker kafka) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.kafka = kafka;
+    }
+
+    /**
+     * Starts all stand-ins, stopping the ones already started if one fails.
+     *
+     * @param topic the topic the outbox relay publishes to
+     */
+    static LocalStandIns start(String topic) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        RedisServer redis = null;
+        try {
+            redis = RedisServer.newRedisServer().start();
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 1, topic);
+            kafka.afterPropertiesSet();
+            return new LocalStandIns(postgres, redis, kafka);
+        } catch (IOException | RuntimeException e) {
+            if (redis != null) {
+                redis.stop();
+            }
+            postgres.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the command line arguments pointing the service at the stand-ins, on a random port.
+     * Arguments take precedence over application.properties, where default properties would not.
+     */
+    String[] applicationArguments() {
+        return new String[]{
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres?reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getBindPort(),
+                "--spring.data.redis.password=",
+                "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString()
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            kafka.destroy();
+            redis.stop();
+        } finally {
+            postgres.close();
+        }
+    }
+}
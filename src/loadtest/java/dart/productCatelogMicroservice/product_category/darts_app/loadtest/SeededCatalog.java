@@ -0,0 +1,70 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The categories the workload knows about: the seeded catalog plus the categories it created itself.
+ * Only categories created by the workload are handed out for deletion.
+ */
+final class SeededCatalog {
+
+    private int[] ids = new int[1024];
+    private int size;
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Deque<Integer> created = new ArrayDeque<>();
+
+    synchronized void add(int id, String name) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+        names.put(id, name);
+    }
+
+    /**
+     * Adds a category created by the workload.
+     */
+    synchronized void addCreated(int id, String name) {
+        add(id, name);
+        created.push(id);
+    }
+
+    /**
+     * Forgets a deleted category; its ID stays in the array and is skipped when drawn.
+     */
+    synchronized void remove(int id) {
+        names.remove(id);
+    }
+
+    /**
+     * Returns the ID of a random known category.
+     */
+    synchronized int randomId() {
+        int id;
+        do {
+            id = ids[ThreadLocalRandom.current().nextInt(size)];
+        } while (!names.containsKey(id));
+        return id;
+    }
+
+    synchronized String name(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Returns the most recently created category not handed out before, a leaf unless the workload
+     * placed another category under it, or null when there is none.
+     */
+    synchronized Integer pollCreated() {
+        return created.poll();
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,154 @@
+package dart.productCatelogMicroservice.product_category.darts_app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Drives navigation reads and writes against the service at fixed rates.
+ * Each stream is scheduled on its own clock and every request runs on its own virtual thread,
+ * so a slow response delays nothing that comes after it and the offered load stays at the
+ * configured rate however the service behaves.
+ *
+ * <p>Reads are 5% full hierarchy, 35% details, 35% children and 25% path of a random category.
+ * Writes are 50% creates under a random category, 35% description updates of a random category
+ * and 15% deletes of a category the workload created.</p>
+ */
+final class WorkloadDriver {
+
+    // A stream whose rate is zero checks again after this long
+    private static final long IDLE_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final LoadTestClient client;
+    private final SeededCatalog catalog;
+    private final LoadTestOptions options;
+    private final AtomicLong createdCount = new AtomicLong();
+
+    WorkloadDriver(LoadTestClient client, SeededCatalog catalog, LoadTestOptions options) {
+        this.client = client;
+        this.catalog = catalog;
+        this.options = options;
+    }
+
+    /**
+     * Runs the workload for the given time and returns the stats per endpoint, sorted by endpoint.
+     * Returns once every request sent has completed or timed out.
+     */
+    Map<String, EndpointStats> run(Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            Thread reads = Thread.ofPlatform().name("loadtest-reads").start(() ->
+                    schedule(start, end, elapsed -> options.readRate(), requests, intended -> read(intended, stats)));
+            Thread writes = Thread.ofPlatform().name("loadtest-writes").start(() ->
+                    schedule(start, end, options::writeRateAt, requests, intended -> write(intended, stats)));
+            reads.join();
+            writes.join();
+        }
+        return new TreeMap<>(stats);
+    }
+
+    private void schedule(long start, long end, LongToDoubleFunction rate, ExecutorService requests, Request request) {
+        long intended = start;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            double perSecond = rate.applyAsDouble(intended - start);
+            if (perSecond <= 0) {
+                intended += IDLE_NANOS;
+                continue;
+            }
+            long scheduledAt = intended;
+            requests.execute(() -> request.send(scheduledAt));
+            intended += (long) (1_000_000_000L / perSecond);
+        }
+    }
+
+    private void read(long intended, Map<String, EndpointStats> stats) {
+        int pick = ThreadLocalRandom.current().nextInt(100);
+        if (pick < 5) {
+            call(stats, "GET /api/categories/parent", intended, () -> client.get("/api/categories/parent"));
+            return;
+        }
+        int id = catalog.randomId();
+        if (pick < 40) {
+            call(stats, "GET /api/categories/{id}/details", intended, () -> client.get("/api/categories/" + id + "/details"));
+        } else if (pick < 75) {
+            call(stats, "GET /api/categories/{id}/children", intended, () -> client.get("/api/categories/" + id + "/children"));
+        } else {
+            call(stats, "GET /api/categories/{id}/path", intended, () -> client.get("/api/categories/" + id + "/path"));
+        }
+    }
+
+    private void write(long intended, Map<String, EndpointStats> stats) {
+        int pick = ThreadLocalRandom.current().nextInt(100);
+        Integer deletable = pick >= 85 ? catalog.pollCreated() : null;
+        if (deletable != null) {
+            int status = call(stats, "DELETE /api/categories/{id}", intended, () -> client.delete("/api/categories/" + deletable));
+            if (status >= 200 && status < 300) {
+                catalog.remove(deletable);
+            }
+        } else if (pick < 50 || pick >= 85) {
+            create(intended, stats);
+        } else {
+            int id = catalog.randomId();
+            ProductCategoryReqModel request = new ProductCategoryReqModel(catalog.name(id), "Updated by the load test at " + System.currentTimeMillis(), null, null, null);
+            call(stats, "PUT /api/categories/{id}", intended, () -> client.put("/api/categories/" + id, request));
+        }
+    }
+
+    private void create(long intended, Map<String, EndpointStats> stats) {
+        String name = "loadtest-" + createdCount.incrementAndGet();
+        ProductCategoryReqModel request = new ProductCategoryReqModel(name, "Created by the load test", catalog.randomId(), "true", null);
+        call(stats, "POST /api/categories", intended, () -> {
+            LoadTestClient.JsonResponse response = client.post("/api/categories", request);
+            JsonNode category = response.body().path("category");
+            if (response.status() == 201 && category.has("id")) {
+                catalog.addCreated(category.path("id").asInt(), name);
+            }
+            return response.status();
+        });
+    }
+
+    /**
+     * Sends one request and records it; returns its status, or 0 when no response was received.
+     */
+    private int call(Map<String, EndpointStats> stats, String endpoint, long intended, Call call) {
+        int status;
+        try {
+            status = call.send();
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 0;
+        }
+        stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(System.nanoTime() - intended, status);
+        return status;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void send(long intended);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int send() throws IOException, InterruptedException;
+    }
+}
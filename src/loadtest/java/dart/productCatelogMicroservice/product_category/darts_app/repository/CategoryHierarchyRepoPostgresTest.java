@@ -0,0 +1,134 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryNodeProjection;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hierarchy queries against a Postgres server migrated by Flyway; embedded Postgres refuses to start as root.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CategoryHierarchyRepoPostgresTest {
+
+	private static EmbeddedPostgres postgres;
+
+	@Autowired
+	private CategoryHierarchyRepo categoryHierarchyRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		registry.add("spring.datasource.url", () -> "jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+	}
+
+	@AfterAll
+	static void stopPostgres() throws IOException {
+		postgres.close();
+	}
+
+	@BeforeEach
+	void seedCatalog() {
+		// 2 and inactive 3 under 1, 4 under 2, 5 under 3; 6 under a missing parent; 7 and 8 parents of each other
+		insert(1, 0, true, "/1/", 0);
+		insert(2, 1, true, "/1/2/", 1);
+		insert(3, 1, false, "/1/3/", 1);
+		insert(4, 2, true, "/1/2/4/", 2);
+		insert(5, 3, true, "/1/3/5/", 2);
+		insert(6, 99, true, "/6/", 0);
+		insert(7, 8, true, null, null);
+		insert(8, 7, true, null, null);
+	}
+
+	@Test
+	void findsTheActiveSubtreeOnThePaths() {
+		List<CategoryNodeProjection> subtree = categoryHierarchyRepo.findDescendantsByPath(1, Integer.MAX_VALUE);
+
+		assertEquals(List.of(1, 2, 4), ids(subtree));
+		assertEquals(List.of(0, 1, 2), subtree.stream().map(CategoryNodeProjection::getDepth).toList());
+		CategoryNodeProjection child = subtree.get(1);
+		assertEquals("category-2", child.getName());
+		assertEquals("about category-2", child.getDescription());
+		assertEquals(1, child.getParentid());
+		assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), child.getCreatedat());
+		assertNotNull(child.getUpdatedat());
+	}
+
+	@Test
+	void limitsTheSubtreeToTheGivenDepth() {
+		assertEquals(List.of(1, 2), ids(categoryHierarchyRepo.findDescendantsByPath(1, 1)));
+		assertEquals(List.of(2, 4), ids(categoryHierarchyRepo.findDescendantsByPath(2, Integer.MAX_VALUE)));
+	}
+
+	@Test
+	void findsNoSubtreeForAnInactiveOrMissingCategory() {
+		assertTrue(categoryHierarchyRepo.findDescendantsByPath(3, Integer.MAX_VALUE).isEmpty());
+		assertTrue(categoryHierarchyRepo.findDescendantsByPath(42, Integer.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	void findsTheSameSubtreeByFollowingTheParents() {
+		assertEquals(List.of(1, 2, 4), ids(categoryHierarchyRepo.findSubtree(1, Integer.MAX_VALUE)));
+		assertEquals(List.of(0, 1, 2), categoryHierarchyRepo.findSubtree(1, Integer.MAX_VALUE).stream().map(CategoryNodeProjection::getDepth).toList());
+		assertEquals(List.of(1, 2), ids(categoryHierarchyRepo.findSubtree(1, 1)));
+		assertTrue(categoryHierarchyRepo.findSubtree(3, Integer.MAX_VALUE).isEmpty());
+		assertTrue(categoryHierarchyRepo.findSubtree(42, Integer.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	void findsTheSubtreeOfACategoryWithoutAPath() {
+		assertTrue(categoryHierarchyRepo.findDescendantsByPath(7, Integer.MAX_VALUE).isEmpty());
+		// The cycle back to 7 ends the recursion
+		List<CategoryNodeProjection> subtree = categoryHierarchyRepo.findSubtree(7, Integer.MAX_VALUE);
+		assertEquals(List.of(7, 8), ids(subtree));
+		assertEquals("about category-8", subtree.get(1).getDescription());
+		assertNotNull(subtree.get(1).getUpdatedat());
+	}
+
+	@Test
+	void findsTheAncestorsRootFirst() {
+		assertEquals(List.of(1, 2, 4), ids(categoryHierarchyRepo.findAncestors(4)));
+		// Inactive ancestors are returned too; the caller decides where the chain starts
+		assertEquals(List.of(1, 3, 5), ids(categoryHierarchyRepo.findAncestors(5)));
+		assertEquals(List.of(6), ids(categoryHierarchyRepo.findAncestors(6)));
+		assertTrue(categoryHierarchyRepo.findAncestors(42).isEmpty());
+	}
+
+	@Test
+	void stopsTheAncestorsAtACycle() {
+		assertEquals(List.of(7, 8), ids(categoryHierarchyRepo.findAncestors(8)));
+	}
+
+	private void insert(int id, int parentId, boolean active, String path, Integer depth) {
+		jdbcTemplate.update(
+				"INSERT INTO categories (id, name, description, parentid, isactive, createdat, updatedat, path, depth) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+				id, "category-" + id, "about category-" + id, parentId, active,
+				LocalDateTime.of(2024, 1, 2, 3, 4, 5), LocalDateTime.of(2024, 6, 7, 8, 9, 10), path, depth
+		);
+	}
+
+	private static List<Integer> ids(List<CategoryNodeProjection> nodes) {
+		return nodes.stream().map(CategoryNodeProjection::getId).toList();
+	}
+}
@@ -31,4 +31,17 @@ CREATE TABLE products (
 CREATE INDEX idx_products_name ON products(name);
 
 -- Index for faster lookups by category
-CREATE INDEX idx_products_category_id ON products(category_id);
\ No newline at end of file
+CREATE INDEX idx_products_category_id ON products(category_id);
+
+-- Transactional outbox: every category change is written here in the same transaction
+-- as the categories row, and a background relay publishes it to Kafka
+CREATE TABLE category_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    categoryid INT NOT NULL,
+    eventtype VARCHAR(16) NOT NULL,
+    payload TEXT NOT NULL,
+    createdat TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    publishedat TIMESTAMP DEFAULT NULL
+);
+-- The relay only scans unpublished rows, in insertion order
+CREATE INDEX idx_category_outbox_unpublished ON category_outbox(id) WHERE publishedat IS NULL;
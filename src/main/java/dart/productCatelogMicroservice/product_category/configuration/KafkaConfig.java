@@ -0,0 +1,23 @@
+package dart.productCatelogMicroservice.product_category.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Retries a failed listener batch with back-off instead of skipping it, so cache repair
+     * events are not lost while Redis is down. Unreadable events are skipped by the listener itself.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(200L, 2.0);
+        backOff.setMaxInterval(5000L);
+        return new DefaultErrorHandler(backOff);
+    }
+}
@@ -4,39 +4,137 @@ package dart.productCatelogMicroservice.product_category.configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.Bulkhead;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.time.Duration;
+
 
 @Configuration
 @EnableRedisRepositories
 public class RedisConfig {
 
+    @Value("${spring.data.redis.host:localhost}")
+    private String host;
+
+    @Value("${spring.data.redis.port:6379}")
+    private int port;
+
+    // Empty when the server does not require a password
+    @Value("${spring.data.redis.password:}")
+    private String password;
+
+    @Value("${category.redis.pool.max-total:10}")
+    private int poolMaxTotal;
+
+    @Value("${category.redis.pool.max-idle:5}")
+    private int poolMaxIdle;
+
+    @Value("${category.redis.pool.min-idle:1}")
+    private int poolMinIdle;
+
+    @Value("${category.redis.pool.max-wait-ms:2000}")
+    private long poolMaxWaitMillis;
+
     @Bean
+    @Primary
     public JedisConnectionFactory connectionFactory() {
-        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
-        configuration.setHostName("localhost");
-        configuration.setPort(6379);
-        configuration.setPassword("@admin123");
+        RedisStandaloneConfiguration configuration = serverConfiguration();
 
         JedisPoolConfig poolConfig = new JedisPoolConfig();
-        poolConfig.setMaxTotal(10);
-        poolConfig.setMaxIdle(5);
-        poolConfig.setMinIdle(1);
+        poolConfig.setMaxTotal(poolMaxTotal);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        // Never wait forever on checkout; the bulkhead in front of the pool normally keeps it from running dry
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(poolMaxWaitMillis));
 
         JedisClientConfiguration clientConfig = JedisClientConfiguration.builder().usePooling().poolConfig(poolConfig).build();
         return new JedisConnectionFactory(configuration, clientConfig);
     }
 
+    /**
+     * The Redis server both clients connect to, from the spring.data.redis properties.
+     */
+    private RedisStandaloneConfiguration serverConfiguration() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
+        configuration.setHostName(host);
+        configuration.setPort(port);
+        if (!password.isEmpty()) {
+            configuration.setPassword(password);
+        }
+        return configuration;
+    }
+
+    /**
+     * Lettuce connection for the reactive read API. Every request shares one connection: commands
+     * are written as they arrive and answered in order, so concurrent reads are pipelined on the
+     * wire without a pool and without a thread per request. The client resources are the ones
+     * configured by Spring Boot, which record the latency of every command as metrics.
+     */
+    @Bean
+    public LettuceConnectionFactory reactiveConnectionFactory(ClientResources clientResources) {
+        RedisStandaloneConfiguration configuration = serverConfiguration();
+
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder().clientResources(clientResources).build();
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(configuration, clientConfig);
+        factory.setShareNativeConnection(true);
+        return factory;
+    }
+
+    /**
+     * Reactive template over the Lettuce connection. Values are kept as raw bytes,
+     * decoded by the same codec as the blocking reads.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> reactiveTemplate(LettuceConnectionFactory reactiveConnectionFactory) {
+        RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+                .<String, byte[]>newSerializationContext(new StringRedisSerializer())
+                .value(RedisSerializer.byteArray())
+                .hashKey(new StringRedisSerializer())
+                .hashValue(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveConnectionFactory, context);
+    }
+
+    /**
+     * Delivers the messages of the pub/sub channels subscribed to. The subscription runs on its own
+     * Lettuce connection, so it does not hold one of the pooled Jedis connections for good.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisListenerContainer(LettuceConnectionFactory reactiveConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(reactiveConnectionFactory);
+        return container;
+    }
+
+    /**
+     * Limits the callers using Redis at once to the size of the Jedis pool, so callers beyond it
+     * wait on a semaphore with a timeout instead of inside the pool.
+     */
+    @Bean
+    public Bulkhead redisBulkhead(@Value("${category.redis.bulkhead.acquire-timeout-ms:1000}") long acquireTimeoutMillis) {
+        return new Bulkhead("redis", poolMaxTotal, Duration.ofMillis(acquireTimeoutMillis));
+    }
+
     @Bean
     @Primary
     public RedisTemplate<String, Object> template() {
@@ -57,7 +155,8 @@ public class RedisConfig {
         template.setValueSerializer(valueSerializer);
         template.setHashValueSerializer(valueSerializer);
 
-        template.setEnableTransactionSupport(true);
+        // Cache writes are sent as explicit pipelines; binding them to MULTI/EXEC would queue reads as well
+        template.setEnableTransactionSupport(false);
         template.afterPropertiesSet();
         return template;
     }
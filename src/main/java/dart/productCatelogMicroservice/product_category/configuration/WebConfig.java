@@ -0,0 +1,39 @@
+package dart.productCatelogMicroservice.product_category.configuration;
+
+import dart.productCatelogMicroservice.product_category.darts_app.helper.RedisCommandStats;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RedisCommandStats redisCommandStats;
+
+    public WebConfig(RedisCommandStats redisCommandStats) {
+        this.redisCommandStats = redisCommandStats;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Attribute Redis commands to the route pattern, not the raw path, to keep the key set small
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                redisCommandStats.beginRequest(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                redisCommandStats.endRequest();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package dart.productCatelogMicroservice.product_category.darts_app.controller;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheStatsResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CacheValueCodec;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNearCache;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.ConnectionPoolStats;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.RedisCommandStats;
+import dart.productCatelogMicroservice.product_category.darts_app.kafka.CategoryEventConsumer;
+import dart.productCatelogMicroservice.product_category.darts_app.kafka.OutboxRelay;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CacheWarmupService;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CategoryFallbackService;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CategorySnapshotService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controller for operating the product category cache.
+ * This controller exposes cache and event publishing statistics for capacity planning,
+ * and rebuilds the cache from the database on demand.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class CacheAdminController {
+
+    private final RedisCommandStats redisCommandStats;
+    private final OutboxRelay outboxRelay;
+    private final CategoryEventConsumer categoryEventConsumer;
+    private final CacheWarmupService cacheWarmupService;
+    private final CategorySnapshotService categorySnapshotService;
+    private final CategoryFallbackService categoryFallbackService;
+    private final CacheValueCodec cacheValueCodec;
+    private final ConnectionPoolStats connectionPoolStats;
+    private final CategoryNearCache categoryNearCache;
+    private final CategoryNameIndex categoryNameIndex;
+
+    /**
+     * Constructs a CacheAdminController with the given statistics sources.
+     *
+     * @param redisCommandStats the per-endpoint Redis command counters
+     * @param outboxRelay the relay publishing outbox events to Kafka
+     * @param categoryEventConsumer the consumer repairing the cache from Kafka events
+     * @param cacheWarmupService the service loading the cache from the database
+     * @param categorySnapshotService the service reading the tree through the Redis circuit breaker
+     * @param categoryFallbackService the database-backed tree served while Redis is unavailable
+     * @param cacheValueCodec the codec of the cached categories, with its size and decode time counters
+     * @param connectionPoolStats the usage of the Redis and database connection pools
+     * @param categoryNearCache the per-instance cache of reads from the Redis child index
+     * @param categoryNameIndex the in-memory index answering duplicate name checks
+     */
+    public CacheAdminController(
+            RedisCommandStats redisCommandStats,
+            OutboxRelay outboxRelay,
+            CategoryEventConsumer categoryEventConsumer,
+            CacheWarmupService cacheWarmupService,
+            CategorySnapshotService categorySnapshotService,
+            CategoryFallbackService categoryFallbackService,
+            CacheValueCodec cacheValueCodec,
+            ConnectionPoolStats connectionPoolStats,
+            CategoryNearCache categoryNearCache,
+            CategoryNameIndex categoryNameIndex
+    ) {
+        this.redisCommandStats = redisCommandStats;
+        this.outboxRelay = outboxRelay;
+        this.categoryEventConsumer = categoryEventConsumer;
+        this.cacheWarmupService = cacheWarmupService;
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryFallbackService = categoryFallbackService;
+        this.cacheValueCodec = cacheValueCodec;
+        this.connectionPoolStats = connectionPoolStats;
+        this.categoryNearCache = categoryNearCache;
+        this.categoryNameIndex = categoryNameIndex;
+    }
+
+    /**
+     * Retrieves cache statistics, including the Redis commands and round trips per endpoint,
+     * the Redis circuit breaker state, the database fallback reads, the size and decode time
+     * of the cached values per format, the hits and evictions of the near cache, and the
+     * duplicate name checks answered by the name index.
+     *
+     * Endpoint: GET /admin/cache/stats
+     *
+     * @return a ResponseEntity containing the CacheStatsResModel with the current statistics.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsResModel> fetchCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("redisCommands", redisCommandStats.snapshot());
+        stats.put("lastRebuild", cacheWarmupService.getLastRebuild());
+        stats.put("redisBreaker", categorySnapshotService.getRedisBreakerStats());
+        stats.put("databaseFallback", categoryFallbackService.stats());
+        stats.put("valueFormat", cacheValueCodec.stats());
+        stats.put("lastMigration", cacheWarmupService.getLastMigration());
+        stats.put("nearCache", categoryNearCache.stats());
+        stats.put("nameIndex", categoryNameIndex.stats());
+        return new ResponseEntity<>(new CacheStatsResModel(true, "Cache statistics retrieved successfully", stats), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves connection pool statistics: the callers using and waiting for Redis and the database,
+     * how long they waited and how many were rejected, and whether requests run on virtual threads.
+     *
+     * Endpoint: GET /admin/pools/stats
+     *
+     * @return a ResponseEntity containing the CacheStatsResModel with the current statistics.
+     */
+    @GetMapping("/pools/stats")
+    public ResponseEntity<CacheStatsResModel> fetchPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("redis", connectionPoolStats.redis());
+        stats.put("database", connectionPoolStats.database());
+        stats.put("virtualThreads", Thread.currentThread().isVirtual());
+        return new ResponseEntity<>(new CacheStatsResModel(true, "Pool statistics retrieved successfully", stats), HttpStatus.OK);
+    }
+
+    /**
+     * Rebuilds the cache from the active categories in the database and swaps it in atomically.
+     *
+     * Endpoint: POST /admin/cache/rebuild
+     *
+     * @return a ResponseEntity containing the CacheStatsResModel with the rows loaded and the time taken.
+     */
+    @PostMapping("/cache/rebuild")
+    public ResponseEntity<CacheStatsResModel> rebuildCache() {
+        Map<String, Object> stats = cacheWarmupService.rebuildCache();
+        return new ResponseEntity<>(new CacheStatsResModel(true, "Cache rebuilt successfully", stats), HttpStatus.OK);
+    }
+
+    /**
+     * Re-encodes the cached categories that are not in the configured value format.
+     *
+     * Endpoint: POST /admin/cache/migrate-format
+     *
+     * @return a ResponseEntity containing the CacheStatsResModel with the entries migrated and the size before and after.
+     */
+    @PostMapping("/cache/migrate-format")
+    public ResponseEntity<CacheStatsResModel> migrateCacheValueFormat() {
+        Map<String, Object> stats = cacheWarmupService.migrateValueFormat();
+        return new ResponseEntity<>(new CacheStatsResModel(true, "Cache values migrated successfully", stats), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves event statistics: events published and the outbox backlog,
+     * and events applied to the cache and the consumer lag.
+     *
+     * Endpoint: GET /admin/events/stats
+     *
+     * @return a ResponseEntity containing the CacheStatsResModel with the current statistics.
+     */
+    @GetMapping("/events/stats")
+    public ResponseEntity<CacheStatsResModel> fetchEventStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("outbox", outboxRelay.stats());
+        stats.put("consumer", categoryEventConsumer.stats());
+        return new ResponseEntity<>(new CacheStatsResModel(true, "Event statistics retrieved successfully", stats), HttpStatus.OK);
+    }
+}
@@ -1,13 +1,14 @@
 package dart.productCatelogMicroservice.product_category.darts_app.controller;
 
+import dart.productCatelogMicroservice.product_category.darts_app.entity.BulkResModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.service.BulkProductCategoryImpl;
 import dart.productCatelogMicroservice.product_category.darts_app.service.CreateProductCategoryImpl;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
 
 /**
  * Controller for managing product category creation requests.
@@ -18,15 +19,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class CreateProductCategory {
 
     private final CreateProductCategoryImpl productCategoryImpl;
+    private final BulkProductCategoryImpl bulkProductCategoryImpl;
 
     /**
      * Constructs a CreateProductCategory controller with the given
      * CreateProductCategoryImpl instance.
      *
      * @param productCategoryImpl an instance of CreateProductCategoryImpl
+     * @param bulkProductCategoryImpl an instance of BulkProductCategoryImpl
      */
-    public CreateProductCategory(CreateProductCategoryImpl productCategoryImpl) {
+    public CreateProductCategory(CreateProductCategoryImpl productCategoryImpl, BulkProductCategoryImpl bulkProductCategoryImpl) {
         this.productCategoryImpl = productCategoryImpl;
+        this.bulkProductCategoryImpl = bulkProductCategoryImpl;
     }
 
     /**
@@ -41,4 +45,20 @@ public class CreateProductCategory {
         return productCategoryImpl.createProductCategory(bodyRequest);
     }
 
+    /**
+     * Creates many product categories in one request.
+     *
+     * @param bodyRequest the categories to be created
+     * @param upsert whether categories whose name already exists are updated instead of rejected
+     * @return a ResponseEntity containing the result of every item, with 201 when all succeeded,
+     *         207 when some failed and 400 when none succeeded.
+     */
+    @PostMapping("/categories/bulk")
+    public ResponseEntity<BulkResModel> createProductCategories(
+            @RequestBody List<ProductCategoryReqModel> bodyRequest,
+            @RequestParam(defaultValue = "false") boolean upsert
+    ) {
+        return bulkProductCategoryImpl.createProductCategories(bodyRequest, upsert);
+    }
+
 }
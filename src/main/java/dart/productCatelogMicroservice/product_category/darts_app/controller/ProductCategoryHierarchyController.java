@@ -1,71 +1,249 @@
 package dart.productCatelogMicroservice.product_category.darts_app.controller;
 
-import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryPathsResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryProjection;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.ResponseBodyCache;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CategorySnapshotService;
+import dart.productCatelogMicroservice.product_category.darts_app.service.ExportProductCategoryImpl;
 import dart.productCatelogMicroservice.product_category.darts_app.service.ProductCategoryHierarchyImpl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controller for managing product category hierarchy requests.
  * This controller provides endpoints for retrieving various product
  * categories, including root categories, full category hierarchies,
  * and specific categories by their ID.
+ * Response bodies are cached per catalog version and carry an ETag,
+ * so polling clients get 304 Not Modified until the catalog changes.
+ * The hierarchy endpoints take optional window parameters: "depth" cuts the
+ * subtrees to a number of levels, and "limit" with "after" pages through the
+ * child lists by ID. Windowed responses only hold the requested categories.
+ * They also take "fields", naming the category fields to include, and
+ * "format=flat", which lists the categories in parallel arrays instead of a tree.
  */
 @RestController
 @RequestMapping("/api")
 public class ProductCategoryHierarchyController {
 
     private final ProductCategoryHierarchyImpl productCategoryHierarchy;
+    private final CategorySnapshotService categorySnapshotService;
+    private final ResponseBodyCache responseBodyCache;
+    private final ExportProductCategoryImpl exportProductCategory;
 
     /**
      * Constructs a ProductCategoryHierarchyController with the given
      * ProductCategoryHierarchyImpl instance.
      *
      * @param productCategoryHierarchy an instance of ProductCategoryHierarchyImpl
+     * @param categorySnapshotService  the service providing the current catalog version
+     * @param responseBodyCache        the cache of serialized response bodies
+     * @param exportProductCategory    the service streaming the catalog export
      */
-    public ProductCategoryHierarchyController(ProductCategoryHierarchyImpl productCategoryHierarchy) {
+    public ProductCategoryHierarchyController(ProductCategoryHierarchyImpl productCategoryHierarchy, CategorySnapshotService categorySnapshotService, ResponseBodyCache responseBodyCache, ExportProductCategoryImpl exportProductCategory) {
         this.productCategoryHierarchy = productCategoryHierarchy;
+        this.categorySnapshotService = categorySnapshotService;
+        this.responseBodyCache = responseBodyCache;
+        this.exportProductCategory = exportProductCategory;
     }
 
     /**
      * Retrieves all root (parent) product categories.
      *
-     * Endpoint: GET /categories/parent
+     * Endpoint: GET /categories/parent?depth=1&after=0&limit=50&fields=id,name
      *
+     * @param depth   the number of levels to return, 1 when a window is requested
+     * @param after   the ID of the last root category of the previous page
+     * @param limit   the maximum number of categories per list, at most 1000
+     * @param fields  the category fields to include, comma separated
+     * @param format  "flat" for parallel arrays, "nested" by default
+     * @param request the incoming request, checked for If-None-Match and Accept-Encoding
      * @return a ResponseEntity containing the ProductCategoryHierarchyModel,
-     *         which includes all root product categories.
+     *         which includes all root product categories, or the requested page of them.
      */
     @GetMapping("/categories/parent")
-    public ResponseEntity<ProductCategoryHierarchyModel> fetchOnlyParentProductCategory() {
-        return productCategoryHierarchy.fetchOnlyParentProductCategory();
+    public ResponseEntity<byte[]> fetchOnlyParentProductCategory(
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest request
+    ) {
+        CategoryProjection projection = CategoryProjection.parse(fields, format);
+        if (isWindow(depth, after, limit)) {
+            Integer levels = depth == null ? Integer.valueOf(1) : depth;
+            return cachedResponse(projection, windowKey("parent", levels, after, limit), request, () -> productCategoryHierarchy.fetchProductCategoryWindow(0, levels, after, limit));
+        }
+        return cachedResponse(projection, "parent", request, productCategoryHierarchy::fetchOnlyParentProductCategory);
     }
 
     /**
      * Retrieves a specific product category by its ID.
      *
-     * Endpoint: GET /categories/{categoryId}/details
+     * Endpoint: GET /categories/{categoryId}/details?depth=2&after=0&limit=50
      *
      * @param categoryId the ID of the product category to retrieve
+     * @param depth      the number of levels to return, all when omitted
+     * @param after      the ID of the last child category of the previous page
+     * @param limit      the maximum number of categories per list, at most 1000
+     * @param fields     the category fields to include, comma separated
+     * @param format     "flat" for parallel arrays, "nested" by default
+     * @param request    the incoming request, checked for If-None-Match and Accept-Encoding
      * @return a ResponseEntity containing the ProductCategoryHierarchyModel
      *         for the specified category ID, or an error response if not found.
      */
     @GetMapping("/categories/{categoryId}/details")
-    public ResponseEntity<ProductCategoryHierarchyModel> fetchProductCategoryByCategoryId(@PathVariable Integer categoryId) {
-        return productCategoryHierarchy.fetchProductCategoryByCategoryId(categoryId);
+    public ResponseEntity<byte[]> fetchProductCategoryByCategoryId(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest request
+    ) {
+        CategoryProjection projection = CategoryProjection.parse(fields, format);
+        if (isWindow(depth, after, limit)) {
+            return cachedResponse(projection, windowKey("details:" + categoryId, depth, after, limit), request, () -> productCategoryHierarchy.fetchProductCategoryWindow(categoryId, depth, after, limit));
+        }
+        return cachedResponse(projection, "details:" + categoryId, request, () -> productCategoryHierarchy.fetchProductCategoryByCategoryId(categoryId));
+    }
+
+    /**
+     * Retrieves the direct children of a product category, so clients can load the tree lazily.
+     *
+     * Endpoint: GET /categories/{categoryId}/children?depth=1&after=0&limit=50
+     *
+     * @param categoryId the ID of the parent product category
+     * @param depth      the number of levels to return, 1 when a window is requested
+     * @param after      the ID of the last child category of the previous page
+     * @param limit      the maximum number of categories per list, at most 1000
+     * @param fields     the category fields to include, comma separated
+     * @param format     "flat" for parallel arrays, "nested" by default
+     * @param request    the incoming request, checked for If-None-Match and Accept-Encoding
+     * @return a ResponseEntity containing the ProductCategoryHierarchyModel
+     *         with one level of child categories, or an error response if none are found.
+     */
+    @GetMapping("/categories/{categoryId}/children")
+    public ResponseEntity<byte[]> fetchChildProductCategory(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest request
+    ) {
+        CategoryProjection projection = CategoryProjection.parse(fields, format);
+        if (isWindow(depth, after, limit)) {
+            Integer levels = depth == null ? Integer.valueOf(1) : depth;
+            return cachedResponse(projection, windowKey("children:" + categoryId, levels, after, limit), request, () -> productCategoryHierarchy.fetchProductCategoryWindow(categoryId, levels, after, limit));
+        }
+        return cachedResponse(projection, "children:" + categoryId, request, () -> productCategoryHierarchy.fetchChildProductCategory(categoryId));
+    }
+
+    /**
+     * Retrieves the breadcrumb of a product category: its ancestors from the root down to it.
+     *
+     * Endpoint: GET /categories/{categoryId}/path?fields=id,name
+     *
+     * @param categoryId the ID of the product category
+     * @param fields     the category fields to include, comma separated
+     * @param format     "flat" for parallel arrays, "nested" by default
+     * @param request    the incoming request, checked for If-None-Match and Accept-Encoding
+     * @return a ResponseEntity containing the ProductCategoryHierarchyModel
+     *         with the chain of categories, root first.
+     */
+    @GetMapping("/categories/{categoryId}/path")
+    public ResponseEntity<byte[]> fetchProductCategoryPath(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest request
+    ) {
+        return cachedResponse(CategoryProjection.parse(fields, format), "path:" + categoryId, request, () -> productCategoryHierarchy.fetchProductCategoryPath(categoryId));
+    }
+
+    /**
+     * Retrieves the breadcrumbs of many product categories at once, such as all products on a listing page.
+     *
+     * Endpoint: GET /categories/paths?ids=1,2,3
+     *
+     * @param ids the IDs of the product categories, at most 1000
+     * @return a ResponseEntity containing the CategoryPathsResModel with the chain of every category found.
+     */
+    @GetMapping("/categories/paths")
+    public ResponseEntity<CategoryPathsResModel> fetchProductCategoryPaths(@RequestParam List<Integer> ids) {
+        return productCategoryHierarchy.fetchProductCategoryPaths(ids);
     }
 
     /**
      * Retrieves the entire product category hierarchy, including all root, parent,
      * and child categories.
      *
-     * Endpoint: GET /categories/all
+     * Endpoint: GET /categories/all?depth=2&after=0&limit=50&format=flat
      *
+     * @param depth   the number of levels to return, all when omitted
+     * @param after   the ID of the last root category of the previous page
+     * @param limit   the maximum number of categories per list, at most 1000
+     * @param fields  the category fields to include, comma separated
+     * @param format  "flat" for parallel arrays, "nested" by default
+     * @param request the incoming request, checked for If-None-Match and Accept-Encoding
      * @return a ResponseEntity containing the ProductCategoryHierarchyModel,
-     *         which includes the full product category hierarchy.
+     *         which includes the full product category hierarchy, or the requested window of it.
      */
     @GetMapping("/categories/all")
-    public ResponseEntity<ProductCategoryHierarchyModel> fetchAllProductCategory() {
-        return productCategoryHierarchy.fetchAllProductCategory();
+    public ResponseEntity<byte[]> fetchAllProductCategory(
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest request
+    ) {
+        CategoryProjection projection = CategoryProjection.parse(fields, format);
+        if (isWindow(depth, after, limit)) {
+            return cachedResponse(projection, windowKey("all", depth, after, limit), request, () -> productCategoryHierarchy.fetchProductCategoryWindow(0, depth, after, limit));
+        }
+        return cachedResponse(projection, "all", request, productCategoryHierarchy::fetchAllProductCategory);
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one flat category per line,
+     * for indexers and batch jobs. The body is written while rows are read from the database.
+     *
+     * Endpoint: GET /categories/export
+     *
+     * @return a ResponseEntity whose body streams every category ordered by ID.
+     */
+    @GetMapping(value = "/categories/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProductCategory() {
+        return exportProductCategory.exportProductCategories();
+    }
+
+    private static boolean isWindow(Integer depth, Integer after, Integer limit) {
+        return depth != null || after != null || limit != null;
+    }
+
+    private static String windowKey(String key, Integer depth, Integer after, Integer limit) {
+        return key + "?depth=" + depth + "&after=" + after + "&limit=" + limit;
+    }
+
+    private ResponseEntity<byte[]> cachedResponse(CategoryProjection projection, String key, WebRequest request, Supplier<ResponseEntity<?>> loader) {
+        return responseBodyCache.respond(
+                projection == null ? key : key + "#" + projection.key(),
+                categorySnapshotService.getCatalogVersion(),
+                categorySnapshotService.getLastModified(),
+                request,
+                loader,
+                projection
+        );
     }
 
 }
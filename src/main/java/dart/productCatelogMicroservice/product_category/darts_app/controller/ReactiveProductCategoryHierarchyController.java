@@ -0,0 +1,74 @@
+package dart.productCatelogMicroservice.product_category.darts_app.controller;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.darts_app.service.ReactiveProductCategoryHierarchyImpl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller for the non-blocking product category hierarchy reads.
+ * Requests are handled asynchronously: the request thread is released while Redis answers,
+ * and the response is written once the reactive read completes. The blocking endpoints
+ * under /api/categories stay available alongside these.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveProductCategoryHierarchyController {
+
+    private final ReactiveProductCategoryHierarchyImpl reactiveProductCategoryHierarchy;
+
+    /**
+     * Constructs a ReactiveProductCategoryHierarchyController.
+     *
+     * @param reactiveProductCategoryHierarchy the service reading the hierarchy without blocking
+     */
+    public ReactiveProductCategoryHierarchyController(ReactiveProductCategoryHierarchyImpl reactiveProductCategoryHierarchy) {
+        this.reactiveProductCategoryHierarchy = reactiveProductCategoryHierarchy;
+    }
+
+    /**
+     * Retrieves all root (parent) product categories.
+     *
+     * Endpoint: GET /reactive/categories/parent
+     *
+     * @return a Mono of the ResponseEntity containing the ProductCategoryHierarchyModel with the root categories.
+     */
+    @GetMapping("/categories/parent")
+    public Mono<ResponseEntity<ProductCategoryHierarchyModel>> fetchOnlyParentProductCategory() {
+        return reactiveProductCategoryHierarchy.fetchOnlyParentProductCategory();
+    }
+
+    /**
+     * Retrieves the hierarchy below a specific product category.
+     *
+     * Endpoint: GET /reactive/categories/{categoryId}/details
+     *
+     * @param categoryId the ID of the product category
+     * @return a Mono of the ResponseEntity containing the ProductCategoryHierarchyModel with the category's subtree.
+     */
+    @GetMapping("/categories/{categoryId}/details")
+    public Mono<ResponseEntity<ProductCategoryHierarchyModel>> fetchProductCategoryByCategoryId(@PathVariable Integer categoryId) {
+        return reactiveProductCategoryHierarchy.fetchProductCategoryByCategoryId(categoryId);
+    }
+
+    /**
+     * Streams every product category as newline-delimited JSON, flat, with its parent ID.
+     * Each record is written once the client has taken the previous one, so a slow client
+     * slows the Redis scan down instead of buffering the catalog.
+     *
+     * Endpoint: GET /reactive/categories/all
+     *
+     * @return a Flux of the categories.
+     */
+    @GetMapping(value = "/categories/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CacheModel> streamAllProductCategory() {
+        return reactiveProductCategoryHierarchy.streamAllProductCategories();
+    }
+}
@@ -0,0 +1,19 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResModel {
+    private Integer index;
+    private String name;
+    private Boolean status;
+    private String message;
+    private Integer id;
+}
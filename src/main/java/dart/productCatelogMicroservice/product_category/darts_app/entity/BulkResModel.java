@@ -0,0 +1,22 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResModel {
+    private Boolean status;
+    private String message;
+    private Integer created;
+    private Integer updated;
+    private Integer failed;
+    private List<BulkItemResModel> results;
+}
@@ -1,6 +1,7 @@
 package dart.productCatelogMicroservice.product_category.darts_app.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -31,6 +32,10 @@ public class CacheModel implements Serializable {
     private String createdat;
     private String updatedat;
 
+    // Only set on copies in depth- or page-limited responses, so clients can tell which child lists go on
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer childcount;
+
     public List<CacheModel> children = new ArrayList<>();
 }
 
@@ -0,0 +1,19 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResModel {
+    private Boolean status;
+    private String message;
+    private Map<String, Object> stats;
+}
@@ -0,0 +1,16 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryEventModel {
+    private String eventtype;
+    private CacheModel category;
+}
@@ -0,0 +1,23 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryInvalidationModel {
+    // The instance that made the change, so it can skip its own announcements
+    private String origin;
+    private long publishedat;
+    // Set when the change is too large to list; receivers drop their tree and reload it
+    private boolean reload;
+    private List<CacheModel> saved;
+    private List<CacheModel> removed;
+}
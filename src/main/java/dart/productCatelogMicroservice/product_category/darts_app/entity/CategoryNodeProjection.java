@@ -0,0 +1,18 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a category within a hierarchy query: the columns served for it, without its path,
+ * and its distance from the category the query started at.
+ */
+public interface CategoryNodeProjection {
+    Integer getId();
+    String getName();
+    String getDescription();
+    Integer getParentid();
+    Boolean getIsactive();
+    LocalDateTime getCreatedat();
+    LocalDateTime getUpdatedat();
+    Integer getDepth();
+}
@@ -0,0 +1,20 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryOutboxModel {
+    private Long id;
+    private Integer categoryid;
+    private String eventtype;
+    private String payload;
+    private LocalDateTime createdat;
+}
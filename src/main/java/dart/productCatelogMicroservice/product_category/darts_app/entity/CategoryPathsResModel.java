@@ -0,0 +1,21 @@
+package dart.productCatelogMicroservice.product_category.darts_app.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryPathsResModel {
+    private Boolean status;
+    private String message;
+    private Map<Integer, List<CacheModel>> paths;
+    private List<Integer> notFound;
+}
@@ -31,6 +31,10 @@ public class ProductCategoryDbModel {
     private LocalDateTime createdat;
     private  LocalDateTime updatedat;
 
+    // IDs from the root down to this category, e.g. "/1/5/12/", and the number of ancestors
+    private String path;
+    private Integer depth;
+
     @Transient
     public List<ProductCategoryDbModel> children = new ArrayList<>();
 
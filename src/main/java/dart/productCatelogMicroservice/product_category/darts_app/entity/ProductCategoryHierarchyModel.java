@@ -1,5 +1,6 @@
 package dart.productCatelogMicroservice.product_category.darts_app.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,12 @@ public class ProductCategoryHierarchyModel {
     private Boolean status;
     private String message;
     private List<CacheModel> category;
+
+    // ID to pass as "after" for the next page; absent when the page is the last one
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer nextCursor;
+
+    public ProductCategoryHierarchyModel(Boolean status, String message, List<CacheModel> category) {
+        this(status, message, category, null);
+    }
 }
@@ -15,4 +15,5 @@ public class ProductCategoryReqModel {
     private String description;
     private Integer parentid;
     private String isactive;
+    private String parentname;
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package dart.productCatelogMicroservice.product_category.darts_app.grpc;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed("category.grpc")
 public class GrpcManager {
 
     public Boolean checkCategoryAssociation(Integer categoryId){
@@ -0,0 +1,48 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work on the caches and the other instances until the database transaction commits,
+ * so a rolled back write is never seen outside the database.
+ */
+public final class AfterCommit {
+
+    private static final Logger logger = LoggerFactory.getLogger(AfterCommit.class);
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, or right away outside a transaction.
+     * The write is committed by then, so a failure of the action is logged and not thrown;
+     * the cache repair consumer applies the change again from its outbox event.
+     * Must not be called from another after-commit action, where it would never run.
+     *
+     * @param description What the action does, for the log.
+     * @param action      The action to run.
+     */
+    public static void run(String description, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runLogged(description, action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runLogged(description, action);
+            }
+        });
+    }
+
+    private static void runLogged(String description, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            logger.error("AfterCommit: run - Error occurred while {}: {}", description, e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package dart.productCatelogMicroservice.product_category.darts_app.helper;
 
 import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryNodeProjection;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
-import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
 import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +10,6 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 public class BuilderManager {
@@ -24,12 +23,12 @@ public class BuilderManager {
 
     public List<CacheModel> buildHierarchy(List<CacheModel> categories, Integer parentId) {
         try {
-            // Group categories by their parentId
-            Map<Integer, List<CacheModel>> groupedByParent = categories.stream()
-                    .collect(Collectors.groupingBy(CacheModel::getParentid));
+            // Index categories by their parentId in primitive arrays
+            CategoryTreeIndex treeIndex = new CategoryTreeIndex(categories);
+            reportInconsistencies(treeIndex);
 
             // Build the category tree starting from the given parentId
-            return buildCategoryTree(groupedByParent, parentId);
+            return treeIndex.linkSubtree(parentId);
         } catch (Exception e) {
             // Log and handle the error
             logger.error("Error building hierarchy for parent ID {}: {}", parentId, e.getMessage());
@@ -37,27 +36,110 @@ public class BuilderManager {
         }
     }
 
-    private List<CacheModel> buildCategoryTree(Map<Integer, List<CacheModel>> groupedByParent, Integer parentId) {
-        try {
-            // Fetch subcategories for the given parentId
-            List<CacheModel> subCategories = groupedByParent.getOrDefault(parentId, new ArrayList<>());
+    public CategoryTreeSnapshot buildTreeSnapshot(List<CacheModel> categories, long version) {
+        CategoryTreeIndex treeIndex = new CategoryTreeIndex(categories);
+        reportInconsistencies(treeIndex);
 
-            // Sort the subcategories by their ID
-            subCategories.sort(Comparator.comparing(CacheModel::getId));
+        // Link every category to its sorted children once, so reads never rebuild the tree
+        List<CacheModel> rootCategories = treeIndex.linkAll();
 
-            // Recursively build the children of each subcategory
-            for (CacheModel category : subCategories) {
-                category.setChildren(buildCategoryTree(groupedByParent, category.getId()));
-            }
+        Map<Integer, CacheModel> categoriesById = new HashMap<>(categories.size() * 2);
+        for (CacheModel category : categories) {
+            categoriesById.put(category.getId(), category);
+        }
 
-            return subCategories;
-        } catch (Exception e) {
-            // Log the error if the tree-building process fails
-            logger.error("Error building category tree for parent ID {}: {}", parentId, e.getMessage());
-            return Collections.emptyList();
+        List<CacheModel> parentCategories = rootCategories.stream()
+                .map(this::shallowCopy)
+                .toList();
+
+        return new CategoryTreeSnapshot(
+                version,
+                Collections.unmodifiableMap(categoriesById),
+                rootCategories,
+                parentCategories
+        );
+    }
+
+    private void reportInconsistencies(CategoryTreeIndex treeIndex) {
+        int[] orphanIds = treeIndex.getOrphanIds();
+        if (orphanIds.length > 0) {
+            logger.warn("{} product categories point to a missing parent: {}", orphanIds.length, sample(orphanIds));
+        }
+        int[] cycleIds = treeIndex.getCycleIds();
+        if (cycleIds.length > 0) {
+            logger.warn("{} product categories are unreachable because of a parentid cycle: {}", cycleIds.length, sample(cycleIds));
         }
     }
 
+    private String sample(int[] ids) {
+        // Keep the log line short for large inconsistencies
+        return Arrays.toString(Arrays.copyOf(ids, Math.min(ids.length, 20)));
+    }
+
+    public CacheModel shallowCopy(CacheModel category) {
+        // Copy every field except the children, which the builder leaves unset
+        return CacheModel.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentid(category.getParentid())
+                .isactive(category.getIsactive())
+                .createdat(category.getCreatedat())
+                .updatedat(category.getUpdatedat())
+                .build();
+    }
+
+    /**
+     * Copies categories and their subtrees down to the given number of levels, with at most limit
+     * children per category, so the copy is proportional to the window rather than to the subtrees.
+     * Every copy carries the number of children its category has; categories on the last level
+     * are copied without children.
+     *
+     * @param categories The categories of the first level, with their subtrees linked.
+     * @param depth      The number of levels to copy, at least 1.
+     * @param limit      The maximum number of children copied per category.
+     */
+    public List<CacheModel> windowCopy(List<CacheModel> categories, int depth, int limit) {
+        List<CacheModel> copies = new ArrayList<>(categories.size());
+        // Iterative, so a deep window cannot overflow the stack
+        Deque<CacheModel> sources = new ArrayDeque<>();
+        Deque<CacheModel> targets = new ArrayDeque<>();
+        Deque<Integer> levels = new ArrayDeque<>();
+        for (CacheModel category : categories) {
+            CacheModel copy = windowNode(category);
+            copies.add(copy);
+            sources.push(category);
+            targets.push(copy);
+            levels.push(1);
+        }
+        while (!sources.isEmpty()) {
+            CacheModel source = sources.pop();
+            CacheModel target = targets.pop();
+            int level = levels.pop();
+            if (level >= depth) {
+                continue;
+            }
+            List<CacheModel> children = source.getChildren() == null ? Collections.emptyList() : source.getChildren();
+            int count = Math.min(limit, children.size());
+            List<CacheModel> childCopies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                CacheModel childCopy = windowNode(children.get(i));
+                childCopies.add(childCopy);
+                sources.push(children.get(i));
+                targets.push(childCopy);
+                levels.push(level + 1);
+            }
+            target.setChildren(childCopies);
+        }
+        return copies;
+    }
+
+    private CacheModel windowNode(CacheModel category) {
+        CacheModel copy = shallowCopy(category);
+        copy.setChildcount(category.getChildren() == null ? 0 : category.getChildren().size());
+        return copy;
+    }
+
     public CacheModel CacheModelBuilder(ProductCategoryDbModel savedProductCategory) {
         try {
             // Build and return a CacheModel object using values from the savedProductCategory
@@ -77,6 +159,19 @@ public class BuilderManager {
         }
     }
 
+    public CacheModel CacheModelBuilder(CategoryNodeProjection node) {
+        // Same fields as a cached category read from a full row
+        return CacheModel.builder()
+                .id(node.getId())
+                .name(node.getName())
+                .description(node.getDescription())
+                .parentid(node.getParentid())
+                .isactive(node.getIsactive())
+                .createdat(utilityManager.DateToStringDate(node.getCreatedat()))
+                .updatedat(utilityManager.DateToStringDate(node.getUpdatedat()))
+                .build();
+    }
+
     public ProductCategoryDbModel dbBuilder(
             Integer id,
             String name,
@@ -105,6 +200,18 @@ public class BuilderManager {
         }
     }
 
+    /**
+     * Places a category under its parent by setting its materialized path and depth.
+     *
+     * @param category The category, which must already have its ID.
+     * @param parent   The parent category, or null for a root category.
+     */
+    public void placeUnder(ProductCategoryDbModel category, ProductCategoryDbModel parent) {
+        String parentPath = parent == null ? "/" : parent.getPath();
+        category.setPath(parentPath + category.getId() + "/");
+        category.setDepth(parent == null ? 0 : parent.getDepth() + 1);
+    }
+
 
 
 }
@@ -0,0 +1,119 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many callers use a dependency at once.
+ * Callers beyond the limit wait for a permit up to the acquire timeout and are rejected after it,
+ * so a spike queues on a semaphore, which parks virtual threads cheaply, instead of piling up
+ * inside the connection pool. Permits are granted in arrival order.
+ * As a bean, its counters are published as metrics tagged with its name; they are read on scrape only.
+ */
+public class Bulkhead implements MeterBinder {
+
+    /**
+     * Thrown when no permit became free within the acquire timeout.
+     */
+    public static class FullException extends RuntimeException {
+        public FullException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long timeoutNanos;
+    private final Semaphore permits;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs a Bulkhead.
+     *
+     * @param name           The name of the protected dependency, used in errors.
+     * @param maxConcurrent  The number of callers allowed in at once.
+     * @param acquireTimeout How long a caller waits for a permit before it is rejected.
+     */
+    public Bulkhead(String name, int maxConcurrent, Duration acquireTimeout) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs the action once a permit is free.
+     *
+     * @param action The call to the protected dependency.
+     * @return The result of the action.
+     * @throws FullException if no permit became free within the acquire timeout.
+     */
+    public <T> T call(Supplier<T> action) {
+        calls.increment();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+        if (!acquired) {
+            rejected.increment();
+            throw new FullException("Bulkhead " + name + " is full: no permit within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the limit, the callers inside and waiting, and the wait time and rejection counters.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long total = calls.sum();
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("active", maxConcurrent - permits.availablePermits());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("calls", total);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgWaitMillis", total == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / total);
+        stats.put("maxWaitMillis", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("category.bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("name", name).description("Callers holding a permit").register(registry);
+        Gauge.builder("category.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .tag("name", name).description("Callers waiting for a permit").register(registry);
+        Gauge.builder("category.bulkhead.max", this, bulkhead -> bulkhead.maxConcurrent)
+                .tag("name", name).description("Callers allowed in at once").register(registry);
+        FunctionCounter.builder("category.bulkhead.rejected", rejected, LongAdder::sum)
+                .tag("name", name).description("Callers rejected after the acquire timeout").register(registry);
+        FunctionTimer.builder("category.bulkhead.wait", this, bulkhead -> bulkhead.calls.sum(), bulkhead -> bulkhead.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .tag("name", name).description("Time spent waiting for a permit").register(registry);
+    }
+}
@@ -0,0 +1,341 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encodes the category values of the Redis hash.
+ * Values are written in the configured format: "binary", a schema-versioned layout of
+ * variable-length integers and UTF-8 strings with optional LZ4 compression of long descriptions,
+ * or "json", the type-tagged JSON of the template's hash value serializer.
+ * Reads recognise both formats from the first byte, so entries written before a format change
+ * stay readable until they are migrated.
+ * The entry and byte counters per format are published as metrics, read on scrape only.
+ */
+@Component
+public class CacheValueCodec implements MeterBinder {
+
+    public enum Format { JSON, BINARY }
+
+    static final byte BINARY_V1 = 1;
+    private static final byte JSON_START = '{';
+    private static final int FLAG_ACTIVE_PRESENT = 1;
+    private static final int FLAG_ACTIVE = 1 << 1;
+    private static final int FLAG_DESCRIPTION_LZ4 = 1 << 2;
+    private static final int FLAG_DATES_AS_TEXT = 1 << 3;
+    // The cache date format; dates that do not round-trip through it are stored as text
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Format format;
+    private final int compressionMinBytes;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+    private final Map<Format, Counters> encoded = Map.of(Format.JSON, new Counters(), Format.BINARY, new Counters());
+    private final Map<Format, Counters> decoded = Map.of(Format.JSON, new Counters(), Format.BINARY, new Counters());
+    private final LongAdder compressedDescriptions = new LongAdder();
+
+    /**
+     * Constructs a CacheValueCodec.
+     *
+     * @param redisTemplate       The template whose hash value serializer reads and writes the JSON format.
+     * @param objectMapper        The mapper converting JSON values to CacheModel.
+     * @param format              The format new values are written in, "binary" or "json".
+     * @param compressionMinBytes The description size from which descriptions are LZ4-compressed; 0 disables compression.
+     */
+    public CacheValueCodec(
+            RedisTemplate<String, Object> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${category.cache.value-format:binary}") String format,
+            @Value("${category.cache.compression.min-bytes:256}") int compressionMinBytes
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.format = Format.valueOf(format.trim().toUpperCase());
+        this.compressionMinBytes = compressionMinBytes;
+    }
+
+    /**
+     * Encodes a category in the configured format.
+     *
+     * @param category The category; its children are not stored.
+     * @return The value to store in the hash.
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] encode(CacheModel category) {
+        byte[] value = format == Format.BINARY
+                ? encodeBinary(category)
+                : ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(category);
+        encoded.get(format).record(value.length, 0);
+        return value;
+    }
+
+    /**
+     * Decodes a category stored in either format.
+     *
+     * @param value The value read from the hash.
+     * @return The category, with an empty list of children.
+     * @throws IllegalArgumentException if the value is in neither format.
+     */
+    public CacheModel decode(byte[] value) {
+        long start = System.nanoTime();
+        Format valueFormat = formatOf(value);
+        CacheModel category = valueFormat == Format.BINARY
+                ? decodeBinary(value)
+                : objectMapper.convertValue(redisTemplate.getHashValueSerializer().deserialize(value), CacheModel.class);
+        decoded.get(valueFormat).record(value.length, System.nanoTime() - start);
+        return category;
+    }
+
+    /**
+     * Returns whether a stored value is already in the configured format.
+     */
+    public boolean isCurrentFormat(byte[] value) {
+        return formatOf(value) == format;
+    }
+
+    /**
+     * Returns the configured format, and the entries, bytes and decode time seen per format.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("format", format);
+        stats.put("compressionMinBytes", compressionMinBytes);
+        stats.put("compressedDescriptions", compressedDescriptions.sum());
+        Map<String, Object> encodedStats = new LinkedHashMap<>();
+        Map<String, Object> decodedStats = new LinkedHashMap<>();
+        for (Format each : Format.values()) {
+            encodedStats.put(each.name().toLowerCase(), encoded.get(each).snapshot(false));
+            decodedStats.put(each.name().toLowerCase(), decoded.get(each).snapshot(true));
+        }
+        stats.put("encoded", encodedStats);
+        stats.put("decoded", decodedStats);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Format each : Format.values()) {
+            String tag = each.name().toLowerCase();
+            Counters encodedCounters = encoded.get(each);
+            Counters decodedCounters = decoded.get(each);
+            FunctionCounter.builder("category.cache.values.encoded", encodedCounters, counters -> counters.entries.sum())
+                    .tag("format", tag).description("Cache values encoded").register(registry);
+            FunctionCounter.builder("category.cache.values.encoded.bytes", encodedCounters, counters -> counters.bytes.sum())
+                    .tag("format", tag).baseUnit("bytes").description("Size of the cache values encoded").register(registry);
+            FunctionCounter.builder("category.cache.values.decoded.bytes", decodedCounters, counters -> counters.bytes.sum())
+                    .tag("format", tag).baseUnit("bytes").description("Size of the cache values decoded").register(registry);
+            FunctionTimer.builder("category.cache.values.decode", decodedCounters, counters -> counters.entries.sum(), counters -> counters.nanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("format", tag).description("Time spent decoding cache values").register(registry);
+        }
+        FunctionCounter.builder("category.cache.values.compressed.descriptions", compressedDescriptions, LongAdder::sum)
+                .description("Descriptions written LZ4-compressed").register(registry);
+    }
+
+    private Format formatOf(byte[] value) {
+        if (value.length > 0 && value[0] == BINARY_V1) {
+            return Format.BINARY;
+        }
+        if (value.length > 0 && value[0] == JSON_START) {
+            return Format.JSON;
+        }
+        throw new IllegalArgumentException("Unknown cache value format");
+    }
+
+    byte[] encodeBinary(CacheModel category) {
+        int flags = 0;
+        if (category.getIsactive() != null) {
+            flags |= FLAG_ACTIVE_PRESENT | (category.getIsactive() ? FLAG_ACTIVE : 0);
+        }
+        long createdAt = epochSeconds(category.getCreatedat());
+        long updatedAt = epochSeconds(category.getUpdatedat());
+        boolean datesAsText = createdAt < 0 || updatedAt < 0;
+        if (datesAsText) {
+            flags |= FLAG_DATES_AS_TEXT;
+        }
+        byte[] description = category.getDescription() == null ? null : category.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = null;
+        if (description != null && compressionMinBytes > 0 && description.length >= compressionMinBytes) {
+            byte[] candidate = compressor.compress(description);
+            // Short or random text can grow under LZ4; such descriptions are kept as they are
+            if (candidate.length < description.length) {
+                compressed = candidate;
+                flags |= FLAG_DESCRIPTION_LZ4;
+                compressedDescriptions.increment();
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + (description == null ? 0 : description.length));
+        out.write(BINARY_V1);
+        out.write(flags);
+        writeVarLong(out, category.getId());
+        writeVarLong(out, category.getParentid() == null ? 0 : category.getParentid() + 1L);
+        writeBytes(out, category.getName() == null ? null : category.getName().getBytes(StandardCharsets.UTF_8));
+        if (compressed != null) {
+            writeVarLong(out, description.length);
+            writeBytes(out, compressed);
+        } else {
+            writeBytes(out, description);
+        }
+        if (datesAsText) {
+            writeBytes(out, category.getCreatedat() == null ? null : category.getCreatedat().getBytes(StandardCharsets.UTF_8));
+            writeBytes(out, category.getUpdatedat() == null ? null : category.getUpdatedat().getBytes(StandardCharsets.UTF_8));
+        } else {
+            writeVarLong(out, createdAt);
+            writeVarLong(out, updatedAt);
+        }
+        return out.toByteArray();
+    }
+
+    CacheModel decodeBinary(byte[] value) {
+        ByteBuffer in = ByteBuffer.wrap(value);
+        in.get();
+        int flags = in.get();
+
+        CacheModel category = new CacheModel();
+        category.setChildren(new ArrayList<>());
+        category.setId((int) readVarLong(in));
+        long parentId = readVarLong(in);
+        category.setParentid(parentId == 0 ? null : (int) (parentId - 1));
+        category.setName(readString(in));
+        if ((flags & FLAG_DESCRIPTION_LZ4) != 0) {
+            int length = (int) readVarLong(in);
+            byte[] compressed = readBytes(in);
+            byte[] description = new byte[length];
+            decompressor.decompress(compressed, 0, description, 0, length);
+            category.setDescription(new String(description, StandardCharsets.UTF_8));
+        } else {
+            category.setDescription(readString(in));
+        }
+        if ((flags & FLAG_ACTIVE_PRESENT) != 0) {
+            category.setIsactive((flags & FLAG_ACTIVE) != 0);
+        }
+        if ((flags & FLAG_DATES_AS_TEXT) != 0) {
+            category.setCreatedat(readString(in));
+            category.setUpdatedat(readString(in));
+        } else {
+            category.setCreatedat(dateText(readVarLong(in)));
+            category.setUpdatedat(dateText(readVarLong(in)));
+        }
+        return category;
+    }
+
+    /**
+     * Returns the date as seconds since the epoch plus one, 0 for no date,
+     * or -1 if the text does not round-trip through the cache date format.
+     */
+    private long epochSeconds(String date) {
+        if (date == null) {
+            return 0;
+        }
+        try {
+            LocalDateTime parsed = LocalDateTime.parse(date, DATE_FORMAT);
+            long seconds = parsed.toEpochSecond(ZoneOffset.UTC);
+            return seconds >= 0 && parsed.format(DATE_FORMAT).equals(date) ? seconds + 1 : -1;
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private String dateText(long epochSecondsPlusOne) {
+        if (epochSecondsPlusOne == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochSecondsPlusOne - 1, 0, ZoneOffset.UTC).format(DATE_FORMAT);
+    }
+
+    // Strings and byte arrays are written as their length plus one, so 0 stands for null
+    private void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        if (bytes == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private byte[] readBytes(ByteBuffer in) {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set while more bytes follow
+    private void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer in cache value");
+    }
+
+    private static final class Counters {
+        private final LongAdder entries = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void record(int length, long elapsedNanos) {
+            entries.increment();
+            bytes.add(length);
+            nanos.add(elapsedNanos);
+        }
+
+        private Map<String, Object> snapshot(boolean withTime) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            long count = entries.sum();
+            values.put("entries", count);
+            values.put("bytes", bytes.sum());
+            values.put("avgBytes", count == 0 ? 0.0 : (double) bytes.sum() / count);
+            if (withTime) {
+                values.put("avgDecodeMicros", count == 0 ? 0.0 : nanos.sum() / 1000.0 / count);
+            }
+            return values;
+        }
+    }
+}
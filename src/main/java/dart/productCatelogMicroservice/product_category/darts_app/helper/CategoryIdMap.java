@@ -0,0 +1,128 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+
+import java.util.Collection;
+
+/**
+ * Persistent map from category IDs to categories: a trie with 32 slots per level over the bits of the ID.
+ * Changes return a new map that copies only the arrays on the path to the changed ID, at most seven
+ * of them, and shares everything else with the previous map, which stays untouched for its readers.
+ */
+final class CategoryIdMap {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    // Seven levels cover all 32 bits of an ID
+    private static final int MAX_SHIFT = 30;
+
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private CategoryIdMap(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Builds a map of the given categories, filling the arrays in place since nothing shares them yet.
+     */
+    static CategoryIdMap of(Collection<CacheModel> categories) {
+        CategoryIdMap map = new CategoryIdMap(new Object[WIDTH], 0, 0);
+        int size = 0;
+        for (CacheModel category : categories) {
+            map = map.grownFor(category.getId());
+            if (store(map.root, map.shift, category.getId(), category)) {
+                size++;
+            }
+        }
+        return new CategoryIdMap(map.root, map.shift, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    CacheModel get(int id) {
+        if (!covers(shift, id)) {
+            return null;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(id >>> level) & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (CacheModel) node[id & MASK];
+    }
+
+    /**
+     * Returns a map with the category stored under its ID, replacing any category stored there.
+     */
+    CategoryIdMap with(CacheModel category) {
+        CategoryIdMap grown = grownFor(category.getId());
+        Object[] copy = grown.root.clone();
+        boolean added = grown.storeCopying(copy, category.getId(), category);
+        return new CategoryIdMap(copy, grown.shift, added ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the given ID, or this map if the ID is not stored.
+     */
+    CategoryIdMap without(int id) {
+        if (get(id) == null) {
+            return this;
+        }
+        Object[] copy = root.clone();
+        storeCopying(copy, id, null);
+        return new CategoryIdMap(copy, shift, size - 1);
+    }
+
+    private CategoryIdMap grownFor(int id) {
+        // Adds levels on top until the trie is tall enough for the ID
+        Object[] grownRoot = root;
+        int grownShift = shift;
+        while (!covers(grownShift, id)) {
+            Object[] parent = new Object[WIDTH];
+            parent[0] = grownRoot;
+            grownRoot = parent;
+            grownShift += BITS;
+        }
+        return grownRoot == root ? this : new CategoryIdMap(grownRoot, grownShift, size);
+    }
+
+    private static boolean store(Object[] node, int shift, int id, CacheModel category) {
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (id >>> level) & MASK;
+            if (node[slot] == null) {
+                node[slot] = new Object[WIDTH];
+            }
+            node = (Object[]) node[slot];
+        }
+        boolean added = node[id & MASK] == null;
+        node[id & MASK] = category;
+        return added;
+    }
+
+    private boolean storeCopying(Object[] node, int id, CacheModel category) {
+        // The given root is already a copy; every array below it on the path is copied before it is changed
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (id >>> level) & MASK;
+            Object[] child = (Object[]) node[slot];
+            child = child == null ? new Object[WIDTH] : child.clone();
+            node[slot] = child;
+            node = child;
+        }
+        boolean added = node[id & MASK] == null;
+        node[id & MASK] = category;
+        return added;
+    }
+
+    private static boolean covers(int shift, int id) {
+        return shift >= MAX_SHIFT || (id >>> (shift + BITS)) == 0;
+    }
+}
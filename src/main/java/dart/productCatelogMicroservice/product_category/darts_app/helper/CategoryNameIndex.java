@@ -0,0 +1,204 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the taken category names, lowercased as the unique index on lower(name) compares them,
+ * so a create of a new name can skip the duplicate lookup in the database.
+ * A Bloom filter sits in front of the exact name map and answers most new names from a few bits.
+ * The index is loaded from the database at startup and kept up to date by the writes of this instance
+ * and the changes other instances announce. It is never the last word either way: a name it reports taken
+ * may have been freed by a rename it missed, so callers confirm it against the database, and a name taken
+ * a moment ago on another instance may still be reported absent, which the unique index then rejects.
+ * Deleted categories are only marked inactive and keep their name, so names leave the index only on a rename.
+ */
+@Component
+public class CategoryNameIndex implements MeterBinder {
+
+    private static final String NAME_CONSTRAINT = "ux_categories_lower_name";
+
+    /**
+     * What the index knows about a name.
+     */
+    public enum Lookup {
+        /** No category has the name. */
+        ABSENT,
+        /** A category had the name when last recorded; confirm it against the database. */
+        TAKEN,
+        /** The index cannot tell; ask the database. */
+        UNKNOWN
+    }
+
+    private final long expectedNames;
+    private final double falsePositiveRate;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private volatile NameBloomFilter bloomFilter;
+    private volatile boolean loaded;
+    private final LongAdder absent = new LongAdder();
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    /**
+     * Constructs a CategoryNameIndex.
+     *
+     * @param expectedNames     The number of names the Bloom filter is sized for, at the least.
+     * @param falsePositiveRate The share of new names the Bloom filter lets through to the name map.
+     */
+    public CategoryNameIndex(
+            @Value("${category.name-index.expected-names:1000000}") long expectedNames,
+            @Value("${category.name-index.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.expectedNames = expectedNames;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new NameBloomFilter(expectedNames, falsePositiveRate);
+    }
+
+    /**
+     * Normalizes a name the way the unique index compares names.
+     */
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tells whether a database error is the unique index rejecting a taken name.
+     */
+    public static boolean isNameConflict(Exception e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains(NAME_CONSTRAINT);
+    }
+
+    /**
+     * Looks a name up; the answer is UNKNOWN until the index is loaded.
+     */
+    public Lookup lookup(String name) {
+        if (!loaded) {
+            unknown.increment();
+            return Lookup.UNKNOWN;
+        }
+        String normalized = normalize(name);
+        if (!bloomFilter.mightContain(normalized)) {
+            absent.increment();
+            return Lookup.ABSENT;
+        }
+        if (idsByName.containsKey(normalized)) {
+            taken.increment();
+            return Lookup.TAKEN;
+        }
+        // A false positive of the filter, or a name freed by a rename
+        unknown.increment();
+        return Lookup.UNKNOWN;
+    }
+
+    /**
+     * Loads the names of every category, active or not, and starts answering lookups.
+     * Names recorded while the load runs are newer than the rows read, so they are kept.
+     *
+     * @param expectedCount The number of categories about to be loaded, to size the Bloom filter.
+     * @param categories    Receives the loader, which takes each category ID and name in turn.
+     */
+    public void load(long expectedCount, Consumer<BiConsumer<Integer, String>> categories) {
+        loaded = false;
+        // A put racing the swap may miss the new filter; the unique index still rejects that name
+        NameBloomFilter filter = new NameBloomFilter(Math.max(expectedNames, expectedCount * 2), falsePositiveRate);
+        idsByName.keySet().forEach(filter::add);
+        bloomFilter = filter;
+        categories.accept((id, name) -> {
+            String normalized = normalize(name);
+            if (namesById.putIfAbsent(id, normalized) == null) {
+                idsByName.putIfAbsent(normalized, id);
+                filter.add(normalized);
+            }
+        });
+        loaded = true;
+    }
+
+    /**
+     * Records a saved category once the surrounding transaction commits, or right away outside a transaction,
+     * so a rolled back write never leaves its name behind.
+     */
+    public void recordSaved(Integer id, String name) {
+        AfterCommit.run("recording a category name", () -> put(id, name));
+    }
+
+    /**
+     * Records categories saved by another instance.
+     */
+    public void recordSaved(Collection<CacheModel> categories) {
+        for (CacheModel category : categories) {
+            if (category.getId() != null && category.getName() != null) {
+                put(category.getId(), category.getName());
+            }
+        }
+    }
+
+    /**
+     * Counts a duplicate name that got past the index and was rejected by the unique index.
+     */
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    /**
+     * Returns the names held, the size of the Bloom filter and the lookup counters.
+     */
+    public Map<String, Object> stats() {
+        NameBloomFilter filter = bloomFilter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("names", idsByName.size());
+        stats.put("bloomBytes", filter.sizeInBytes());
+        stats.put("bloomHashes", filter.hashCount());
+        stats.put("absent", absent.sum());
+        stats.put("taken", taken.sum());
+        stats.put("unknown", unknown.sum());
+        stats.put("constraintConflicts", conflicts.sum());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("category.nameindex.lookups", absent, LongAdder::sum)
+                .tag("result", "absent").description("Duplicate name checks looked up in the name index").register(registry);
+        FunctionCounter.builder("category.nameindex.lookups", taken, LongAdder::sum)
+                .tag("result", "taken").description("Duplicate name checks looked up in the name index").register(registry);
+        FunctionCounter.builder("category.nameindex.lookups", unknown, LongAdder::sum)
+                .tag("result", "unknown").description("Duplicate name checks looked up in the name index").register(registry);
+        FunctionCounter.builder("category.nameindex.conflicts", conflicts, LongAdder::sum)
+                .description("Duplicate names rejected by the unique index after passing the name index").register(registry);
+        Gauge.builder("category.nameindex.names", idsByName, Map::size)
+                .description("Names held in the name index").register(registry);
+    }
+
+    private void put(Integer id, String name) {
+        String normalized = normalize(name);
+        String previous = namesById.put(id, normalized);
+        if (previous != null && !previous.equals(normalized)) {
+            idsByName.remove(previous, id);
+        }
+        idsByName.put(normalized, id);
+        bloomFilter.add(normalized);
+    }
+}
@@ -0,0 +1,263 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-instance cache of the hierarchy reads answered from the Redis child index: the children of a
+ * category, and the linked subtree below it. A hit is served without a network hop.
+ * The cache is bounded by entries and by an estimate of the memory its categories take, evicting the
+ * least recently used entries first, and every entry expires after a time to live, which bounds how
+ * stale an entry can get if an invalidation is lost.
+ * Every change to the catalog, local or announced by another instance, clears the whole cache, as
+ * the response body cache does: a subtree holds every category below it, so a targeted invalidation
+ * would need the ancestors of each change. A read that started before a clear does not store its
+ * result, so an entry never predates the last change seen.
+ * Cached lists are shared between readers and must not be modified.
+ */
+@Component
+public class CategoryNearCache implements MeterBinder {
+
+    // Rough heap cost of a category and of a string, on top of the characters of the string
+    private static final long CATEGORY_BYTES = 120;
+    private static final long STRING_BYTES = 40;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final boolean enabled;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // A lock rather than synchronized, so a waiting virtual thread is not pinned to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+
+    /**
+     * Constructs a CategoryNearCache.
+     *
+     * @param maxEntries The maximum number of cached reads.
+     * @param maxBytes   The estimated memory the cached categories may take.
+     * @param ttlMillis  How long a cached read is served before it is read from Redis again.
+     */
+    public CategoryNearCache(
+            @Value("${category.near-cache.max-entries:10000}") int maxEntries,
+            @Value("${category.near-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${category.near-cache.ttl-ms:60000}") long ttlMillis
+    ) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.enabled = maxEntries > 0 && maxBytes > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * Returns the generation of the cache, which changes on every clear. Read it before going to Redis
+     * and hand it to the put, so a result read before a change is not stored after it.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached direct children of a category, or null if they are not cached.
+     */
+    public List<CacheModel> getChildren(Integer categoryId) {
+        return get("children:" + categoryId);
+    }
+
+    /**
+     * Caches the direct children of a category, as read from Redis in the given generation.
+     */
+    public void putChildren(Integer categoryId, List<CacheModel> children, long readGeneration) {
+        put("children:" + categoryId, children, readGeneration);
+    }
+
+    /**
+     * Returns the cached linked subtree below a category, or null if it is not cached.
+     */
+    public List<CacheModel> getSubtree(Integer categoryId) {
+        return get("subtree:" + categoryId);
+    }
+
+    /**
+     * Caches the linked subtree below a category, as read from Redis in the given generation.
+     */
+    public void putSubtree(Integer categoryId, List<CacheModel> subtree, long readGeneration) {
+        put("subtree:" + categoryId, subtree, readGeneration);
+    }
+
+    /**
+     * Drops every cached read after a change to the catalog.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            bytes = 0;
+            clears.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the limits, the entries and estimated bytes held, and the hit, eviction and clear counters.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxBytes", maxBytes);
+        stats.put("ttlMillis", ttlNanos / 1_000_000);
+        stats.put("entries", size());
+        stats.put("bytes", bytes());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", hitRatio());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("clears", clears.sum());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("category.nearcache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").description("Reads looked up in the near cache").register(registry);
+        FunctionCounter.builder("category.nearcache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").description("Reads looked up in the near cache").register(registry);
+        FunctionCounter.builder("category.nearcache.evictions", evictions, LongAdder::sum)
+                .tag("cause", "size").description("Entries dropped before they were cleared").register(registry);
+        FunctionCounter.builder("category.nearcache.evictions", expirations, LongAdder::sum)
+                .tag("cause", "expired").description("Entries dropped before they were cleared").register(registry);
+        FunctionCounter.builder("category.nearcache.clears", clears, LongAdder::sum)
+                .description("Clears after a change to the catalog").register(registry);
+        Gauge.builder("category.nearcache.hit.ratio", this, CategoryNearCache::hitRatio)
+                .description("Share of near cache lookups that were hits since start").register(registry);
+        Gauge.builder("category.nearcache.entries", this, CategoryNearCache::size)
+                .description("Reads held in the near cache").register(registry);
+        Gauge.builder("category.nearcache.bytes", this, CategoryNearCache::bytes)
+                .baseUnit("bytes").description("Estimated memory taken by the categories in the near cache").register(registry);
+    }
+
+    private List<CacheModel> get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.storedAt > ttlNanos) {
+                entries.remove(key);
+                bytes -= entry.bytes;
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.categories;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, List<CacheModel> categories, long readGeneration) {
+        if (!enabled) {
+            return;
+        }
+        // Estimated outside the lock; a list too large for the whole cache is not stored
+        long size = estimateBytes(categories);
+        if (size > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation.get() != readGeneration) {
+                return;
+            }
+            Entry previous = entries.put(key, new Entry(categories, size, System.nanoTime()));
+            bytes += size - (previous == null ? 0 : previous.bytes);
+            Iterator<Entry> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                bytes -= evicted.bytes;
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double hitRatio() {
+        long lookups = hits.sum() + misses.sum();
+        return lookups == 0 ? 0.0 : (double) hits.sum() / lookups;
+    }
+
+    private static long estimateBytes(List<CacheModel> categories) {
+        // Iterative, so a deep subtree cannot overflow the stack
+        long size = 0;
+        Deque<List<CacheModel>> lists = new ArrayDeque<>();
+        lists.push(categories);
+        while (!lists.isEmpty()) {
+            for (CacheModel category : lists.pop()) {
+                size += CATEGORY_BYTES + stringBytes(category.getName()) + stringBytes(category.getDescription())
+                        + stringBytes(category.getCreatedat()) + stringBytes(category.getUpdatedat());
+                if (category.getChildren() != null && !category.getChildren().isEmpty()) {
+                    lists.push(category.getChildren());
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    private record Entry(List<CacheModel> categories, long bytes, long storedAt) {
+    }
+}
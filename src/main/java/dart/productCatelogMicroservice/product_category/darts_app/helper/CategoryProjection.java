@@ -0,0 +1,248 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The fields and the layout a client asked for in a hierarchy response.
+ * The nested format keeps the tree of category objects, each holding only the requested fields.
+ * The flat format lists the categories in parallel arrays, one per field, parents before their
+ * children; it always carries id and parentid, from which the tree can be rebuilt.
+ * Bodies are written straight from the categories, field by field, so fields nobody asked for
+ * are never serialized.
+ */
+public final class CategoryProjection {
+
+    public enum Format { NESTED, FLAT }
+
+    enum Field {
+        ID, NAME, DESCRIPTION, PARENTID, ISACTIVE, CREATEDAT, UPDATEDAT, CHILDCOUNT;
+
+        String jsonName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final List<Field> FLAT_DEFAULT = List.of(Field.ID, Field.PARENTID, Field.NAME);
+
+    private final Format format;
+    private final List<Field> fields;
+
+    private CategoryProjection(Format format, List<Field> fields) {
+        this.format = format;
+        this.fields = fields;
+    }
+
+    /**
+     * Parses the "fields" and "format" request parameters.
+     *
+     * @param fields Comma separated field names, or null for the default fields of the format.
+     * @param format "nested" or "flat", or null for nested.
+     * @return The projection, or null when neither parameter is given and the regular body applies.
+     */
+    public static CategoryProjection parse(String fields, String format) {
+        if (fields == null && format == null) {
+            return null;
+        }
+        Format parsedFormat = parseFormat(format);
+        Set<Field> selected = new LinkedHashSet<>();
+        if (parsedFormat == Format.FLAT) {
+            selected.add(Field.ID);
+            selected.add(Field.PARENTID);
+        }
+        if (fields == null) {
+            selected.addAll(parsedFormat == Format.FLAT ? FLAT_DEFAULT : List.of(Field.values()));
+        } else {
+            for (String name : fields.split(",")) {
+                if (!name.isBlank()) {
+                    selected.add(parseField(name.trim()));
+                }
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new RunTimeException(new ErrorHandler(false, "At least one field must be requested."), HttpStatus.BAD_REQUEST);
+        }
+        return new CategoryProjection(parsedFormat, List.copyOf(selected));
+    }
+
+    /**
+     * Returns a stable description of the projection, to tell cached bodies apart.
+     */
+    public String key() {
+        return "format=" + format.name().toLowerCase(Locale.ROOT) + "&fields="
+                + fields.stream().map(Field::jsonName).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Writes the response as JSON with only the requested fields, in the requested format.
+     *
+     * @param jsonFactory The factory of the web layer's object mapper.
+     * @param response    The hierarchy response to write.
+     * @return The JSON body.
+     * @throws IOException If the generator fails.
+     */
+    public byte[] write(JsonFactory jsonFactory, ProductCategoryHierarchyModel response) throws IOException {
+        List<CacheModel> categories = response.getCategory() == null ? List.of() : response.getCategory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            writeBoolean(generator, "status", response.getStatus());
+            generator.writeStringField("message", response.getMessage());
+            if (format == Format.FLAT) {
+                writeColumns(generator, categories);
+            } else {
+                writeTree(generator, categories);
+            }
+            if (response.getNextCursor() != null) {
+                generator.writeNumberField("nextCursor", response.getNextCursor());
+            }
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private void writeTree(JsonGenerator generator, List<CacheModel> categories) throws IOException {
+        // Iterative, so a deep hierarchy cannot overflow the stack
+        Deque<Iterator<CacheModel>> levels = new ArrayDeque<>();
+        generator.writeArrayFieldStart("category");
+        levels.push(categories.iterator());
+        while (!levels.isEmpty()) {
+            Iterator<CacheModel> level = levels.peek();
+            if (!level.hasNext()) {
+                levels.pop();
+                generator.writeEndArray();
+                if (!levels.isEmpty()) {
+                    // Closes the category whose children were just written
+                    generator.writeEndObject();
+                }
+                continue;
+            }
+            CacheModel category = level.next();
+            generator.writeStartObject();
+            for (Field field : fields) {
+                generator.writeFieldName(field.jsonName());
+                writeValue(generator, field, category);
+            }
+            // Empty and unloaded child lists are left out; childcount tells them apart
+            if (category.getChildren() != null && !category.getChildren().isEmpty()) {
+                generator.writeArrayFieldStart("children");
+                levels.push(category.getChildren().iterator());
+            } else {
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private void writeColumns(JsonGenerator generator, List<CacheModel> categories) throws IOException {
+        List<CacheModel> rows = preOrder(categories);
+        generator.writeNumberField("count", rows.size());
+        for (Field field : fields) {
+            generator.writeArrayFieldStart(field.jsonName());
+            for (CacheModel row : rows) {
+                writeValue(generator, field, row);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static List<CacheModel> preOrder(List<CacheModel> categories) {
+        List<CacheModel> rows = new ArrayList<>();
+        Deque<Iterator<CacheModel>> levels = new ArrayDeque<>();
+        levels.push(categories.iterator());
+        while (!levels.isEmpty()) {
+            Iterator<CacheModel> level = levels.peek();
+            if (!level.hasNext()) {
+                levels.pop();
+                continue;
+            }
+            CacheModel category = level.next();
+            rows.add(category);
+            if (category.getChildren() != null && !category.getChildren().isEmpty()) {
+                levels.push(category.getChildren().iterator());
+            }
+        }
+        return rows;
+    }
+
+    private static void writeValue(JsonGenerator generator, Field field, CacheModel category) throws IOException {
+        switch (field) {
+            case ID -> writeNumber(generator, category.getId());
+            case NAME -> generator.writeString(category.getName());
+            case DESCRIPTION -> generator.writeString(category.getDescription());
+            case PARENTID -> writeNumber(generator, category.getParentid());
+            case ISACTIVE -> {
+                if (category.getIsactive() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBoolean(category.getIsactive());
+                }
+            }
+            case CREATEDAT -> generator.writeString(category.getCreatedat());
+            case UPDATEDAT -> generator.writeString(category.getUpdatedat());
+            case CHILDCOUNT -> writeNumber(generator, childCount(category));
+        }
+    }
+
+    private static Integer childCount(CacheModel category) {
+        // Windowed copies carry the count; otherwise it is known only where the children are included
+        if (category.getChildcount() != null) {
+            return category.getChildcount();
+        }
+        return category.getChildren() == null ? null : category.getChildren().size();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeBoolean(JsonGenerator generator, String name, Boolean value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+
+    private static Format parseFormat(String format) {
+        if (format == null) {
+            return Format.NESTED;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RunTimeException(new ErrorHandler(false, "Format must be nested or flat."), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static Field parseField(String name) {
+        try {
+            return Field.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            String known = Arrays.stream(Field.values()).map(Field::jsonName).collect(Collectors.joining(", "));
+            throw new RunTimeException(new ErrorHandler(false, "Unknown field: " + name + ". Fields are " + known + "."), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parent/child index of a list of categories laid out in primitive int arrays.
+ * Categories are ordered by ID once; every parent's children then occupy a contiguous,
+ * already sorted range of one array (compressed sparse row layout), so no per-parent
+ * lists or boxed keys are allocated while indexing.
+ * All traversals are iterative, so deep catalogs cannot overflow the stack, and
+ * categories caught in a parentid cycle or pointing to a missing parent are reported
+ * instead of silently dropped.
+ */
+public final class CategoryTreeIndex {
+
+    private static final int NO_PARENT = -1;
+
+    private final CacheModel[] categories;
+    private final int[] sortedIds;
+    private final int[] parentIds;
+    private final int[] parentPositions;
+    private final int[] childOffsets;
+    private final int[] childPositions;
+    private final int[] rootPositions;
+    private final int[] orphanPositions;
+    private final int[] cyclePositions;
+    private final int maxDepth;
+
+    /**
+     * Indexes the given categories. A null parentid is treated as a root category.
+     *
+     * @param categories The categories to index; IDs are expected to be unique.
+     */
+    public CategoryTreeIndex(List<CacheModel> categories) {
+        int size = categories.size();
+
+        // Order the categories by ID with a single primitive sort of (id, position) pairs
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) categories.get(i).getId() << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        this.categories = new CacheModel[size];
+        this.sortedIds = new int[size];
+        this.parentIds = new int[size];
+        for (int k = 0; k < size; k++) {
+            CacheModel category = categories.get((int) keys[k]);
+            this.categories[k] = category;
+            this.sortedIds[k] = category.getId();
+            this.parentIds[k] = category.getParentid() == null ? 0 : category.getParentid();
+        }
+
+        // Resolve every parent ID to a position and count the children of each position
+        this.parentPositions = new int[size];
+        this.childOffsets = new int[size + 1];
+        int rootCount = 0;
+        int orphanCount = 0;
+        for (int k = 0; k < size; k++) {
+            int parentPosition = parentIds[k] == 0 ? NO_PARENT : positionOf(parentIds[k]);
+            parentPositions[k] = parentPosition;
+            if (parentPosition >= 0) {
+                childOffsets[parentPosition + 1]++;
+            } else if (parentIds[k] == 0) {
+                rootCount++;
+            } else {
+                orphanCount++;
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            childOffsets[k + 1] += childOffsets[k];
+        }
+
+        // Fill the child ranges in ID order, so every range comes out sorted by ID
+        this.childPositions = new int[childOffsets[size]];
+        this.rootPositions = new int[rootCount];
+        this.orphanPositions = new int[orphanCount];
+        int[] cursor = Arrays.copyOf(childOffsets, size);
+        int rootCursor = 0;
+        int orphanCursor = 0;
+        for (int k = 0; k < size; k++) {
+            int parentPosition = parentPositions[k];
+            if (parentPosition >= 0) {
+                childPositions[cursor[parentPosition]++] = k;
+            } else if (parentIds[k] == 0) {
+                rootPositions[rootCursor++] = k;
+            } else {
+                orphanPositions[orphanCursor++] = k;
+            }
+        }
+
+        // Everything not reachable from a root or an orphan sits on or below a parentid cycle
+        int[] depths = new int[size];
+        Arrays.fill(depths, -1);
+        int[] stack = new int[size];
+        int deepest = markReachable(rootPositions, depths, stack, 0);
+        deepest = markReachable(orphanPositions, depths, stack, deepest);
+        int cycleCount = 0;
+        for (int k = 0; k < size; k++) {
+            if (depths[k] < 0) {
+                stack[cycleCount++] = k;
+            }
+        }
+        this.cyclePositions = Arrays.copyOf(stack, cycleCount);
+        this.maxDepth = deepest;
+    }
+
+    public int size() {
+        return categories.length;
+    }
+
+    /**
+     * Returns the number of levels below the virtual root; 0 for an empty catalog.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the IDs of categories whose parent is not part of the index.
+     */
+    public int[] getOrphanIds() {
+        return idsAt(orphanPositions);
+    }
+
+    /**
+     * Returns the IDs of categories that can never be reached from a root because of a parentid cycle.
+     */
+    public int[] getCycleIds() {
+        return idsAt(cyclePositions);
+    }
+
+    /**
+     * Links the subtree below the given parent ID and returns its top level, sorted by ID.
+     * Only categories inside the requested subtree get their children replaced.
+     *
+     * @param parentId The parent ID to start from; 0 links the full hierarchy.
+     * @return A mutable list of the children of the parent ID, each with its subtree linked.
+     */
+    public List<CacheModel> linkSubtree(int parentId) {
+        int[] start = startPositions(parentId);
+        boolean[] visited = new boolean[categories.length];
+        int[] stack = new int[categories.length];
+        int top = 0;
+
+        List<CacheModel> result = new ArrayList<>(start.length);
+        for (int position : start) {
+            result.add(categories[position]);
+            visited[position] = true;
+            stack[top++] = position;
+        }
+
+        while (top > 0) {
+            int position = stack[--top];
+            int from = childOffsets[position];
+            int to = childOffsets[position + 1];
+            List<CacheModel> children = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int child = childPositions[i];
+                // A child already linked means the start itself sits on a cycle; cut it there
+                if (!visited[child]) {
+                    visited[child] = true;
+                    children.add(categories[child]);
+                    stack[top++] = child;
+                }
+            }
+            categories[position].setChildren(children);
+        }
+        return result;
+    }
+
+    /**
+     * Links every category to its children with unmodifiable lists, for trees shared between readers.
+     * Categories reported by {@link #getCycleIds()} are left without children.
+     *
+     * @return An unmodifiable list of the root categories, sorted by ID.
+     */
+    public List<CacheModel> linkAll() {
+        for (int k = 0; k < categories.length; k++) {
+            int from = childOffsets[k];
+            int to = childOffsets[k + 1];
+            categories[k].setChildren(from == to ? Collections.emptyList() : modelsAt(childPositions, from, to));
+        }
+
+        // Categories on or below a cycle get no children, so the linked graph stays a tree
+        for (int position : cyclePositions) {
+            categories[position].setChildren(Collections.emptyList());
+        }
+        return rootPositions.length == 0 ? Collections.emptyList() : modelsAt(rootPositions, 0, rootPositions.length);
+    }
+
+    private int[] startPositions(int parentId) {
+        if (parentId == 0) {
+            return rootPositions;
+        }
+        int parentPosition = positionOf(parentId);
+        if (parentPosition >= 0) {
+            return Arrays.copyOfRange(childPositions, childOffsets[parentPosition], childOffsets[parentPosition + 1]);
+        }
+
+        // The parent itself is not indexed; its children are among the orphans
+        int count = 0;
+        int[] matches = new int[orphanPositions.length];
+        for (int position : orphanPositions) {
+            if (parentIds[position] == parentId) {
+                matches[count++] = position;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private int markReachable(int[] start, int[] depths, int[] stack, int deepest) {
+        int top = 0;
+        for (int position : start) {
+            depths[position] = 1;
+            stack[top++] = position;
+        }
+        while (top > 0) {
+            int position = stack[--top];
+            deepest = Math.max(deepest, depths[position]);
+            for (int i = childOffsets[position]; i < childOffsets[position + 1]; i++) {
+                int child = childPositions[i];
+                if (depths[child] < 0) {
+                    depths[child] = depths[position] + 1;
+                    stack[top++] = child;
+                }
+            }
+        }
+        return deepest;
+    }
+
+    private int positionOf(int id) {
+        int position = Arrays.binarySearch(sortedIds, id);
+        return position >= 0 ? position : NO_PARENT;
+    }
+
+    private int[] idsAt(int[] positions) {
+        int[] ids = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ids[i] = sortedIds[positions[i]];
+        }
+        return ids;
+    }
+
+    private List<CacheModel> modelsAt(int[] positions, int from, int to) {
+        CacheModel[] models = new CacheModel[to - from];
+        for (int i = from; i < to; i++) {
+            models[i - from] = categories[positions[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(models));
+    }
+}
@@ -0,0 +1,310 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of the whole product category tree.
+ * A snapshot is built once from the cached categories and is never mutated afterwards,
+ * so it can be shared by any number of concurrent readers.
+ * A write yields the next snapshot through {@link #withCategory} or {@link #withoutCategory}:
+ * only the categories on the path from the changed one up to the root are copied, and every
+ * other category, list and index entry is shared with the previous snapshot.
+ */
+public final class CategoryTreeSnapshot {
+
+    private final long version;
+    private final long builtAt;
+    private final CategoryIdMap categoriesById;
+    private final List<CacheModel> rootCategories;
+    private final List<CacheModel> parentCategories;
+    // Computed on first use; racing readers compute the same value
+    private volatile int depth = -1;
+
+    /**
+     * Constructs a CategoryTreeSnapshot. The maps and lists are expected to be unmodifiable.
+     *
+     * @param version          The version of the catalog this snapshot was built from.
+     * @param categoriesById   Every category keyed by its ID, with its children already linked.
+     * @param rootCategories   The root categories sorted by ID, each with its subtree linked.
+     * @param parentCategories The root categories without their children, sorted by ID.
+     */
+    public CategoryTreeSnapshot(long version, Map<Integer, CacheModel> categoriesById, List<CacheModel> rootCategories, List<CacheModel> parentCategories) {
+        this(version, CategoryIdMap.of(categoriesById.values()), rootCategories, parentCategories, -1);
+    }
+
+    private CategoryTreeSnapshot(long version, CategoryIdMap categoriesById, List<CacheModel> rootCategories, List<CacheModel> parentCategories, int depth) {
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+        this.categoriesById = categoriesById;
+        this.rootCategories = rootCategories;
+        this.parentCategories = parentCategories;
+        this.depth = depth;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return categoriesById.size();
+    }
+
+    /**
+     * Returns the number of levels of the tree, 1 when there are only root categories and 0 when it is empty.
+     * The tree is walked once, on the first call.
+     */
+    public int getDepth() {
+        int computed = depth;
+        if (computed < 0) {
+            computed = computeDepth();
+            depth = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Returns the category with the given ID, or null if it is not part of this snapshot.
+     */
+    public CacheModel getCategory(Integer categoryId) {
+        return categoryId == null ? null : categoriesById.get(categoryId);
+    }
+
+    /**
+     * Returns the children of the given parent ID sorted by ID, each with its own subtree linked.
+     * A parent ID of 0 returns the full hierarchy.
+     */
+    public List<CacheModel> getChildren(Integer parentId) {
+        if (parentId == 0) {
+            return rootCategories;
+        }
+        CacheModel parent = categoriesById.get(parentId);
+        return parent == null ? Collections.emptyList() : parent.getChildren();
+    }
+
+    /**
+     * Returns at most limit categories of a list sorted by ID, starting after the given ID.
+     * The start is found by binary search, so the cost does not grow with the categories before it.
+     *
+     * @param categories The categories, sorted by ID.
+     * @param afterId    The ID the page starts after; 0 starts at the beginning.
+     * @param limit      The maximum number of categories returned.
+     * @return A view of the page within the given list.
+     */
+    public static List<CacheModel> page(List<CacheModel> categories, int afterId, int limit) {
+        int low = 0;
+        int high = categories.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (categories.get(middle).getId() <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return categories.subList(low, low + Math.min(limit, categories.size() - low));
+    }
+
+    /**
+     * Returns the chain of categories from the root down to the given category, following
+     * parent IDs, so the cost is proportional to the depth of the category.
+     * The chain stops early at a category whose parent is missing, and at a parent cycle.
+     *
+     * @return The chain, root first, or an empty list if the category is not part of this snapshot.
+     */
+    public List<CacheModel> getPath(Integer categoryId) {
+        List<CacheModel> path = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        CacheModel current = getCategory(categoryId);
+        while (current != null && visited.add(current.getId())) {
+            path.add(current);
+            Integer parentId = current.getParentid();
+            current = parentId == null || parentId == 0 ? null : categoriesById.get(parentId);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the root categories sorted by ID, without their children.
+     */
+    public List<CacheModel> getParentCategories() {
+        return parentCategories;
+    }
+
+    /**
+     * Returns the snapshot of the given version with the category added under the parent its
+     * parentid names, or replacing the category with the same ID. A replaced category keeps its
+     * subtree, also when it moves to another parent. Applying the same category twice yields the
+     * same tree, so a change already read from the cache can be applied again.
+     *
+     * @param category The category as written, without children.
+     * @param version  The version of the catalog after the write.
+     * @return The next snapshot, or null if the parent is not part of this snapshot or the category
+     *         would move into its own subtree; the tree then has to be loaded again.
+     */
+    public CategoryTreeSnapshot withCategory(CacheModel category, long version) {
+        Integer categoryId = category.getId();
+        int parentId = parentId(category);
+        CacheModel previous = getCategory(categoryId);
+        if (parentId != 0 && (categoriesById.get(parentId) == null || getPath(parentId).stream().anyMatch(ancestor -> ancestor.getId().equals(categoryId)))) {
+            return null;
+        }
+
+        Patch patch = new Patch();
+        boolean moved = previous != null && parentId(previous) != parentId;
+        if (moved) {
+            patch.relink(parentId(previous), categoryId, null, false);
+        }
+        CacheModel linked = copy(category, previous == null ? Collections.emptyList() : previous.getChildren());
+        patch.ids = patch.ids.with(linked);
+        patch.relink(parentId, categoryId, linked, true);
+
+        // Only a change of the category's parent can change the number of levels
+        return patch.snapshot(version, previous != null && !moved ? depth : -1);
+    }
+
+    /**
+     * Returns the snapshot of the given version without the category. Its subtree is detached with it;
+     * its children stay known by ID, pointing to a missing parent, as in a tree loaded after the delete.
+     *
+     * @param categoryId The ID of the removed category.
+     * @param version    The version of the catalog after the write.
+     * @return The next snapshot, equal to this one if the category is not part of it.
+     */
+    public CategoryTreeSnapshot withoutCategory(Integer categoryId, long version) {
+        CacheModel previous = getCategory(categoryId);
+        Patch patch = new Patch();
+        if (previous != null) {
+            patch.ids = patch.ids.without(categoryId);
+            patch.relink(parentId(previous), categoryId, null, false);
+        }
+        return patch.snapshot(version, previous == null ? depth : -1);
+    }
+
+    private static int parentId(CacheModel category) {
+        return category.getParentid() == null ? 0 : category.getParentid();
+    }
+
+    private static CacheModel copy(CacheModel category, List<CacheModel> children) {
+        return CacheModel.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentid(category.getParentid())
+                .isactive(category.getIsactive())
+                .createdat(category.getCreatedat())
+                .updatedat(category.getUpdatedat())
+                .children(children)
+                .build();
+    }
+
+    /**
+     * Returns a copy of a list sorted by ID with the category of the given ID replaced, removed when the
+     * replacement is null, or inserted in order when absent and insert is set.
+     *
+     * @return The new unmodifiable list, or null if the ID is absent and nothing was inserted.
+     */
+    private static List<CacheModel> splice(List<CacheModel> categories, Integer categoryId, CacheModel replacement, boolean insert) {
+        int low = 0;
+        int high = categories.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (categories.get(middle).getId() < categoryId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        boolean found = low < categories.size() && categories.get(low).getId().equals(categoryId);
+        if (!found && (!insert || replacement == null)) {
+            return null;
+        }
+        List<CacheModel> spliced = new ArrayList<>(categories.size() + 1);
+        spliced.addAll(categories.subList(0, low));
+        if (replacement != null) {
+            spliced.add(replacement);
+        }
+        spliced.addAll(categories.subList(found ? low + 1 : low, categories.size()));
+        return Collections.unmodifiableList(spliced);
+    }
+
+    /**
+     * The parts of the next snapshot, starting out as those of this one and copied as they change.
+     */
+    private final class Patch {
+
+        private CategoryIdMap ids = categoriesById;
+        private List<CacheModel> roots = rootCategories;
+        private List<CacheModel> parents = parentCategories;
+
+        /**
+         * Puts the replacement of a category into the child list of its parent, then copies every
+         * ancestor with its new child list, up to the root list. The walk stops at an ancestor that
+         * does not list the category, which sits below a missing parent or a parentid cycle.
+         */
+        void relink(int parentId, Integer categoryId, CacheModel replacement, boolean insert) {
+            boolean first = true;
+            // Bounded by the number of categories, so an inconsistent chain cannot loop forever
+            for (int steps = 0; steps <= ids.size(); steps++) {
+                if (parentId == 0) {
+                    List<CacheModel> spliced = splice(roots, categoryId, replacement, insert);
+                    if (spliced != null) {
+                        roots = spliced;
+                        if (first) {
+                            // The root categories are also listed without their children
+                            List<CacheModel> shallow = splice(parents, categoryId, replacement == null ? null : copy(replacement, null), insert);
+                            parents = shallow == null ? parents : shallow;
+                        }
+                    }
+                    return;
+                }
+                CacheModel parent = ids.get(parentId);
+                List<CacheModel> children = parent == null ? null : splice(parent.getChildren() == null ? List.of() : parent.getChildren(), categoryId, replacement, insert);
+                if (children == null) {
+                    return;
+                }
+                CacheModel parentCopy = copy(parent, children);
+                ids = ids.with(parentCopy);
+                categoryId = parentCopy.getId();
+                replacement = parentCopy;
+                parentId = parentId(parent);
+                insert = false;
+                first = false;
+            }
+        }
+
+        CategoryTreeSnapshot snapshot(long version, int depth) {
+            return new CategoryTreeSnapshot(version, ids, roots, parents, depth);
+        }
+    }
+
+    private int computeDepth() {
+        // Iterative, so a deep chain cannot overflow the stack; categories in a cycle were linked without children
+        int deepest = 0;
+        Deque<CacheModel> categories = new ArrayDeque<>(rootCategories);
+        Deque<Integer> levels = new ArrayDeque<>(Collections.nCopies(rootCategories.size(), 1));
+        while (!categories.isEmpty()) {
+            CacheModel category = categories.pop();
+            int level = levels.pop();
+            deepest = Math.max(deepest, level);
+            for (CacheModel child : category.getChildren()) {
+                categories.push(child);
+                levels.push(level + 1);
+            }
+        }
+        return deepest;
+    }
+}
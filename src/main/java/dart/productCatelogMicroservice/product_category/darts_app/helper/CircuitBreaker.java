@@ -0,0 +1,161 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling a failing dependency for a while and serves a fallback instead.
+ * The breaker opens after a number of consecutive failures; once the open period has passed,
+ * a single call is let through as a probe (half-open). A successful probe closes the breaker,
+ * a failed one opens it again. While open, callers get the fallback without waiting on timeouts.
+ * Its state and counters can be published as metrics tagged with its name; they are read on scrape only.
+ */
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * Constructs a CircuitBreaker.
+     *
+     * @param name             The name of the protected dependency, used in logs.
+     * @param failureThreshold The number of consecutive failures that open the breaker.
+     * @param openDuration     How long the breaker stays open before a probe is let through.
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the action if the breaker allows it, and the fallback if it does not or the action fails.
+     *
+     * @param action   The call to the protected dependency.
+     * @param fallback The result to use instead; exceptions it throws reach the caller.
+     * @return The result of the action, or of the fallback.
+     */
+    public <T> T call(Supplier<T> action, Supplier<T> fallback) {
+        calls.increment();
+        if (!allowRequest()) {
+            shortCircuited.increment();
+            fallbacks.increment();
+            return fallback.get();
+        }
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            onFailure();
+            fallbacks.increment();
+            logger.warn("CircuitBreaker {}: call failed, using fallback: {}", name, e.getMessage());
+            return fallback.get();
+        }
+        onSuccess();
+        return result;
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Returns the state and counters of the breaker.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long total = calls.sum();
+        stats.put("state", state.get());
+        stats.put("calls", total);
+        stats.put("failures", failures.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("fallbackRate", total == 0 ? 0.0 : (double) fallbacks.sum() / total);
+        stats.put("timesOpened", opened.sum());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // One gauge per state, set to 1 for the current one, so alerts can match on the state tag
+        for (State each : State.values()) {
+            Gauge.builder("category.breaker.state", state, current -> current.get() == each ? 1 : 0)
+                    .tag("name", name).tag("state", each.name().toLowerCase()).register(registry);
+        }
+        FunctionCounter.builder("category.breaker.calls", calls, LongAdder::sum)
+                .tag("name", name).description("Calls made through the breaker").register(registry);
+        FunctionCounter.builder("category.breaker.failures", failures, LongAdder::sum)
+                .tag("name", name).description("Calls that failed").register(registry);
+        FunctionCounter.builder("category.breaker.short.circuited", shortCircuited, LongAdder::sum)
+                .tag("name", name).description("Calls answered by the fallback while the breaker was open").register(registry);
+        FunctionCounter.builder("category.breaker.fallbacks", fallbacks, LongAdder::sum)
+                .tag("name", name).description("Calls answered by the fallback").register(registry);
+        FunctionCounter.builder("category.breaker.opened", opened, LongAdder::sum)
+                .tag("name", name).description("Times the breaker opened").register(registry);
+    }
+
+    private boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            // Only the caller that wins the transition probes; the others keep using the fallback
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            logger.info("CircuitBreaker {}: probe succeeded, closed", name);
+        }
+    }
+
+    private void onFailure() {
+        failures.increment();
+        int failuresInRow = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN || failuresInRow >= failureThreshold) {
+            openedAt = clock.getAsLong();
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                opened.increment();
+                logger.warn("CircuitBreaker {}: opened after {} consecutive failures", name, failuresInRow);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports how busy the Redis and database connection pools are.
+ * Redis is reported through its bulkhead; the database pool is Hikari, whose checkout already
+ * waits at most its connection timeout, and is reported from the pool itself.
+ */
+@Component
+public class ConnectionPoolStats {
+
+    private final Bulkhead redisBulkhead;
+    private final DataSource dataSource;
+
+    public ConnectionPoolStats(Bulkhead redisBulkhead, DataSource dataSource) {
+        this.redisBulkhead = redisBulkhead;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Returns the callers using and waiting for Redis, their wait time and the rejections.
+     */
+    public Map<String, Object> redis() {
+        return redisBulkhead.stats();
+    }
+
+    /**
+     * Returns the size, active and idle connections of the database pool and the threads waiting for one,
+     * or an empty map if the data source is not a Hikari pool or has not started.
+     */
+    public Map<String, Object> database() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        HikariDataSource hikari = hikari();
+        if (hikari == null) {
+            return stats;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        stats.put("maxConcurrent", hikari.getMaximumPoolSize());
+        stats.put("acquireTimeoutMillis", hikari.getConnectionTimeout());
+        if (pool != null) {
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("waiting", pool.getThreadsAwaitingConnection());
+        }
+        return stats;
+    }
+
+    private HikariDataSource hikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryEventModel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces category change events to the latest state of each category, split into the categories
+ * to save and the ones to remove. An event replaces the one kept for its category unless its
+ * updatedat is older, so on equal timestamps the event added last wins.
+ * Deleted and inactive categories are removed, since neither is served from the cache.
+ */
+public class LatestCategoryEvents {
+
+    private final Map<Integer, CategoryEventModel> latest = new LinkedHashMap<>();
+
+    /**
+     * Adds an event, which must carry a category with an ID.
+     */
+    public void add(CategoryEventModel event) {
+        CategoryEventModel previous = latest.get(event.getCategory().getId());
+        if (previous == null || !isOlder(event, previous)) {
+            latest.put(event.getCategory().getId(), event);
+        }
+    }
+
+    /**
+     * Returns the number of categories with an event.
+     */
+    public int size() {
+        return latest.size();
+    }
+
+    /**
+     * Returns the latest state of the categories to save, in the order they were first seen.
+     */
+    public List<CacheModel> saved() {
+        List<CacheModel> saved = new ArrayList<>();
+        for (CategoryEventModel event : latest.values()) {
+            if (!isRemoval(event)) {
+                saved.add(event.getCategory());
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Returns the latest state of the categories to remove, in the order they were first seen.
+     */
+    public List<CacheModel> removed() {
+        List<CacheModel> removed = new ArrayList<>();
+        for (CategoryEventModel event : latest.values()) {
+            if (isRemoval(event)) {
+                removed.add(event.getCategory());
+            }
+        }
+        return removed;
+    }
+
+    private static boolean isRemoval(CategoryEventModel event) {
+        return "delete".equals(event.getEventtype()) || !Boolean.TRUE.equals(event.getCategory().getIsactive());
+    }
+
+    private static boolean isOlder(CategoryEventModel event, CategoryEventModel other) {
+        String updatedAt = event.getCategory().getUpdatedat();
+        String otherUpdatedAt = other.getCategory().getUpdatedat();
+        // The cache date format (yyyy-MM-dd HH:mm:ss) sorts chronologically as text
+        return updatedAt != null && otherUpdatedAt != null && updatedAt.compareTo(otherUpdatedAt) < 0;
+    }
+}
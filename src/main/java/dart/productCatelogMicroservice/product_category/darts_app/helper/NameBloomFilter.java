@@ -0,0 +1,79 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over category names: answers "certainly absent" or "possibly present" from a few bits.
+ * Bits are set with compare-and-set, so adds and lookups run concurrently without a lock.
+ * Names cannot be taken out again; a renamed name stays possibly present until the filter is rebuilt.
+ */
+final class NameBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Sizes the filter for the expected number of names at the given false positive rate.
+     */
+    NameBloomFilter(long expectedNames, double falsePositiveRate) {
+        long names = Math.max(1, expectedNames);
+        long bits = (long) Math.ceil(-names * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / names * Math.log(2)));
+    }
+
+    void add(String name) {
+        long hash = hash(name);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String name) {
+        long hash = hash(name);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return bitCount >>> 3;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private static long hash(String name) {
+        // 64-bit FNV-1a over the characters, then a finalizer spreading the bits
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
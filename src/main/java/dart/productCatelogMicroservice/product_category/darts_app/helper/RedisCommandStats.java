@@ -0,0 +1,150 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts Redis commands and network round trips per HTTP endpoint.
+ * The endpoint of the current request is bound to the thread by the web layer;
+ * work outside a request, such as warm-up or event consumers, is counted as "background".
+ * The counters are also published as metrics tagged with the endpoint, next to the latency
+ * of every call and the hits and misses of cache lookups.
+ */
+@Component
+public class RedisCommandStats {
+
+    private static final String BACKGROUND = "background";
+    private static final ThreadLocal<String> currentEndpoint = new ThreadLocal<>();
+    private final Map<String, Counters> countersByEndpoint = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Timer callsSucceeded;
+    private final Timer callsFailed;
+    private final Counter lookupHits;
+    private final Counter lookupMisses;
+
+    /**
+     * Constructs a RedisCommandStats instance.
+     *
+     * @param meterRegistry The registry the counters and timers are published to.
+     */
+    public RedisCommandStats(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.callsSucceeded = callTimer("success", meterRegistry);
+        this.callsFailed = callTimer("error", meterRegistry);
+        this.lookupHits = lookupCounter("hit", meterRegistry);
+        this.lookupMisses = lookupCounter("miss", meterRegistry);
+    }
+
+    /**
+     * Binds the endpoint handling the current request to this thread and counts the request.
+     *
+     * @param endpoint The HTTP method and route pattern, such as "GET /api/categories/all".
+     */
+    public void beginRequest(String endpoint) {
+        currentEndpoint.set(endpoint);
+        counters(endpoint).requests.increment();
+    }
+
+    /**
+     * Unbinds the endpoint once the request completed.
+     */
+    public void endRequest() {
+        currentEndpoint.remove();
+    }
+
+    /**
+     * Records Redis commands sent on behalf of the current endpoint.
+     *
+     * @param commands   The number of commands sent.
+     * @param roundTrips The number of network round trips they took.
+     */
+    public void record(int commands, int roundTrips) {
+        String endpoint = currentEndpoint.get();
+        Counters counters = counters(endpoint == null ? BACKGROUND : endpoint);
+        counters.commands.add(commands);
+        counters.roundTrips.add(roundTrips);
+    }
+
+    /**
+     * Records the time of one call on a pooled connection, from sending the commands to reading the replies.
+     *
+     * @param elapsedNanos The time the call took.
+     * @param failed       Whether it ended with an error.
+     */
+    public void recordCall(long elapsedNanos, boolean failed) {
+        (failed ? callsFailed : callsSucceeded).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the outcome of looking categories up by ID.
+     *
+     * @param hits   The number of categories found.
+     * @param misses The number of IDs with no category in the cache.
+     */
+    public void recordLookups(int hits, int misses) {
+        lookupHits.increment(hits);
+        lookupMisses.increment(misses);
+    }
+
+    /**
+     * Returns the counters of every endpoint, sorted by endpoint.
+     */
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        countersByEndpoint.forEach((endpoint, counters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("requests", counters.requests.sum());
+            values.put("commands", counters.commands.sum());
+            values.put("roundTrips", counters.roundTrips.sum());
+            result.put(endpoint, values);
+        });
+        return result;
+    }
+
+    private Counters counters(String endpoint) {
+        Counters counters = countersByEndpoint.get(endpoint);
+        return counters != null ? counters : countersByEndpoint.computeIfAbsent(endpoint, this::register);
+    }
+
+    private Counters register(String endpoint) {
+        // Endpoints are route patterns, so the set of tag values stays small
+        Counters counters = new Counters();
+        FunctionCounter.builder("category.redis.endpoint.requests", counters.requests, LongAdder::sum)
+                .tag("endpoint", endpoint).description("Requests handled per endpoint").register(meterRegistry);
+        FunctionCounter.builder("category.redis.endpoint.commands", counters.commands, LongAdder::sum)
+                .tag("endpoint", endpoint).description("Redis commands sent per endpoint").register(meterRegistry);
+        FunctionCounter.builder("category.redis.endpoint.round.trips", counters.roundTrips, LongAdder::sum)
+                .tag("endpoint", endpoint).description("Redis round trips per endpoint").register(meterRegistry);
+        return counters;
+    }
+
+    private static Timer callTimer(String outcome, MeterRegistry registry) {
+        return Timer.builder("category.redis.calls")
+                .tag("outcome", outcome)
+                .description("Time of one Redis call, usually a single pipelined round trip, excluding the wait for a connection")
+                .register(registry);
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry registry) {
+        return Counter.builder("category.cache.lookups")
+                .tag("result", result)
+                .description("Categories looked up by ID in the Redis cache")
+                .register(registry);
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder roundTrips = new LongAdder();
+    }
+}
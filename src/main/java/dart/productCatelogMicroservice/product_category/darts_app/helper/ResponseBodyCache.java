@@ -0,0 +1,287 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized JSON body of read endpoints, plain and gzip-compressed, per catalog version.
+ * Only successful responses are kept, and the bodies kept are bounded by count and by total bytes:
+ * the keys follow free-form query parameters, so once the bound is reached further bodies are served
+ * without being kept until the next version starts an empty cache.
+ * The strong ETag of a body is derived from its key, the catalog version and its content coding, not from the
+ * bytes, so a conditional request carrying the current tag is answered with 304 before anything is loaded or
+ * serialized, also when the body itself is not kept. The plain and gzip bodies carry different tags.
+ * Versions are counted per instance, so tags include a random instance prefix: a client moving to another
+ * instance gets the body once more, and is then answered with 304 again.
+ * The size of every body sent and the time spent serializing are recorded.
+ * Hierarchy bodies may be written through a {@link CategoryProjection}, holding only the requested fields.
+ */
+@Component
+public class ResponseBodyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseBodyCache.class);
+    private static final int MAX_ENTRIES = 10_000;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+    // Guards the byte count together with the writes to the map; reads of the map need no lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private long cachedBytes;
+    private volatile long cachedVersion = -1;
+    // Keeps the tags of two instances apart, as each counts its catalog versions on its own
+    private final String instanceTag = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final DistributionSummary plainBytes;
+    private final DistributionSummary gzipBytes;
+    private final Timer serializations;
+
+    /**
+     * Constructs a ResponseBodyCache instance.
+     *
+     * @param objectMapper  The object mapper used by the web layer, so cached bodies match regular responses.
+     * @param meterRegistry The registry the body sizes and serialization times are published to.
+     * @param maxBytes      The total size of the plain and gzip bodies kept.
+     */
+    public ResponseBodyCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${category.response-cache.max-bytes:67108864}") long maxBytes
+    ) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.plainBytes = bodySize("identity", meterRegistry);
+        this.gzipBytes = bodySize("gzip", meterRegistry);
+        this.serializations = Timer.builder("category.response.serialize")
+                .description("Time spent serializing and compressing a response body")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers a read request from the cached body, serializing it only when the catalog version changed.
+     *
+     * @param key          The key identifying the endpoint and its parameters.
+     * @param version      The current catalog version.
+     * @param lastModified The time in milliseconds the catalog last changed.
+     * @param request      The incoming request, used for If-None-Match and Accept-Encoding.
+     * @param loader       Produces the response when the body is not cached; errors propagate unchanged.
+     * @return A ResponseEntity with the cached bytes, or 304 when the client already holds them.
+     */
+    public ResponseEntity<byte[]> respond(String key, long version, long lastModified, WebRequest request, Supplier<ResponseEntity<?>> loader) {
+        return respond(key, version, lastModified, request, loader, null);
+    }
+
+    /**
+     * Answers a read request like {@link #respond(String, long, long, WebRequest, Supplier)},
+     * writing hierarchy bodies with only the fields and in the format of the projection.
+     *
+     * @param key          The key identifying the endpoint and its parameters, projection included.
+     * @param version      The current catalog version.
+     * @param lastModified The time in milliseconds the catalog last changed.
+     * @param request      The incoming request, used for If-None-Match and Accept-Encoding.
+     * @param loader       Produces the response when the body is not cached; errors propagate unchanged.
+     * @param projection   The requested fields and format, or null for the regular body.
+     * @return A ResponseEntity with the cached bytes, or 304 when the client already holds them.
+     */
+    public ResponseEntity<byte[]> respond(String key, long version, long lastModified, WebRequest request, Supplier<ResponseEntity<?>> loader, CategoryProjection projection) {
+        if (cachedVersion != version) {
+            // Every write changes the version, so the bodies of the previous version can go at once
+            lock.lock();
+            try {
+                bodies.clear();
+                cachedBytes = 0;
+                cachedVersion = version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = etag(key, version, gzip);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        // The client holds the body of this version in this coding; "*" is only answered once a body exists
+        if (matchesETag(ifNoneMatch, etag, false)) {
+            return notModified(headers, etag, lastModified);
+        }
+
+        CachedBody cached = bodies.get(key);
+        if (cached == null || cached.version != version) {
+            cached = serialize(loader.get(), projection, version);
+            // An error body, such as a transient failure, is not replayed to later requests
+            if (cached.status.is2xxSuccessful()) {
+                keep(key, cached);
+            }
+        }
+
+        // Only successful bodies carry validators, so an error is never confirmed by a later 304
+        if (cached.status.is2xxSuccessful()) {
+            if (matchesETag(ifNoneMatch, etag, true)) {
+                return notModified(headers, etag, lastModified);
+            }
+            headers.setETag(etag);
+            headers.setLastModified(lastModified);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            gzipBytes.record(cached.gzipBody.length);
+            return new ResponseEntity<>(cached.gzipBody, headers, cached.status);
+        }
+        plainBytes.record(cached.body.length);
+        return new ResponseEntity<>(cached.body, headers, cached.status);
+    }
+
+    private static ResponseEntity<byte[]> notModified(HttpHeaders headers, String etag, long lastModified) {
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    private void keep(String key, CachedBody cached) {
+        long size = cached.body.length + cached.gzipBody.length;
+        lock.lock();
+        try {
+            // A body of an older version, serialized while the version moved on, is not kept
+            if (cached.version != cachedVersion) {
+                return;
+            }
+            CachedBody previous = bodies.get(key);
+            long previousSize = previous == null ? 0 : previous.body.length + previous.gzipBody.length;
+            if ((previous == null && bodies.size() >= MAX_ENTRIES) || cachedBytes - previousSize + size > maxBytes) {
+                return;
+            }
+            bodies.put(key, cached);
+            cachedBytes += size - previousSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // gzip is acceptable if listed, or covered by "*", with a q-value above 0; an explicit gzip entry wins over "*"
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    private static DistributionSummary bodySize(String encoding, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("category.response.bytes")
+                .tag("encoding", encoding)
+                .baseUnit("bytes")
+                .description("Size of the response bodies sent")
+                .register(meterRegistry);
+    }
+
+    private CachedBody serialize(ResponseEntity<?> response, CategoryProjection projection, long version) {
+        long start = System.nanoTime();
+        try {
+            byte[] body = projection != null && response.getBody() instanceof ProductCategoryHierarchyModel hierarchy
+                    ? projection.write(objectMapper.getFactory(), hierarchy)
+                    : objectMapper.writeValueAsBytes(response.getBody());
+            return new CachedBody(version, HttpStatus.valueOf(response.getStatusCode().value()), body, gzip(body));
+        } catch (IOException e) {
+            logger.error("ResponseBodyCache: serialize - Error occurred while serializing response: {}", e.getMessage());
+            throw new IllegalStateException("Unable to serialize response", e);
+        } finally {
+            serializations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Returns the strong tag of the body of a key in a catalog version and content coding.
+     */
+    private String etag(String key, long version, boolean gzip) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            String keyDigest = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+            return "\"" + instanceTag + "-" + version + "-" + keyDigest + (gzip ? "-gzip" : "") + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String etag, boolean matchAny) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ((matchAny && tag.equals("*")) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record CachedBody(long version, HttpStatus status, byte[] body, byte[] gzipBody) {
+    }
+}
@@ -0,0 +1,139 @@
+package dart.productCatelogMicroservice.product_category.darts_app.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryEventModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.LatestCategoryEvents;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CategorySnapshotService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies category change events to the Redis cache, so a cache write that failed
+ * during a request is repaired as soon as Redis is reachable again.
+ * Each poll is handled as one batch: events are reduced to the latest state per category
+ * and written with one pipeline. Events of a category are ordered on one partition,
+ * so replaying a batch converges to the same cache content.
+ */
+@Component
+public class CategoryEventConsumer {
+
+    private final RedisCacheService redisCacheService;
+    private final CategorySnapshotService categorySnapshotService;
+    private final ObjectMapper objectMapper;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder unreadable = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile double recordsLagMax;
+    private volatile long lastEventAgeMillis;
+    private static final Logger logger = LoggerFactory.getLogger(CategoryEventConsumer.class);
+
+    public CategoryEventConsumer(RedisCacheService redisCacheService, CategorySnapshotService categorySnapshotService, ObjectMapper objectMapper) {
+        this.redisCacheService = redisCacheService;
+        this.categorySnapshotService = categorySnapshotService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Applies one poll of category events to the cache.
+     *
+     * @param records  The events, in partition order.
+     * @param consumer The consumer, read for its lag metrics.
+     * @throws IllegalStateException if Redis cannot be written, so the batch is retried with back-off
+     */
+    @KafkaListener(
+            id = "category-cache-repair",
+            topics = "${category.outbox.topic:product.category.events}",
+            groupId = "${category.events.consumer.group-id:product-category-cache}",
+            batch = "true"
+    )
+    public void onCategoryEvents(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        batches.increment();
+        received.add(records.size());
+
+        // Keep only the latest event per category; on equal timestamps the later record wins
+        LatestCategoryEvents latest = new LatestCategoryEvents();
+        long newestTimestamp = 0;
+        int unreadableRecords = 0;
+        for (ConsumerRecord<String, String> record : records) {
+            newestTimestamp = Math.max(newestTimestamp, record.timestamp());
+            CategoryEventModel event = readEvent(record);
+            if (event == null) {
+                // A malformed event can never be applied, so it is counted and skipped instead of blocking the partition
+                unreadableRecords++;
+                continue;
+            }
+            latest.add(event);
+        }
+        unreadable.add(unreadableRecords);
+        superseded.add(records.size() - unreadableRecords - latest.size());
+
+        List<CacheModel> saved = latest.saved();
+        List<CacheModel> deleted = latest.removed();
+
+        if (latest.size() > 0) {
+            if (!redisCacheService.applyProductCategoryChangesInCacheMemory(saved, deleted)) {
+                failedBatches.increment();
+                throw new IllegalStateException("Unable to apply " + latest.size() + " category events to the cache");
+            }
+            applied.add(latest.size());
+
+            // Patch the same changes into the snapshot; an event this instance already applied yields the same tree
+            categorySnapshotService.apply(saved, deleted);
+        }
+
+        if (newestTimestamp > 0) {
+            lastEventAgeMillis = System.currentTimeMillis() - newestTimestamp;
+        }
+        recordsLagMax = readLagMax(consumer);
+    }
+
+    /**
+     * Returns the consumer counters and its lag.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.sum());
+        stats.put("received", received.sum());
+        stats.put("applied", applied.sum());
+        stats.put("superseded", superseded.sum());
+        stats.put("unreadable", unreadable.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("recordsLagMax", recordsLagMax);
+        stats.put("lastEventAgeMillis", lastEventAgeMillis);
+        return stats;
+    }
+
+    private CategoryEventModel readEvent(ConsumerRecord<String, String> record) {
+        try {
+            CategoryEventModel event = objectMapper.readValue(record.value(), CategoryEventModel.class);
+            if (event.getCategory() != null && event.getCategory().getId() != null) {
+                return event;
+            }
+        } catch (Exception e) {
+            logger.error("CategoryEventConsumer: readEvent - Error reading event at offset {}: {}", record.offset(), e.getMessage());
+        }
+        return null;
+    }
+
+    private double readLagMax(Consumer<?, ?> consumer) {
+        double lag = 0;
+        for (var metric : consumer.metrics().entrySet()) {
+            if ("records-lag-max".equals(metric.getKey().name()) && metric.getValue().metricValue() instanceof Double value && !value.isNaN()) {
+                lag = Math.max(lag, value);
+            }
+        }
+        return lag;
+    }
+}
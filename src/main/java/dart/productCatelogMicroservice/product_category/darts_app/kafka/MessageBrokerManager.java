@@ -1,11 +1,80 @@
 package dart.productCatelogMicroservice.product_category.darts_app.kafka;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryEventModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryOutboxModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryOutboxRepo;
+import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records category change events in the transactional outbox.
+ * The events are written in the caller's transaction and published to Kafka
+ * later by the {@link OutboxRelay}, so the request thread never waits on the broker.
+ */
 @Service
 public class MessageBrokerManager {
-    public void PushTopicToMessageBroker(String eventChannel, ProductCategoryDbModel saveCategoryIntoDb){
 
+    private final CategoryOutboxRepo categoryOutboxRepo;
+    private final BuilderManager builderManager;
+    private final ObjectMapper objectMapper;
+    private static final Logger logger = LoggerFactory.getLogger(MessageBrokerManager.class);
+
+    public MessageBrokerManager(CategoryOutboxRepo categoryOutboxRepo, BuilderManager builderManager, ObjectMapper objectMapper) {
+        this.categoryOutboxRepo = categoryOutboxRepo;
+        this.builderManager = builderManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records one category change. Must be called inside the transaction that changed the category.
+     *
+     * @param eventChannel       The kind of change: "create", "update" or "delete".
+     * @param saveCategoryIntoDb The category as saved in the database.
+     */
+    public void PushTopicToMessageBroker(String eventChannel, ProductCategoryDbModel saveCategoryIntoDb) {
+        PushTopicsToMessageBroker(eventChannel, List.of(saveCategoryIntoDb));
+    }
+
+    /**
+     * Records many category changes of the same kind with one JDBC batch.
+     *
+     * @param eventChannel The kind of change: "create", "update" or "delete".
+     * @param categories   The categories as saved in the database.
+     * @throws RunTimeException if an event cannot be recorded, so the surrounding transaction rolls back
+     */
+    public void PushTopicsToMessageBroker(String eventChannel, List<ProductCategoryDbModel> categories) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<CategoryOutboxModel> events = new ArrayList<>(categories.size());
+            for (ProductCategoryDbModel category : categories) {
+                CategoryEventModel event = new CategoryEventModel(eventChannel, builderManager.CacheModelBuilder(category));
+                events.add(CategoryOutboxModel.builder()
+                        .categoryid(category.getId())
+                        .eventtype(eventChannel)
+                        .payload(objectMapper.writeValueAsString(event))
+                        .createdat(now)
+                        .build());
+            }
+            categoryOutboxRepo.insertEvents(events);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // A change without its event would never reach the other services, so fail the whole write
+            logger.error("MessageBrokerManager: PushTopicsToMessageBroker - Error recording {} events: {}", eventChannel, e.getMessage());
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Unable to save your record at this time."),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
     }
 }
@@ -0,0 +1,202 @@
+package dart.productCatelogMicroservice.product_category.darts_app.kafka;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryOutboxModel;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryOutboxRepo;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes outbox events to Kafka in the background.
+ * Only one instance publishes at a time: each batch first takes a Postgres advisory lock, and an
+ * instance that does not get it skips its run. The batch then locks the oldest unpublished rows,
+ * sends them keyed by category ID so the events of one category stay ordered on one partition,
+ * waits for the acknowledgements and marks the rows published in the same transaction. A failed
+ * batch is rolled back and retried on the next run, so delivery is at least once and consumers
+ * must tolerate duplicates.
+ */
+@Component
+public class OutboxRelay {
+
+    private final CategoryOutboxRepo categoryOutboxRepo;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long drainTimeoutMs;
+    private final Duration retention;
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicBoolean stopping = new AtomicBoolean(false);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile long lastBatchMillis;
+    private volatile LocalDateTime lastPublishedAt;
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public OutboxRelay(
+            CategoryOutboxRepo categoryOutboxRepo,
+            KafkaTemplate<String, String> kafkaTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${category.outbox.topic:product.category.events}") String topic,
+            @Value("${category.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${category.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+            @Value("${category.outbox.relay.drain-timeout-ms:15000}") long drainTimeoutMs,
+            @Value("${category.outbox.retention:P7D}") Duration retention
+    ) {
+        this.categoryOutboxRepo = categoryOutboxRepo;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.retention = retention;
+    }
+
+    /**
+     * Publishes batches until the outbox is empty or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${category.outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (stopping.get() || !relayLock.tryLock()) {
+            return;
+        }
+        try {
+            while (relayBatch() == batchSize && !stopping.get()) {
+                // A full batch means more events are likely waiting
+            }
+        } catch (Exception e) {
+            failedBatches.increment();
+            logger.error("OutboxRelay: relay - Error publishing outbox events: {}", e.getMessage());
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes one batch of events, unless another instance is publishing.
+     *
+     * @return the number of events published
+     */
+    public int relayBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            long start = System.nanoTime();
+            if (!categoryOutboxRepo.tryLockRelay()) {
+                return 0;
+            }
+            List<CategoryOutboxModel> events = categoryOutboxRepo.lockUnpublished(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            // Send the whole batch before waiting, so the producer can group it into few requests
+            List<CompletableFuture<?>> acknowledgements = new ArrayList<>(events.size());
+            List<Long> ids = new ArrayList<>(events.size());
+            for (CategoryOutboxModel event : events) {
+                ProducerRecord<String, String> record = new ProducerRecord<>(topic, String.valueOf(event.getCategoryid()), event.getPayload());
+                record.headers().add("eventtype", event.getEventtype().getBytes(StandardCharsets.UTF_8));
+                acknowledgements.add(kafkaTemplate.send(record));
+                ids.add(event.getId());
+            }
+            kafkaTemplate.flush();
+            try {
+                CompletableFuture.allOf(acknowledgements.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Kafka did not acknowledge " + events.size() + " outbox events", e);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            categoryOutboxRepo.markPublished(ids, now);
+            published.add(events.size());
+            lastPublishedAt = now;
+            lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return events.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Deletes published events once they are older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${category.outbox.purge.interval-ms:3600000}")
+    public void purgePublished() {
+        try {
+            int deleted = categoryOutboxRepo.deletePublishedBefore(LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                logger.info("OutboxRelay: purgePublished - Deleted {} published outbox events", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("OutboxRelay: purgePublished - Error deleting published outbox events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes what is left in the outbox before the producer is closed on shutdown,
+     * bounded by the drain timeout. Anything left is published by the next instance.
+     */
+    @PreDestroy
+    public void drain() {
+        stopping.set(true);
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        try {
+            if (!relayLock.tryLock(drainTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("OutboxRelay: drain - A relay run is still in progress, skipping drain");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            int drained = 0;
+            int count;
+            do {
+                count = relayBatch();
+                drained += count;
+            } while (count > 0 && System.currentTimeMillis() < deadline);
+            logger.info("OutboxRelay: drain - Published {} outbox events on shutdown", drained);
+        } catch (Exception e) {
+            logger.error("OutboxRelay: drain - Error draining outbox events: {}", e.getMessage());
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the publish counters together with the current outbox backlog.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("lastBatchMillis", lastBatchMillis);
+        stats.put("lastPublishedAt", lastPublishedAt);
+        try {
+            stats.putAll(categoryOutboxRepo.pendingStats());
+        } catch (Exception e) {
+            logger.error("OutboxRelay: stats - Error reading outbox backlog: {}", e.getMessage());
+        }
+        return stats;
+    }
+}
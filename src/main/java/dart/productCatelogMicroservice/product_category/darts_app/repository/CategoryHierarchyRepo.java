@@ -0,0 +1,111 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryNodeProjection;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Hierarchy reads and path updates answered by Postgres in one query each; the reads serve single categories
+ * while Redis is unavailable.
+ * The ancestors are found with WITH RECURSIVE: every step is a primary key lookup, and the visited IDs are
+ * carried along so a cycle in the data ends the recursion instead of looping.
+ * The descendants are found on the materialized path without recursion: they are the paths between
+ * the path of the category and the same path with its last "/" raised to "0". Categories without a path,
+ * such as those caught in a parent cycle, are found with WITH RECURSIVE on the parent index instead.
+ */
+@Repository
+public interface CategoryHierarchyRepo extends JpaRepository<ProductCategoryDbModel, Integer> {
+
+    /**
+     * Finds the chain of ancestors of a category, including the category itself.
+     *
+     * @param categoryId The ID of the category.
+     * @return The chain from the root down to the category; empty if the category is missing.
+     */
+    @Query(value = """
+            WITH RECURSIVE ancestors AS (
+                SELECT id, name, description, parentid, isactive, createdat, updatedat, 0 AS depth, ARRAY[id] AS trail
+                FROM categories
+                WHERE id = :categoryId
+                UNION ALL
+                SELECT c.id, c.name, c.description, c.parentid, c.isactive, c.createdat, c.updatedat, a.depth + 1, a.trail || c.id
+                FROM categories c
+                JOIN ancestors a ON c.id = a.parentid
+                WHERE c.id <> ALL(a.trail)
+            )
+            SELECT id, name, description, parentid, isactive, createdat, updatedat, depth FROM ancestors ORDER BY depth DESC
+            """, nativeQuery = true)
+    List<CategoryNodeProjection> findAncestors(@Param("categoryId") Integer categoryId);
+
+    /**
+     * Finds an active category and its active descendants from the materialized paths, up to the given depth.
+     * Categories below an inactive category are left out, as they are from the cached tree.
+     *
+     * @param categoryId The ID of the category at the top of the subtree.
+     * @param maxDepth   The number of levels below it to include.
+     * @return The category and its subtree ordered by depth, then ID, with depths relative to the category;
+     *         empty if the category is missing or inactive.
+     */
+    @Query(value = """
+            WITH root AS (
+                SELECT path, depth FROM categories WHERE id = :categoryId AND isactive = TRUE
+            ), hidden AS (
+                SELECT c.path FROM categories c, root r
+                WHERE c.path >= r.path AND c.path < left(r.path, -1) || '0' AND c.isactive = FALSE
+            )
+            SELECT c.id, c.name, c.description, c.parentid, c.isactive, c.createdat, c.updatedat, c.depth - r.depth AS depth
+            FROM categories c, root r
+            WHERE c.path >= r.path AND c.path < left(r.path, -1) || '0'
+              AND c.isactive = TRUE AND c.depth - r.depth <= :maxDepth
+              AND NOT EXISTS (SELECT 1 FROM hidden h WHERE starts_with(c.path, h.path))
+            ORDER BY c.depth, c.id
+            """, nativeQuery = true)
+    List<CategoryNodeProjection> findDescendantsByPath(@Param("categoryId") Integer categoryId, @Param("maxDepth") int maxDepth);
+
+    /**
+     * Finds an active category and its active descendants by following the parent links, up to the given depth.
+     * Unlike {@link #findDescendantsByPath}, it does not need the materialized path, so it also serves
+     * categories whose path is not set.
+     *
+     * @param categoryId The ID of the category at the top of the subtree.
+     * @param maxDepth   The number of levels below it to include.
+     * @return The category and its subtree ordered by depth, then ID, with depths relative to the category;
+     *         empty if the category is missing or inactive.
+     */
+    @Query(value = """
+            WITH RECURSIVE subtree AS (
+                SELECT id, name, description, parentid, isactive, createdat, updatedat, 0 AS depth, ARRAY[id] AS trail
+                FROM categories
+                WHERE id = :categoryId AND isactive = TRUE
+                UNION ALL
+                SELECT c.id, c.name, c.description, c.parentid, c.isactive, c.createdat, c.updatedat, s.depth + 1, s.trail || c.id
+                FROM categories c
+                JOIN subtree s ON c.parentid = s.id
+                WHERE c.isactive = TRUE AND s.depth < :maxDepth AND c.id <> ALL(s.trail)
+            )
+            SELECT id, name, description, parentid, isactive, createdat, updatedat, depth FROM subtree ORDER BY depth, id
+            """, nativeQuery = true)
+    List<CategoryNodeProjection> findSubtree(@Param("categoryId") Integer categoryId, @Param("maxDepth") int maxDepth);
+
+    /**
+     * Rewrites the materialized path of a moved category and of every category below it, in one range update.
+     *
+     * @param oldPath    The path of the category before the move.
+     * @param newPath    The path of the category after the move.
+     * @param depthDelta The change in depth of the category.
+     * @return The number of categories rewritten, including the moved one.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE categories
+            SET path = :newPath || substr(path, length(:oldPath) + 1), depth = depth + :depthDelta
+            WHERE path >= :oldPath AND path < left(:oldPath, -1) || '0'
+            """, nativeQuery = true)
+    int movePaths(@Param("oldPath") String oldPath, @Param("newPath") String newPath, @Param("depthDelta") int depthDelta);
+}
@@ -0,0 +1,94 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryInvalidationModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.Bulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Announces catalog changes to the other instances on a Redis pub/sub channel, so they patch
+ * their in-memory tree and clear their near cache within a round trip of the write.
+ * Pub/sub delivers only to instances connected at that moment; a missed announcement is made up
+ * by the Kafka cache repair and by the maximum age of the in-memory tree.
+ */
+@Service
+public class CategoryInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryInvalidationPublisher.class);
+    public static final String CHANNEL = "product:category:invalidations";
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Bulkhead redisBulkhead;
+    private final int maxListed;
+    private final String origin = UUID.randomUUID().toString();
+
+    /**
+     * Constructs a CategoryInvalidationPublisher instance.
+     *
+     * @param redisTemplate The Redis template the announcements are published with.
+     * @param objectMapper  The object mapper writing the announcements as JSON.
+     * @param redisBulkhead The bulkhead limiting the callers using Redis at once.
+     * @param maxListed     The most categories listed in one announcement; larger changes ask for a reload.
+     */
+    public CategoryInvalidationPublisher(
+            RedisTemplate<String, Object> redisTemplate,
+            ObjectMapper objectMapper,
+            Bulkhead redisBulkhead,
+            @Value("${category.invalidation.max-listed:100}") int maxListed
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisBulkhead = redisBulkhead;
+        this.maxListed = maxListed;
+    }
+
+    /**
+     * Returns the ID of this instance, carried by every announcement it publishes.
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Announces saved and removed categories; changes of more than the configured size ask for a reload.
+     * Failures are logged and not thrown, since the write itself already succeeded.
+     *
+     * @param saved   The created and updated categories.
+     * @param removed The deleted categories.
+     */
+    public void publishChanges(List<CacheModel> saved, List<CacheModel> removed) {
+        if (saved.size() + removed.size() > maxListed) {
+            publishReload();
+            return;
+        }
+        publish(new CategoryInvalidationModel(origin, System.currentTimeMillis(), false, saved, removed));
+    }
+
+    /**
+     * Announces a change that is not listed, such as a rebuild of the cache.
+     */
+    public void publishReload() {
+        publish(new CategoryInvalidationModel(origin, System.currentTimeMillis(), true, Collections.emptyList(), Collections.emptyList()));
+    }
+
+    private void publish(CategoryInvalidationModel invalidation) {
+        try {
+            byte[] message = objectMapper.writeValueAsBytes(invalidation);
+            byte[] channel = CHANNEL.getBytes(StandardCharsets.UTF_8);
+            redisBulkhead.call(() -> redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message)));
+        } catch (Exception e) {
+            logger.error("CategoryInvalidationPublisher: publish - Error occurred while announcing a catalog change: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryOutboxModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to the category_outbox table. Writes join the caller's transaction,
+ * so an outbox row is committed if and only if the category change is.
+ */
+@Repository
+public class CategoryOutboxRepo {
+
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final String INSERT_EVENT =
+            "INSERT INTO category_outbox (categoryid, eventtype, payload, createdat) VALUES (?, ?, ?, ?)";
+    // Taken by the relay for the length of a batch; the instance holding it publishes, the others skip their run
+    private static final String RELAY_LOCK_KEY = "hashtext('category_outbox.relay')";
+    // Only the relay holding the relay lock reads here, so the oldest rows are never skipped and go out in order
+    private static final String LOCK_UNPUBLISHED =
+            "SELECT id, categoryid, eventtype, payload, createdat FROM category_outbox WHERE publishedat IS NULL ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String SELECT_CREATED_SINCE =
+            "SELECT id, categoryid, eventtype, payload, createdat FROM category_outbox WHERE createdat >= ? ORDER BY id";
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public CategoryOutboxRepo(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Inserts the given events with JDBC batches.
+     *
+     * @param events The events to insert; their IDs are ignored.
+     */
+    public void insertEvents(List<CategoryOutboxModel> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, JDBC_BATCH_SIZE, (statement, event) -> {
+            statement.setInt(1, event.getCategoryid());
+            statement.setString(2, event.getEventtype());
+            statement.setString(3, event.getPayload());
+            statement.setTimestamp(4, Timestamp.valueOf(event.getCreatedat()));
+        });
+    }
+
+    /**
+     * Takes the relay lock until the surrounding transaction ends, unless another transaction holds it.
+     * With one relay at a time publishing, two events of one category cannot be sent out of order
+     * by two instances.
+     *
+     * @return Whether the lock was taken.
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(" + RELAY_LOCK_KEY + ")", Boolean.class));
+    }
+
+    /**
+     * Locks the oldest unpublished events until the surrounding transaction ends.
+     *
+     * @param limit The maximum number of events to lock.
+     * @return The locked events in insertion order.
+     */
+    public List<CategoryOutboxModel> lockUnpublished(int limit) {
+        return jdbcTemplate.query(LOCK_UNPUBLISHED, (resultSet, rowNum) -> mapEvent(resultSet), limit);
+    }
+
+    /**
+     * Finds the events recorded since the given time, published or not.
+     *
+     * @param since The earliest creation time of the events returned.
+     * @return The events in insertion order.
+     */
+    public List<CategoryOutboxModel> findCreatedSince(LocalDateTime since) {
+        return jdbcTemplate.query(SELECT_CREATED_SINCE, (resultSet, rowNum) -> mapEvent(resultSet), Timestamp.valueOf(since));
+    }
+
+    /**
+     * Marks the given events as published.
+     *
+     * @param ids         The IDs of the published events.
+     * @param publishedAt The time the broker acknowledged them.
+     * @return The number of rows updated.
+     */
+    public int markPublished(List<Long> ids, LocalDateTime publishedAt) {
+        return namedParameterJdbcTemplate.update(
+                "UPDATE category_outbox SET publishedat = :publishedat WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids).addValue("publishedat", Timestamp.valueOf(publishedAt))
+        );
+    }
+
+    /**
+     * Deletes published events older than the given time, so the table stays small.
+     *
+     * @param before The publication time before which events are deleted.
+     * @return The number of rows deleted.
+     */
+    public int deletePublishedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM category_outbox WHERE publishedat < ?", Timestamp.valueOf(before));
+    }
+
+    /**
+     * Returns the number of unpublished events and the creation time of the oldest one.
+     */
+    public Map<String, Object> pendingStats() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS pending, MIN(createdat) AS oldest FROM category_outbox WHERE publishedat IS NULL",
+                (resultSet, rowNum) -> {
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    Timestamp oldest = resultSet.getTimestamp("oldest");
+                    stats.put("pending", resultSet.getLong("pending"));
+                    stats.put("oldestPendingCreatedAt", oldest == null ? null : oldest.toLocalDateTime());
+                    return stats;
+                });
+    }
+
+    private CategoryOutboxModel mapEvent(ResultSet resultSet) throws SQLException {
+        return CategoryOutboxModel.builder()
+                .id(resultSet.getLong("id"))
+                .categoryid(resultSet.getInt("categoryid"))
+                .eventtype(resultSet.getString("eventtype"))
+                .payload(resultSet.getString("payload"))
+                .createdat(resultSet.getTimestamp("createdat").toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,263 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the categories table for set-based work that JPA cannot batch,
+ * such as multi-row inserts (IDENTITY keys disable Hibernate insert batching).
+ */
+@Repository
+@Timed("category.jdbc")
+public class ProductCategoryJdbcRepo {
+
+    private static final int JDBC_BATCH_SIZE = 1000;
+    // Postgres caps bind parameters per statement at 32767, so IN lists are split
+    private static final int IN_LIST_SIZE = 10_000;
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO categories (name, description, parentid, isactive, createdat, updatedat) VALUES (?, ?, ?, ?, ?, ?)";
+    // Rows fetched per round trip while streaming; the driver only uses a cursor inside a transaction
+    private static final int STREAM_FETCH_SIZE = 5000;
+    private static final String SELECT_ALL_CATEGORIES =
+            "SELECT id, name, description, parentid, isactive, createdat, updatedat FROM categories ORDER BY id";
+    private static final String SELECT_ACTIVE_CATEGORIES =
+            "SELECT id, name, description, parentid, isactive, createdat, updatedat FROM categories WHERE isactive = TRUE ORDER BY id";
+    private static final String SELECT_ALL_NAMES = "SELECT id, name FROM categories ORDER BY id";
+    private static final String UPDATE_CATEGORY =
+            "UPDATE categories SET name = ?, description = ?, parentid = ?, isactive = ?, updatedat = ? WHERE id = ?";
+    // The parent's path already ends with "/"; a root, or an orphan whose parent is missing, gets a path starting
+    // at itself, as in the V4 backfill. Orphans are still not listed as roots, see CategoryTreeIndex
+    private static final String ASSIGN_PATHS = """
+            UPDATE categories c
+            SET path = COALESCE(p.path, '/') || c.id || '/', depth = COALESCE(p.depth + 1, 0)
+            FROM categories n LEFT JOIN categories p ON p.id = n.parentid
+            WHERE n.id = c.id AND c.id IN (:ids)
+            """;
+    // Transaction-scoped lock guarding the materialized paths: inserts share it, moves take it alone
+    private static final String PATH_LOCK_KEY = "hashtext('categories.path')";
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductCategoryJdbcRepo(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Inserts the given categories with JDBC batches and sets their generated IDs.
+     *
+     * @param categories The categories to insert; their IDs are ignored and overwritten.
+     */
+    public void insertCategories(List<ProductCategoryDbModel> categories) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CATEGORY, new String[]{"id"})) {
+                for (int from = 0; from < categories.size(); from += JDBC_BATCH_SIZE) {
+                    List<ProductCategoryDbModel> batch = categories.subList(from, Math.min(categories.size(), from + JDBC_BATCH_SIZE));
+                    for (ProductCategoryDbModel category : batch) {
+                        statement.setString(1, category.getName());
+                        statement.setString(2, category.getDescription());
+                        statement.setInt(3, category.getParentid());
+                        statement.setBoolean(4, category.getIsactive());
+                        statement.setTimestamp(5, Timestamp.valueOf(category.getCreatedat()));
+                        statement.setTimestamp(6, Timestamp.valueOf(category.getUpdatedat()));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+
+                    // Generated keys come back in insert order
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (ProductCategoryDbModel category : batch) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("Missing generated key for category " + category.getName());
+                            }
+                            category.setId(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Updates the given categories with JDBC batches. The creation date is left untouched.
+     *
+     * @param categories The categories to update, identified by their IDs.
+     */
+    public void updateCategories(List<ProductCategoryDbModel> categories) {
+        jdbcTemplate.batchUpdate(UPDATE_CATEGORY, categories, JDBC_BATCH_SIZE, (statement, category) -> {
+            statement.setString(1, category.getName());
+            statement.setString(2, category.getDescription());
+            statement.setInt(3, category.getParentid());
+            statement.setBoolean(4, category.getIsactive());
+            statement.setTimestamp(5, Timestamp.valueOf(category.getUpdatedat()));
+            statement.setInt(6, category.getId());
+        });
+    }
+
+    /**
+     * Sets the materialized path and depth of the given categories from those of their parents,
+     * in one statement per 10,000 IDs. The parents must already have their paths.
+     *
+     * @param ids The IDs of the categories, typically rows just inserted.
+     */
+    public void assignPaths(Collection<Integer> ids) {
+        for (List<Integer> chunk : chunks(ids)) {
+            namedParameterJdbcTemplate.update(ASSIGN_PATHS, new MapSqlParameterSource("ids", chunk));
+        }
+    }
+
+    /**
+     * Waits until no category is being moved, then holds off moves until the current transaction ends,
+     * so the parent paths read by an insert stay valid until it commits. Inserts do not wait on each other.
+     */
+    public void lockPathsForInsert() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock_shared(" + PATH_LOCK_KEY + ")");
+    }
+
+    /**
+     * Waits until no other transaction inserts or moves categories, then holds them off until
+     * the current transaction ends, so a moved subtree cannot gain children with stale paths
+     * and two moves cannot form a cycle.
+     */
+    public void lockPathsForMove() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + PATH_LOCK_KEY + ")");
+    }
+
+    /**
+     * Finds the categories with any of the given names in one query per 10,000 names.
+     *
+     * @param names The lowercase names to look up.
+     * @return The matching categories keyed by name.
+     */
+    public Map<String, ProductCategoryDbModel> findByNames(Collection<String> names) {
+        Map<String, ProductCategoryDbModel> categories = new HashMap<>();
+        for (List<String> chunk : chunks(names)) {
+            namedParameterJdbcTemplate.query(
+                    "SELECT id, name, description, parentid, isactive, createdat, updatedat FROM categories WHERE name IN (:names)",
+                    new MapSqlParameterSource("names", chunk),
+                    resultSet -> {
+                        ProductCategoryDbModel category = mapCategory(resultSet);
+                        categories.put(category.getName(), category);
+                    }
+            );
+        }
+        return categories;
+    }
+
+    /**
+     * Finds which of the given IDs belong to active categories, in one query per 10,000 IDs.
+     *
+     * @param ids The category IDs to check.
+     * @return The IDs of the active categories among them.
+     */
+    public Set<Integer> findActiveIds(Collection<Integer> ids) {
+        Set<Integer> activeIds = new HashSet<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            activeIds.addAll(namedParameterJdbcTemplate.queryForList(
+                    "SELECT id FROM categories WHERE isactive = TRUE AND id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk),
+                    Integer.class
+            ));
+        }
+        return activeIds;
+    }
+
+    /**
+     * Streams every category ordered by ID through a server-side cursor,
+     * so only one fetch of rows is held in memory at a time.
+     *
+     * @param consumer Receives each category in turn.
+     */
+    public void streamCategories(Consumer<ProductCategoryDbModel> consumer) {
+        stream(SELECT_ALL_CATEGORIES, consumer);
+    }
+
+    /**
+     * Streams the active categories ordered by ID through a server-side cursor.
+     *
+     * @param consumer Receives each active category in turn.
+     */
+    public void streamActiveCategories(Consumer<ProductCategoryDbModel> consumer) {
+        stream(SELECT_ACTIVE_CATEGORIES, consumer);
+    }
+
+    /**
+     * Counts every category, active or not.
+     *
+     * @return The number of rows in the categories table.
+     */
+    public long countCategories() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM categories", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Streams the ID and name of every category, active or not, through a server-side cursor.
+     *
+     * @param consumer Receives each category ID and name in turn.
+     */
+    public void streamNames(BiConsumer<Integer, String> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_ALL_NAMES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getInt("id"), resultSet.getString("name"))
+        ));
+    }
+
+    private void stream(String sql, Consumer<ProductCategoryDbModel> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> consumer.accept(mapCategory(resultSet))
+        ));
+    }
+
+    private <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_LIST_SIZE) {
+            chunks.add(list.subList(from, Math.min(list.size(), from + IN_LIST_SIZE)));
+        }
+        return chunks;
+    }
+
+    private ProductCategoryDbModel mapCategory(ResultSet resultSet) throws SQLException {
+        Timestamp createdAt = resultSet.getTimestamp("createdat");
+        Timestamp updatedAt = resultSet.getTimestamp("updatedat");
+        return ProductCategoryDbModel.builder()
+                .id(resultSet.getInt("id"))
+                .name(resultSet.getString("name"))
+                .description(resultSet.getString("description"))
+                .parentid(resultSet.getInt("parentid"))
+                .isactive(resultSet.getBoolean("isactive"))
+                .createdat(createdAt == null ? null : createdAt.toLocalDateTime())
+                .updatedat(updatedAt == null ? null : updatedAt.toLocalDateTime())
+                .build();
+    }
+}
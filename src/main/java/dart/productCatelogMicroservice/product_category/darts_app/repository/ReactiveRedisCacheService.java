@@ -0,0 +1,115 @@
+package dart.productCatelogMicroservice.product_category.darts_app.repository;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CacheValueCodec;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking reads of the product category cache, over the shared Lettuce connection.
+ * Keys and values are the ones written by {@link RedisCacheService}. Reads of a level of
+ * the hierarchy are issued together, so Lettuce sends them as one pipelined burst.
+ */
+@Service
+public class ReactiveRedisCacheService {
+
+    private static final int HMGET_BATCH_SIZE = 500;
+    // Child sets of one level read at once; Lettuce pipelines them on the shared connection
+    private static final int LEVEL_CONCURRENCY = 64;
+    private final ReactiveRedisTemplate<String, byte[]> reactiveTemplate;
+    private final ReactiveHashOperations<String, String, byte[]> hashOperations;
+    private final CacheValueCodec cacheValueCodec;
+
+    /**
+     * Constructs a ReactiveRedisCacheService instance.
+     *
+     * @param reactiveTemplate The reactive Redis template over the Lettuce connection.
+     * @param cacheValueCodec  The codec decoding the cached categories.
+     */
+    public ReactiveRedisCacheService(ReactiveRedisTemplate<String, byte[]> reactiveTemplate, CacheValueCodec cacheValueCodec) {
+        this.reactiveTemplate = reactiveTemplate;
+        this.hashOperations = reactiveTemplate.opsForHash();
+        this.cacheValueCodec = cacheValueCodec;
+    }
+
+    /**
+     * Returns whether the child index has been built, so child and subtree reads can rely on it.
+     */
+    public Mono<Boolean> isChildIndexReady() {
+        return reactiveTemplate.hasKey(RedisCacheService.CHILDREN_READY_KEY);
+    }
+
+    /**
+     * Fetches the direct children of a category from its child set.
+     *
+     * @param categoryId The ID of the parent category; 0 for the root categories.
+     * @return The children, in no particular order.
+     */
+    public Flux<CacheModel> fetchChildCategories(Integer categoryId) {
+        return reactiveTemplate.opsForSet().members(RedisCacheService.childrenKey(categoryId))
+                .map(field -> new String(field, StandardCharsets.UTF_8))
+                .buffer(HMGET_BATCH_SIZE)
+                .concatMap(fields -> hashOperations.multiGet(RedisCacheService.CATEGORY_KEY, fields))
+                .flatMapIterable(this::decodeAll)
+                // A moved category replayed from its event is added to its new parent's set but not removed from the old one
+                .filter(child -> categoryId.equals(child.getParentid()));
+    }
+
+    /**
+     * Fetches every category below the given category, one level per pipelined burst of reads.
+     *
+     * @param categoryId The ID of the category whose subtree is fetched.
+     * @return The categories of the subtree, excluding the category itself, in no particular order.
+     */
+    public Mono<List<CacheModel>> fetchSubtreeCategories(Integer categoryId) {
+        Set<Integer> visited = new HashSet<>(Set.of(categoryId));
+        return fetchLevels(List.of(categoryId), visited, new ArrayList<>());
+    }
+
+    /**
+     * Streams every cached category with HSCAN; the next page is only requested once
+     * the subscriber has asked for more, so a slow client holds at most one page.
+     *
+     * @return The cached categories, in hash order.
+     */
+    public Flux<CacheModel> streamAllCategories() {
+        return hashOperations.scan(RedisCacheService.CATEGORY_KEY, ScanOptions.scanOptions().count(1000).build())
+                .map(entry -> cacheValueCodec.decode(entry.getValue()));
+    }
+
+    private Mono<List<CacheModel>> fetchLevels(List<Integer> parentIds, Set<Integer> visited, List<CacheModel> subtree) {
+        if (parentIds.isEmpty()) {
+            return Mono.just(subtree);
+        }
+        return Flux.fromIterable(parentIds)
+                .flatMap(this::fetchChildCategories, LEVEL_CONCURRENCY)
+                // flatMap emits one element at a time, so the visited set needs no locking; it guards against parentid cycles
+                .filter(category -> visited.add(category.getId()))
+                .collectList()
+                .flatMap(level -> {
+                    subtree.addAll(level);
+                    return fetchLevels(level.stream().map(CacheModel::getId).toList(), visited, subtree);
+                });
+    }
+
+    private List<CacheModel> decodeAll(List<byte[]> values) {
+        List<CacheModel> categories = new ArrayList<>(values.size());
+        for (byte[] value : values) {
+            // Ids left in a child set by a concurrent delete come back as null and are skipped
+            if (value != null) {
+                categories.add(cacheValueCodec.decode(value));
+            }
+        }
+        return categories;
+    }
+}
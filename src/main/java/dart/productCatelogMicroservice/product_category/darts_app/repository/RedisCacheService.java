@@ -1,39 +1,75 @@
 package dart.productCatelogMicroservice.product_category.darts_app.repository;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
-import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
-import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.Bulkhead;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CacheValueCodec;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.RedisCommandStats;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Service class for managing product categories in Redis cache.
+ * Categories live in the "product:category" hash; next to it, every parent keeps a set of
+ * its child IDs under "product:category:children:{parentId}" so a subtree can be read
+ * without loading the whole catalog.
+ * Every operation is sent as a pipeline, so a batch of categories costs one network
+ * round trip per {@value #PIPELINE_BATCH_SIZE} categories, and KEYS is never used.
+ * Hash values are encoded by {@link CacheValueCodec}. Every connection is taken through the Redis
+ * {@link Bulkhead}, which rejects callers that cannot get one in time.
  */
 @Service
 public class RedisCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisCacheService.class);
+    // Shared with the reactive reads in this package
+    static final String CATEGORY_KEY = "product:category";
+    static final String CHILDREN_KEY_PREFIX = "product:category:children:";
+    static final String CHILDREN_READY_KEY = "product:category:children:ready";
+    private static final String STAGING_MARKER = ":staging:";
+    private static final int PIPELINE_BATCH_SIZE = 500;
+    // Replaces each field, old value, new value triple only if the value is still the one read,
+    // so a write made meanwhile is never overwritten; returns 1 or 0 per triple
+    private static final byte[] REPLACE_IF_UNCHANGED = """
+            local replaced = {}
+            for i = 1, #ARGV, 3 do
+                if redis.call('HGET', KEYS[1], ARGV[i]) == ARGV[i + 1] then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 2])
+                    replaced[#replaced + 1] = 1
+                else
+                    replaced[#replaced + 1] = 0
+                end
+            end
+            return replaced
+            """.getBytes(StandardCharsets.UTF_8);
     private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
-    private final BuilderManager builderManager;
+    private final CacheValueCodec cacheValueCodec;
+    private final Bulkhead redisBulkhead;
+    private final RedisCommandStats redisCommandStats;
 
     /**
      * Constructs a RedisCacheService instance.
      *
-     * @param redisTemplate  The Redis template for performing cache operations.
-     * @param objectMapper   The object mapper for converting objects to and from JSON.
-     * @param builderManager  The builder manager for constructing category hierarchies.
+     * @param redisTemplate     The Redis template for performing cache operations.
+     * @param cacheValueCodec   The codec encoding and decoding the cached categories.
+     * @param redisCommandStats The per-endpoint Redis command counters.
+     * @param redisBulkhead     The bulkhead limiting the callers using Redis at once.
      */
-    public RedisCacheService(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper, BuilderManager builderManager) {
+    public RedisCacheService(RedisTemplate<String, Object> redisTemplate, CacheValueCodec cacheValueCodec, RedisCommandStats redisCommandStats, Bulkhead redisBulkhead) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
-        this.builderManager = builderManager;
+        this.cacheValueCodec = cacheValueCodec;
+        this.redisBulkhead = redisBulkhead;
+        this.redisCommandStats = redisCommandStats;
     }
 
     /**
@@ -44,16 +80,11 @@ public class RedisCacheService {
      */
     public Boolean saveUpdateProductCategoryInCacheMemory(CacheModel profile) {
         try {
-            // Get the product category ID
-            Integer productId = profile.getId();
-            String key = "product:category";
-            String subKey = productId.toString();
-
-            // Save or update the product category in Redis cache
-            redisTemplate.opsForHash().put(key, subKey, profile);
+            // Save or update the category and register it under its parent in one round trip
+            saveCategories(List.of(profile));
 
             // Log and return success
-            logger.info("Successfully saved/updated product category with ID {} in cache.", productId);
+            logger.info("Successfully saved/updated product category with ID {} in cache.", profile.getId());
             return true;
         } catch (Exception e) {
             // Log the error and return false
@@ -62,6 +93,89 @@ public class RedisCacheService {
         }
     }
 
+    /**
+     * Saves a category that moved to another parent and moves it between the child sets, in one round trip.
+     *
+     * @param category         The category, carrying its new parent ID.
+     * @param previousParentId The ID of the parent it was moved from.
+     * @return True if the operation was successful, false otherwise.
+     */
+    public Boolean moveProductCategoryInCacheMemory(CacheModel category, Integer previousParentId) {
+        try {
+            byte[] field = raw(category.getId().toString());
+            pipeline(3, connection -> {
+                connection.hashCommands().hSet(raw(CATEGORY_KEY), field, rawValue(category));
+                connection.setCommands().sRem(raw(childrenKey(previousParentId)), field);
+                connection.setCommands().sAdd(raw(childrenKey(category.getParentid())), field);
+            });
+
+            logger.info("Successfully moved product category with ID {} from parent {} to {} in cache.", category.getId(), previousParentId, category.getParentid());
+            return true;
+        } catch (Exception e) {
+            logger.error("RedisCacheService: moveProductCategoryInCacheMemory - Error occurred while moving category with ID {}: {}", category.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Saves or updates many product categories in Redis cache with pipelined batches.
+     *
+     * @param categories The categories to be saved or updated.
+     * @return True if the operation was successful, false otherwise.
+     */
+    public Boolean saveUpdateProductCategoriesInCacheMemory(List<CacheModel> categories) {
+        try {
+            saveCategories(categories);
+
+            logger.info("Successfully saved/updated {} product categories in cache.", categories.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("RedisCacheService: saveUpdateProductCategoriesInCacheMemory - Error occurred while saving/updating {} categories: {}", categories.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Applies saved and deleted categories to Redis cache together, so a mixed batch of changes
+     * costs one round trip per 500 categories instead of one per kind of change.
+     *
+     * @param saved   The categories to be saved or updated.
+     * @param deleted The categories to be deleted.
+     * @return True if the operation was successful, false otherwise.
+     */
+    public Boolean applyProductCategoryChangesInCacheMemory(List<CacheModel> saved, List<CacheModel> deleted) {
+        try {
+            List<CacheModel> changes = new ArrayList<>(saved.size() + deleted.size());
+            changes.addAll(saved);
+            changes.addAll(deleted);
+            int firstDeleted = saved.size();
+
+            for (int from = 0; from < changes.size(); from += PIPELINE_BATCH_SIZE) {
+                int start = from;
+                int end = Math.min(changes.size(), from + PIPELINE_BATCH_SIZE);
+                pipeline((end - start) * 2, connection -> {
+                    for (int i = start; i < end; i++) {
+                        CacheModel category = changes.get(i);
+                        byte[] field = raw(category.getId().toString());
+                        if (i < firstDeleted) {
+                            connection.hashCommands().hSet(raw(CATEGORY_KEY), field, rawValue(category));
+                            connection.setCommands().sAdd(raw(childrenKey(category.getParentid())), field);
+                        } else {
+                            connection.hashCommands().hDel(raw(CATEGORY_KEY), field);
+                            connection.setCommands().sRem(raw(childrenKey(category.getParentid())), field);
+                        }
+                    }
+                });
+            }
+
+            logger.info("Successfully applied {} saved and {} deleted product categories in cache.", saved.size(), deleted.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("RedisCacheService: applyProductCategoryChangesInCacheMemory - Error occurred while applying {} changes: {}", saved.size() + deleted.size(), e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Deletes a product category from Redis cache.
      *
@@ -70,16 +184,11 @@ public class RedisCacheService {
      */
     public Boolean deleteProductCategoryFromCacheMemory(CacheModel productCategoryId) {
         try {
-            // Get the product category ID
-            Integer productId = productCategoryId.getId();
-            String key = "product:category";
-            String subKey = productId.toString();
-
-            // Delete the category from Redis cache
-            redisTemplate.opsForHash().delete(key, subKey);
+            // Delete the category and remove it from its parent's children in one round trip
+            deleteCategories(List.of(productCategoryId));
 
             // Log and return success
-            logger.info("Successfully deleted product category with ID {} from cache.", productId);
+            logger.info("Successfully deleted product category with ID {} from cache.", productCategoryId.getId());
             return true;
         } catch (Exception e) {
             // Log the error and return false
@@ -89,86 +198,501 @@ public class RedisCacheService {
     }
 
     /**
-     * Builds a hierarchy of parent and child categories based on a given category ID.
+     * Deletes many product categories from Redis cache with pipelined batches.
      *
-     * @param categoryId The ID of the category for which to build the hierarchy.
-     * @return A ProductCategoryHierarchyModel containing the hierarchy or an error message if an error occurs.
+     * @param categories The categories to be deleted.
+     * @return True if the deletion was successful, false otherwise.
      */
-    public ProductCategoryHierarchyModel buildParentChildCategoryHierarchy(Integer categoryId) {
+    public Boolean deleteProductCategoriesFromCacheMemory(List<CacheModel> categories) {
         try {
-            String pattern = "product:category";
-            Set<String> keys = redisTemplate.keys(pattern);
+            deleteCategories(categories);
 
-            // Check if keys are empty or null
-            if (keys == null || keys.isEmpty()) {
-                return new ProductCategoryHierarchyModel(false, "No categories found: Empty key in Redis", Collections.emptyList());
+            logger.info("Successfully deleted {} product categories from cache.", categories.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("RedisCacheService: deleteProductCategoriesFromCacheMemory - Error occurred while deleting {} categories: {}", categories.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fetches every product category stored in Redis cache.
+     * The hash and the child index marker are read in the same round trip; if the child index
+     * is missing, it is backfilled from the categories just read.
+     *
+     * @return The list of cached categories, or an empty list if the cache key does not exist.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public List<CacheModel> fetchAllCategories() {
+        List<Object> results = pipeline(2, connection -> {
+            connection.hashCommands().hGetAll(raw(CATEGORY_KEY));
+            connection.keyCommands().exists(raw(CHILDREN_READY_KEY));
+        });
+
+        // An empty map means the key does not exist
+        Map<?, ?> entries = (Map<?, ?>) results.get(0);
+        List<CacheModel> categories = new ArrayList<>(entries.size());
+        for (Object value : entries.values()) {
+            categories.add(toCacheModel((byte[]) value));
+        }
+
+        if (!categories.isEmpty() && !Boolean.TRUE.equals(results.get(1))) {
+            rebuildChildIndex(categories);
+        }
+        return categories;
+    }
+
+    /**
+     * Fetches the given product categories, skipping IDs that are not cached.
+     *
+     * @param categoryIds The IDs of the categories to fetch.
+     * @return The cached categories, in no particular order.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public List<CacheModel> fetchCategories(Collection<Integer> categoryIds) {
+        List<String> fields = categoryIds.stream().map(String::valueOf).toList();
+        return fetchCategoriesByField(fields);
+    }
+
+    /**
+     * Backfills the per-parent child ID sets from the given categories and marks the index as ready.
+     * Writes keep the sets up to date afterwards, so this only runs when the index is missing.
+     *
+     * @param categories Every category currently held in the cache.
+     * @return True if the operation was successful, false otherwise.
+     */
+    public Boolean rebuildChildIndex(List<CacheModel> categories) {
+        try {
+            for (List<CacheModel> batch : batches(categories)) {
+                pipeline(batch.size(), connection -> {
+                    for (CacheModel category : batch) {
+                        connection.setCommands().sAdd(raw(childrenKey(category.getParentid())), raw(category.getId().toString()));
+                    }
+                });
             }
+            pipeline(1, connection -> connection.stringCommands().set(raw(CHILDREN_READY_KEY), raw("1")));
 
-            // Retrieve hash entries for the given pattern
-            Map<Object, Object> mapProductCategory = redisTemplate.opsForHash().entries(pattern);
+            logger.info("Rebuilt child index for {} product categories in cache.", categories.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("RedisCacheService: rebuildChildIndex - Error occurred while rebuilding child index: {}", e.getMessage());
+            return false;
+        }
+    }
 
-            // Check if the map contains any product categories
-            if (!mapProductCategory.isEmpty()) {
+    /**
+     * Tells whether the category hash and its child index are both present,
+     * in one round trip.
+     *
+     * @return True if the cache holds a complete catalog.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public boolean isCacheLoaded() {
+        List<Object> results = pipeline(2, connection -> {
+            connection.keyCommands().exists(raw(CATEGORY_KEY));
+            connection.keyCommands().exists(raw(CHILDREN_READY_KEY));
+        });
+        return Boolean.TRUE.equals(results.get(0)) && Boolean.TRUE.equals(results.get(1));
+    }
 
-                // Convert map values to a list of CacheModel objects
-                List<CacheModel> listOfCategory = mapProductCategory.values().stream()
-                        .map(value -> objectMapper.convertValue(value, CacheModel.class))
-                        .collect(Collectors.toList());
+    /**
+     * Writes categories into staging keys that readers never see, in pipelined batches.
+     * The staging keys are made live by {@link #publishStagedCategories(String, Set)}.
+     *
+     * @param stagingId  The ID of the rebuild, appended to every staging key.
+     * @param categories The categories to stage.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public void stageCategories(String stagingId, List<CacheModel> categories) {
+        byte[] stagingKey = raw(stagingKey(CATEGORY_KEY, stagingId));
+        for (List<CacheModel> batch : batches(categories)) {
+            pipeline(batch.size() * 2, connection -> {
+                for (CacheModel category : batch) {
+                    byte[] field = raw(category.getId().toString());
+                    connection.hashCommands().hSet(stagingKey, field, rawValue(category));
+                    connection.setCommands().sAdd(raw(stagingKey(childrenKey(category.getParentid()), stagingId)), field);
+                }
+            });
+        }
+    }
 
+    /**
+     * Removes categories from the staged category hash of a rebuild, in pipelined batches.
+     * Their IDs stay in the staged child sets, so no set the publish renames can become empty;
+     * readers skip IDs without a record, as they do after a concurrent delete.
+     *
+     * @param stagingId  The ID of the rebuild, appended to every staging key.
+     * @param categories The categories to remove.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public void unstageCategories(String stagingId, List<CacheModel> categories) {
+        byte[] stagingKey = raw(stagingKey(CATEGORY_KEY, stagingId));
+        for (List<CacheModel> batch : batches(categories)) {
+            pipeline(batch.size(), connection -> {
+                for (CacheModel category : batch) {
+                    connection.hashCommands().hDel(stagingKey, raw(category.getId().toString()));
+                }
+            });
+        }
+    }
 
-                // Build the hierarchy starting from the given categoryId and return the result
-                return new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", builderManager.buildHierarchy(listOfCategory, categoryId));
+    /**
+     * Replaces the live category hash and child index with the staged ones in one MULTI/EXEC,
+     * so readers see either the old or the new catalog, never a mix.
+     * Child sets of parents that no longer have children are deleted in the same transaction.
+     *
+     * @param stagingId The ID of the rebuild whose keys are published.
+     * @param parentIds The parent IDs that have a staged child set.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public void publishStagedCategories(String stagingId, Set<Integer> parentIds) {
+        // Collect the live child sets up front with SCAN; the deletions themselves run inside the transaction
+        Set<String> liveKeys = new HashSet<>(parentIds.size());
+        for (Integer parentId : parentIds) {
+            liveKeys.add(childrenKey(parentId));
+        }
+        List<byte[]> obsoleteKeys = new ArrayList<>();
+        execute((RedisCallback<Void>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(CHILDREN_KEY_PREFIX + "*").count(1000).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    byte[] key = cursor.next();
+                    String name = new String(key, StandardCharsets.UTF_8);
+                    if (!name.contains(STAGING_MARKER) && !name.equals(CHILDREN_READY_KEY) && !liveKeys.contains(name)) {
+                        obsoleteKeys.add(key);
+                    }
+                }
             }
+            return null;
+        });
 
-            // If no categories found, return an empty list with a message
-            return new ProductCategoryHierarchyModel(true, "No categories found for the given ID", Collections.emptyList());
+        int commands = obsoleteKeys.size() + parentIds.size() + 3;
+        execute((RedisCallback<Void>) connection -> {
+            connection.multi();
+            for (byte[] key : obsoleteKeys) {
+                connection.keyCommands().del(key);
+            }
+            if (parentIds.isEmpty()) {
+                connection.keyCommands().del(raw(CATEGORY_KEY));
+            } else {
+                connection.keyCommands().rename(raw(stagingKey(CATEGORY_KEY, stagingId)), raw(CATEGORY_KEY));
+            }
+            for (Integer parentId : parentIds) {
+                connection.keyCommands().rename(raw(stagingKey(childrenKey(parentId), stagingId)), raw(childrenKey(parentId)));
+            }
+            connection.stringCommands().set(raw(CHILDREN_READY_KEY), raw("1"));
+            connection.exec();
+            return null;
+        });
+        redisCommandStats.record(commands, 1);
+        logger.info("Published staged cache {} with {} parents, deleted {} obsolete child sets.", stagingId, parentIds.size(), obsoleteKeys.size());
+    }
 
+    /**
+     * Deletes the staging keys of a rebuild that did not complete.
+     *
+     * @param stagingId The ID of the abandoned rebuild.
+     * @param parentIds The parent IDs that have a staged child set.
+     */
+    public void discardStagedCategories(String stagingId, Set<Integer> parentIds) {
+        try {
+            List<Integer> parents = new ArrayList<>(parentIds);
+            pipeline(1, connection -> connection.keyCommands().del(raw(stagingKey(CATEGORY_KEY, stagingId))));
+            for (List<Integer> batch : batches(parents)) {
+                pipeline(batch.size(), connection -> {
+                    for (Integer parentId : batch) {
+                        connection.keyCommands().unlink(raw(stagingKey(childrenKey(parentId), stagingId)));
+                    }
+                });
+            }
         } catch (Exception e) {
-            // Log the error and return a failure response with a user-friendly message
-            logger.error("RedisCacheService: buildParentChildCategoryHierarchy - Error occurred: {}", e.getMessage());
-            return new ProductCategoryHierarchyModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyList());
+            logger.error("RedisCacheService: discardStagedCategories - Error occurred while discarding staged cache {}: {}", stagingId, e.getMessage());
         }
     }
 
     /**
-     * Builds a hierarchy of parent categories.
+     * Fetches the direct children of a category, sorted by ID, without their own children.
      *
-     * @return A ProductCategoryHierarchyModel containing the parent categories or an error message if an error occurs.
+     * @param categoryId The ID of the parent category.
+     * @return The children of the category, or null if the child index is not ready.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
      */
-    public ProductCategoryHierarchyModel buildParentCategoryHierarchy() {
-        try {
-            String pattern = "product:category";
-            Set<String> keys = redisTemplate.keys(pattern);
+    public List<CacheModel> fetchChildCategories(Integer categoryId) {
+        List<Object> results = pipeline(2, connection -> {
+            connection.keyCommands().exists(raw(CHILDREN_READY_KEY));
+            connection.setCommands().sMembers(raw(childrenKey(categoryId)));
+        });
+        if (!Boolean.TRUE.equals(results.get(0))) {
+            return null;
+        }
+
+        List<CacheModel> children = fetchCategoriesByField(toStrings((Collection<?>) results.get(1)));
+
+        // A moved category replayed from its event is added to its new parent's set but not removed from the old one
+        children.removeIf(child -> !categoryId.equals(child.getParentid()));
+        children.sort(Comparator.comparing(CacheModel::getId));
+        return children;
+    }
+
+    /**
+     * Fetches every category below the given category by walking the child ID sets level by level.
+     * Each level costs one pipelined round trip for the child sets and one for the records,
+     * so the cost follows the size of the subtree rather than the size of the catalog.
+     *
+     * @param categoryId The ID of the category whose subtree is fetched.
+     * @return The categories of the subtree, excluding the category itself, in no particular order,
+     *         or null if the child index is not ready.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public List<CacheModel> fetchSubtreeCategories(Integer categoryId) {
+        // The index marker travels with the first level of child sets
+        List<Object> firstLevel = pipeline(2, connection -> {
+            connection.keyCommands().exists(raw(CHILDREN_READY_KEY));
+            connection.setCommands().sMembers(raw(childrenKey(categoryId)));
+        });
+        if (!Boolean.TRUE.equals(firstLevel.get(0))) {
+            return null;
+        }
+
+        List<CacheModel> subtree = new ArrayList<>();
+        Set<String> visited = new HashSet<>(Set.of(categoryId.toString()));
+        Set<Integer> levelParents = Set.of(categoryId);
+        List<Object> childSets = firstLevel.subList(1, 2);
 
-            // Check if keys are empty or null
-            if (keys == null || keys.isEmpty()) {
-                return new ProductCategoryHierarchyModel(true, "No categories found: Empty key in Cache", Collections.emptyList());
+        while (true) {
+            Set<String> nextLevel = new LinkedHashSet<>();
+            for (Object childSet : childSets) {
+                for (String childId : toStrings((Collection<?>) childSet)) {
+                    // Guard against parentid cycles left by bad data
+                    if (!visited.contains(childId)) {
+                        nextLevel.add(childId);
+                    }
+                }
+            }
+            if (nextLevel.isEmpty()) {
+                return subtree;
             }
 
-            // Retrieve hash entries for the given pattern
-            Map<Object, Object> mapProductCategory = redisTemplate.opsForHash().entries(pattern);
+            List<CacheModel> categories = fetchCategoriesByField(new ArrayList<>(nextLevel));
 
-            // Check if the map contains any product categories
-            if (!mapProductCategory.isEmpty()) {
+            // Skip entries left in an old parent's set by a moved category; it is reached through its new parent
+            Set<Integer> parents = levelParents;
+            categories.removeIf(category -> !parents.contains(category.getParentid()));
+            Set<Integer> levelIds = new HashSet<>();
+            for (CacheModel category : categories) {
+                visited.add(category.getId().toString());
+                levelIds.add(category.getId());
+            }
+            levelParents = levelIds;
+            subtree.addAll(categories);
 
-                // Convert and filter parent categories
-                List<CacheModel> listOfCategory = mapProductCategory.values().stream()
-                        .map(value -> objectMapper.convertValue(value, CacheModel.class))
-                        .filter(filter -> filter.getParentid() == 0)  // Filter for parent categories
-                        .sorted(Comparator.comparing(CacheModel::getId))  // Sort by ID
-                        .collect(Collectors.toList());
+            // Read the child sets of the whole level in one round trip
+            childSets = pipeline(categories.size(), connection -> {
+                for (CacheModel category : categories) {
+                    connection.setCommands().sMembers(raw(childrenKey(category.getId())));
+                }
+            });
+        }
+    }
 
-                // Return success response with the list of parent categories
-                return new ProductCategoryHierarchyModel(true, "Parent categories retrieved successfully", listOfCategory);
+    /**
+     * Re-encodes the cached categories that are not in the configured value format.
+     * The hash is walked with HSCAN and the values are replaced in batches by a compare-and-set script,
+     * so a category written meanwhile keeps its newer value. Reads accept both formats throughout.
+     *
+     * @return The entries scanned and migrated, the value bytes and the memory of the hash before and after.
+     * @throws RuntimeException if Redis cannot be reached; callers decide how to report the failure.
+     */
+    public Map<String, Object> migrateValueFormat() {
+        long start = System.nanoTime();
+        Long memoryBefore = memoryUsage(CATEGORY_KEY);
+        long[] totals = new long[5];
+        List<byte[][]> batch = new ArrayList<>(PIPELINE_BATCH_SIZE);
+
+        execute((RedisCallback<Void>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().count(1000).build();
+            try (Cursor<Map.Entry<byte[], byte[]>> cursor = connection.hashCommands().hScan(raw(CATEGORY_KEY), options)) {
+                while (cursor.hasNext()) {
+                    Map.Entry<byte[], byte[]> entry = cursor.next();
+                    byte[] value = entry.getValue();
+                    totals[0]++;
+                    totals[3] += value.length;
+                    if (cacheValueCodec.isCurrentFormat(value)) {
+                        totals[4] += value.length;
+                        continue;
+                    }
+                    batch.add(new byte[][]{entry.getKey(), value, rawValue(toCacheModel(value))});
+                    if (batch.size() == PIPELINE_BATCH_SIZE) {
+                        replaceValues(connection, batch, totals);
+                    }
+                }
             }
+            replaceValues(connection, batch, totals);
+            return null;
+        });
 
-            // If no categories found, return an empty list with a message
-            return new ProductCategoryHierarchyModel(true, "No parent categories found", Collections.emptyList());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scanned", totals[0]);
+        result.put("migrated", totals[1]);
+        result.put("changedMeanwhile", totals[2]);
+        result.put("valueBytesBefore", totals[3]);
+        result.put("valueBytesAfter", totals[4]);
+        result.put("memoryBytesBefore", memoryBefore);
+        result.put("memoryBytesAfter", memoryUsage(CATEGORY_KEY));
+        result.put("millis", (System.nanoTime() - start) / 1_000_000);
+        logger.info("Migrated {} of {} cached categories to the configured value format.", totals[1], totals[0]);
+        return result;
+    }
 
+    /**
+     * Sends the pending replacements of a migration as one script call and adds their outcome to the totals:
+     * migrated, changed meanwhile and bytes after.
+     * The call runs on the scanning connection, which holds the only bulkhead permit of the migration,
+     * between two pages of the cursor. Scripts cannot be pipelined on this driver, so the batch is one call.
+     */
+    private void replaceValues(RedisConnection connection, List<byte[][]> batch, long[] totals) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[][] keyAndArgs = new byte[1 + batch.size() * 3][];
+        keyAndArgs[0] = raw(CATEGORY_KEY);
+        for (int i = 0; i < batch.size(); i++) {
+            System.arraycopy(batch.get(i), 0, keyAndArgs, 1 + i * 3, 3);
+        }
+        List<Object> results = connection.scriptingCommands().eval(REPLACE_IF_UNCHANGED, ReturnType.MULTI, 1, keyAndArgs);
+        redisCommandStats.record(batch.size(), 1);
+        for (int i = 0; i < batch.size(); i++) {
+            if (Long.valueOf(1).equals(results.get(i))) {
+                totals[1]++;
+                totals[4] += batch.get(i)[2].length;
+            } else {
+                totals[2]++;
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Returns the memory Redis estimates for a key, or null if the server does not report it.
+     */
+    private Long memoryUsage(String key) {
+        try {
+            Object usage = execute((RedisCallback<Object>) connection -> connection.execute("MEMORY", raw("USAGE"), raw(key)));
+            return usage instanceof Long bytes ? bytes : null;
         } catch (Exception e) {
-            // Log the error and return a failure response
-            logger.error("RedisCacheService: buildParentCategoryHierarchy - Error occurred: {}", e.getMessage());
-            return new ProductCategoryHierarchyModel(false, "Error: " + e.getMessage(), Collections.emptyList());
+            logger.warn("RedisCacheService: memoryUsage - MEMORY USAGE is not available: {}", e.getMessage());
+            return null;
         }
     }
+
+    private void saveCategories(List<CacheModel> categories) {
+        for (List<CacheModel> batch : batches(categories)) {
+            pipeline(batch.size() * 2, connection -> {
+                for (CacheModel category : batch) {
+                    byte[] field = raw(category.getId().toString());
+                    connection.hashCommands().hSet(raw(CATEGORY_KEY), field, rawValue(category));
+                    connection.setCommands().sAdd(raw(childrenKey(category.getParentid())), field);
+                }
+            });
+        }
+    }
+
+    private void deleteCategories(List<CacheModel> categories) {
+        for (List<CacheModel> batch : batches(categories)) {
+            pipeline(batch.size() * 2, connection -> {
+                for (CacheModel category : batch) {
+                    byte[] field = raw(category.getId().toString());
+                    connection.hashCommands().hDel(raw(CATEGORY_KEY), field);
+                    connection.setCommands().sRem(raw(childrenKey(category.getParentid())), field);
+                }
+            });
+        }
+    }
+
+    private List<CacheModel> fetchCategoriesByField(List<String> fields) {
+        List<CacheModel> categories = new ArrayList<>(fields.size());
+        for (List<String> batch : batches(fields)) {
+            byte[][] rawFields = batch.stream().map(this::raw).toArray(byte[][]::new);
+            List<Object> results = pipeline(1, connection -> connection.hashCommands().hMGet(raw(CATEGORY_KEY), rawFields));
+
+            // Ids left in a child set by a concurrent delete come back as null and are skipped
+            int hits = 0;
+            for (Object value : (List<?>) results.get(0)) {
+                if (value != null) {
+                    categories.add(toCacheModel((byte[]) value));
+                    hits++;
+                }
+            }
+            redisCommandStats.recordLookups(hits, batch.size() - hits);
+        }
+        return categories;
+    }
+
+    /**
+     * Runs the callback on a pooled connection once the bulkhead lets the caller in.
+     *
+     * @throws Bulkhead.FullException if no connection became free in time.
+     */
+    private <T> T execute(RedisCallback<T> callback) {
+        return redisBulkhead.call(() -> {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = redisTemplate.execute(callback);
+                failed = false;
+                return result;
+            } finally {
+                redisCommandStats.recordCall(System.nanoTime() - start, failed);
+            }
+        });
+    }
+
+    /**
+     * Sends the commands issued by the callback as one pipeline and returns their raw results.
+     */
+    private List<Object> pipeline(int commands, Consumer<RedisConnection> commandWriter) {
+        List<Object> results = execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            commandWriter.accept(connection);
+            return connection.closePipeline();
+        });
+        redisCommandStats.record(commands, 1);
+        return results == null ? Collections.emptyList() : results;
+    }
+
+    private <T> List<List<T>> batches(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += PIPELINE_BATCH_SIZE) {
+            batches.add(items.subList(from, Math.min(items.size(), from + PIPELINE_BATCH_SIZE)));
+        }
+        return batches;
+    }
+
+    private byte[] rawValue(CacheModel category) {
+        return cacheValueCodec.encode(category);
+    }
+
+    private CacheModel toCacheModel(byte[] value) {
+        return cacheValueCodec.decode(value);
+    }
+
+    private List<String> toStrings(Collection<?> rawValues) {
+        List<String> values = new ArrayList<>(rawValues.size());
+        for (Object rawValue : rawValues) {
+            values.add(new String((byte[]) rawValue, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String childrenKey(Integer parentId) {
+        return CHILDREN_KEY_PREFIX + parentId;
+    }
+
+    private String stagingKey(String liveKey, String stagingId) {
+        return liveKey + STAGING_MARKER + stagingId;
+    }
 }
@@ -0,0 +1,355 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.BulkItemResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.BulkResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.AfterCommit;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.kafka.MessageBrokerManager;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
+import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Service implementation for creating or upserting many product categories at once.
+ * Names and parents of the whole batch are checked with a handful of set queries,
+ * rows and outbox events are written with JDBC batches and the cache is updated with one pipelined write.
+ */
+@Service
+@Timed("category.service")
+public class BulkProductCategoryImpl {
+
+    private static final int MAX_BULK_SIZE = 50_000;
+    private static final int NO_PARENT_IN_BATCH = -1;
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
+    private final RedisCacheService redisCacheService;
+    private final MessageBrokerManager messageBrokerManager;
+    private final BuilderManager builderManager;
+    private final CategorySnapshotService categorySnapshotService;
+    private final CategoryNameIndex categoryNameIndex;
+    private static final Logger logger = LoggerFactory.getLogger(BulkProductCategoryImpl.class);
+
+    /**
+     * Constructs a BulkProductCategoryImpl instance with the required dependencies.
+     *
+     * @param productCategoryJdbcRepo the JDBC repository used for batched writes
+     * @param redisCacheService the Redis cache service for product categories
+     * @param messageBrokerManager the message broker manager for handling messages
+     * @param builderManager the builder manager for constructing product category models
+     * @param categorySnapshotService the service holding the category tree snapshot
+     * @param categoryNameIndex the in-memory index of the taken category names
+     */
+    public BulkProductCategoryImpl(
+            ProductCategoryJdbcRepo productCategoryJdbcRepo,
+            RedisCacheService redisCacheService,
+            MessageBrokerManager messageBrokerManager,
+            BuilderManager builderManager,
+            CategorySnapshotService categorySnapshotService,
+            CategoryNameIndex categoryNameIndex
+    ) {
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
+        this.redisCacheService = redisCacheService;
+        this.messageBrokerManager = messageBrokerManager;
+        this.builderManager = builderManager;
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryNameIndex = categoryNameIndex;
+    }
+
+    /**
+     * Creates, or with upsert updates, many product categories in one request.
+     * An item may name its parent with "parentname", referring to another item of the same
+     * batch or to an existing category; otherwise "parentid" must be 0 or an active category.
+     * Upserted items keep their parent and active status, like a regular update.
+     *
+     * @param requests the categories to create or update
+     * @param upsert   whether existing names are updated instead of rejected
+     * @return a ResponseEntity containing the per-item results
+     * @throws RunTimeException if the batch is empty or too large, a name was taken meanwhile, or the database write fails
+     */
+    @Transactional
+    public ResponseEntity<BulkResModel> createProductCategories(List<ProductCategoryReqModel> requests, boolean upsert) {
+        validateBatch(requests);
+
+        int size = requests.size();
+        BulkItemResModel[] results = new BulkItemResModel[size];
+        String[] names = new String[size];
+        Map<String, Integer> batchIndexByName = new HashMap<>();
+
+        // Validate every item on its own and reject duplicate names within the batch
+        for (int i = 0; i < size; i++) {
+            ProductCategoryReqModel request = requests.get(i);
+            String error = validateItem(request);
+            if (error != null) {
+                results[i] = failure(i, request == null ? null : request.getName(), error);
+                continue;
+            }
+            names[i] = request.getName().toLowerCase();
+            if (batchIndexByName.putIfAbsent(names[i], i) != null) {
+                results[i] = failure(i, names[i], "Duplicate name in this batch.");
+            }
+        }
+
+        // One set query for the names and parent names, one for the parent IDs
+        Set<String> lookupNames = new HashSet<>(batchIndexByName.keySet());
+        Set<Integer> lookupParentIds = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            String parentName = parentName(requests.get(i));
+            if (parentName != null) {
+                lookupNames.add(parentName);
+            } else if (parentId(requests.get(i)) != 0) {
+                lookupParentIds.add(parentId(requests.get(i)));
+            }
+        }
+        Map<String, ProductCategoryDbModel> existingByName = productCategoryJdbcRepo.findByNames(lookupNames);
+        Set<Integer> activeParentIds = productCategoryJdbcRepo.findActiveIds(lookupParentIds);
+
+        // Decide between insert and update, and resolve the parent of every insert
+        ProductCategoryDbModel[] rows = new ProductCategoryDbModel[size];
+        int[] parentInBatch = new int[size];
+        Arrays.fill(parentInBatch, NO_PARENT_IN_BATCH);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ProductCategoryReqModel request = requests.get(i);
+            ProductCategoryDbModel existing = existingByName.get(names[i]);
+
+            if (existing != null) {
+                if (!upsert) {
+                    results[i] = failure(i, names[i], "Product Category already exists!");
+                } else if (!existing.getIsactive()) {
+                    results[i] = failure(i, names[i], "Cannot update. The product category is inactive.");
+                } else {
+                    rows[i] = builderManager.dbBuilder(existing.getId(), names[i], request.getDescription(), existing.getParentid(), true, existing.getCreatedat(), now);
+                }
+                continue;
+            }
+
+            String parentName = parentName(request);
+            int parentId = 0;
+            if (parentName != null) {
+                Integer batchIndex = batchIndexByName.get(parentName);
+                ProductCategoryDbModel existingParent = existingByName.get(parentName);
+                if (parentName.equals(names[i])) {
+                    results[i] = failure(i, names[i], "A category cannot be its own parent.");
+                    continue;
+                } else if (batchIndex != null && existingParent == null) {
+                    parentInBatch[i] = batchIndex;
+                } else if (existingParent != null && existingParent.getIsactive()) {
+                    parentId = existingParent.getId();
+                } else {
+                    results[i] = failure(i, names[i], "Parent category not found: " + parentName);
+                    continue;
+                }
+            } else {
+                parentId = parentId(request);
+                if (parentId != 0 && !activeParentIds.contains(parentId)) {
+                    results[i] = failure(i, names[i], "Parent category not found or inactive.");
+                    continue;
+                }
+            }
+            rows[i] = builderManager.dbBuilder(null, names[i], request.getDescription(), parentId, true, now, now);
+        }
+
+        // Inserts whose parent is created by the same batch go in later levels, parents first
+        List<List<Integer>> levels = insertLevels(rows, parentInBatch, existingByName, names, results);
+
+        try {
+            List<ProductCategoryDbModel> inserted = new ArrayList<>();
+            if (!levels.isEmpty()) {
+                productCategoryJdbcRepo.lockPathsForInsert();
+            }
+            for (List<Integer> level : levels) {
+                List<ProductCategoryDbModel> inserts = new ArrayList<>(level.size());
+                for (int i : level) {
+                    if (parentInBatch[i] != NO_PARENT_IN_BATCH) {
+                        rows[i].setParentid(rows[parentInBatch[i]].getId());
+                    }
+                    inserts.add(rows[i]);
+                }
+                productCategoryJdbcRepo.insertCategories(inserts);
+
+                // Parents were inserted by an earlier level or already exist, so their paths are set
+                productCategoryJdbcRepo.assignPaths(inserts.stream().map(ProductCategoryDbModel::getId).toList());
+                inserted.addAll(inserts);
+            }
+
+            List<ProductCategoryDbModel> updates = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (results[i] == null && rows[i] != null && rows[i].getId() != null && existingByName.containsKey(names[i])) {
+                    updates.add(rows[i]);
+                }
+            }
+            productCategoryJdbcRepo.updateCategories(updates);
+
+            // Upserted categories are announced as updates
+            messageBrokerManager.PushTopicsToMessageBroker("create", inserted);
+            messageBrokerManager.PushTopicsToMessageBroker("update", updates);
+
+            for (int i = 0; i < size; i++) {
+                if (results[i] == null) {
+                    boolean updated = existingByName.containsKey(names[i]);
+                    results[i] = new BulkItemResModel(i, names[i], true, updated ? "Category successfully updated" : "Category successfully created", rows[i].getId());
+                }
+            }
+
+            // Upserts keep their names, so only the inserts take names in the index, once committed
+            for (ProductCategoryDbModel category : inserted) {
+                categoryNameIndex.recordSaved(category.getId(), category.getName());
+            }
+
+            updateCache(inserted, updates);
+
+            int failed = (int) Arrays.stream(results).filter(result -> !result.getStatus()).count();
+            HttpStatus status = failed == 0 ? HttpStatus.CREATED : failed == size ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS;
+            String message = failed == 0 ? "Categories successfully processed" : failed + " of " + size + " categories could not be processed";
+            return new ResponseEntity<>(new BulkResModel(failed == 0, message, inserted.size(), updates.size(), failed, Arrays.asList(results)), status);
+        } catch (Exception e) {
+            // A name of the batch was created by another request after the names were checked
+            if (CategoryNameIndex.isNameConflict(e)) {
+                categoryNameIndex.recordConflict();
+                throw new RunTimeException(new ErrorHandler(false, "A category name of this batch was created meanwhile; retry the batch."), HttpStatus.CONFLICT);
+            }
+            logger.error("BulkProductCategoryImpl createProductCategories: Error writing {} categories: {}", size, e.getMessage(), e);
+            throw new RunTimeException(new ErrorHandler(false, "Unable to save your records at this time."), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Groups the pending inserts by their distance to a parent outside the batch.
+     * Items whose parent failed, or that form a parent cycle within the batch, are marked as failed.
+     */
+    static List<List<Integer>> insertLevels(ProductCategoryDbModel[] rows, int[] parentInBatch, Map<String, ProductCategoryDbModel> existingByName, String[] names, BulkItemResModel[] results) {
+        int size = rows.length;
+        int[] levelOf = new int[size];
+        Arrays.fill(levelOf, -1);
+        List<List<Integer>> levels = new ArrayList<>();
+        int[] path = new int[size];
+        int[] walkOf = new int[size];
+
+        for (int start = 0; start < size; start++) {
+            if (results[start] != null || rows[start] == null || existingByName.containsKey(names[start]) || levelOf[start] >= 0) {
+                continue;
+            }
+
+            // Walk up to the first item with a known level, then assign levels on the way back
+            int length = 0;
+            int current = start;
+            while (current != NO_PARENT_IN_BATCH && levelOf[current] < 0 && results[current] == null) {
+                if (walkOf[current] == start + 1) {
+                    break;
+                }
+                walkOf[current] = start + 1;
+                path[length++] = current;
+                current = parentInBatch[current];
+            }
+
+            String error = null;
+            int level = 0;
+            if (current != NO_PARENT_IN_BATCH && results[current] != null) {
+                error = "Parent category in this batch could not be processed.";
+            } else if (current != NO_PARENT_IN_BATCH && levelOf[current] < 0) {
+                error = "Parent reference cycle in this batch.";
+            } else if (current != NO_PARENT_IN_BATCH) {
+                level = levelOf[current] + 1;
+            }
+
+            for (int k = length - 1; k >= 0; k--) {
+                int item = path[k];
+                if (error != null) {
+                    results[item] = failure(item, names[item], error);
+                    continue;
+                }
+                levelOf[item] = level;
+                while (levels.size() <= level) {
+                    levels.add(new ArrayList<>());
+                }
+                levels.get(level).add(item);
+                level++;
+            }
+        }
+        return levels;
+    }
+
+    private void updateCache(List<ProductCategoryDbModel> inserted, List<ProductCategoryDbModel> updated) {
+        List<CacheModel> cacheModels = new ArrayList<>(inserted.size() + updated.size());
+        inserted.forEach(category -> cacheModels.add(builderManager.CacheModelBuilder(category)));
+        updated.forEach(category -> cacheModels.add(builderManager.CacheModelBuilder(category)));
+
+        // Once committed, write the cache and have every instance read a fresh tree on its next hierarchy read
+        AfterCommit.run("caching a bulk write", () -> {
+            redisCacheService.saveUpdateProductCategoriesInCacheMemory(cacheModels);
+            categorySnapshotService.invalidate();
+        });
+    }
+
+    /**
+     * Validates the size of the batch.
+     *
+     * @param requests the batch to validate
+     * @throws RunTimeException if the batch is null, empty or larger than the allowed size
+     */
+    private void validateBatch(List<ProductCategoryReqModel> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Request cannot be empty."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "A bulk request cannot hold more than " + MAX_BULK_SIZE + " categories."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    /**
+     * Validates one item with the same rules as a single create.
+     *
+     * @return the error message, or null if the item is valid
+     */
+    private String validateItem(ProductCategoryReqModel request) {
+        if (request == null) {
+            return "Request cannot be null.";
+        }
+        if (request.getDescription() == null || request.getDescription().isEmpty()) {
+            return "Description is required.";
+        }
+        if (request.getName() == null || request.getName().isEmpty()) {
+            return "Name is required.";
+        }
+        return null;
+    }
+
+    private String parentName(ProductCategoryReqModel request) {
+        String parentName = request.getParentname();
+        return parentName == null || parentName.isBlank() ? null : parentName.toLowerCase();
+    }
+
+    private int parentId(ProductCategoryReqModel request) {
+        return request.getParentid() == null ? 0 : request.getParentid();
+    }
+
+    private static BulkItemResModel failure(int index, String name, String message) {
+        return new BulkItemResModel(index, name, false, message, null);
+    }
+}
@@ -0,0 +1,247 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryEventModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryOutboxModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.LatestCategoryEvents;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryOutboxRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
+import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service implementation for loading the Redis cache from Postgres.
+ * Active categories are streamed from a database cursor into staging keys with pipelined
+ * batches, then swapped in atomically, so readers never see a partly loaded catalog.
+ * Changes committed while the categories stream are replayed from the outbox, so the swap does not revert them.
+ * The load runs at startup, before the application reports itself ready, and on demand.
+ */
+@Service
+public class CacheWarmupService implements ApplicationRunner {
+
+    private static final int STAGE_BATCH_SIZE = 5000;
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
+    private final RedisCacheService redisCacheService;
+    private final BuilderManager builderManager;
+    private final CategorySnapshotService categorySnapshotService;
+    private final CategoryOutboxRepo categoryOutboxRepo;
+    private final ObjectMapper objectMapper;
+    private final Duration replayMargin;
+    private final boolean warmupEnabled;
+    private final boolean onlyIfEmpty;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Map<String, Object> lastRebuild = Collections.emptyMap();
+    private volatile Map<String, Object> lastMigration = Collections.emptyMap();
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    /**
+     * Constructs a CacheWarmupService instance with the required dependencies.
+     *
+     * @param productCategoryJdbcRepo the JDBC repository streaming the categories
+     * @param redisCacheService the Redis cache service for product categories
+     * @param builderManager the builder manager for constructing cache models
+     * @param categorySnapshotService the service holding the category tree snapshot
+     * @param categoryOutboxRepo the outbox the changes committed during a rebuild are replayed from
+     * @param objectMapper the object mapper reading the outbox events
+     * @param replayMargin how long before a rebuild starts the replayed changes may have been recorded,
+     *                     covering transactions that were still open when the categories started streaming
+     * @param warmupEnabled whether the cache is loaded at startup
+     * @param onlyIfEmpty whether the startup load is skipped when the cache is already loaded
+     */
+    public CacheWarmupService(
+            ProductCategoryJdbcRepo productCategoryJdbcRepo,
+            RedisCacheService redisCacheService,
+            BuilderManager builderManager,
+            CategorySnapshotService categorySnapshotService,
+            CategoryOutboxRepo categoryOutboxRepo,
+            ObjectMapper objectMapper,
+            @Value("${category.cache.rebuild.replay-margin:PT1M}") Duration replayMargin,
+            @Value("${category.cache.warmup.enabled:true}") boolean warmupEnabled,
+            @Value("${category.cache.warmup.only-if-empty:true}") boolean onlyIfEmpty
+    ) {
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
+        this.redisCacheService = redisCacheService;
+        this.builderManager = builderManager;
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryOutboxRepo = categoryOutboxRepo;
+        this.objectMapper = objectMapper;
+        this.replayMargin = replayMargin;
+        this.warmupEnabled = warmupEnabled;
+        this.onlyIfEmpty = onlyIfEmpty;
+    }
+
+    /**
+     * Loads the cache at startup. Spring Boot only marks the application as accepting traffic
+     * once every runner has returned, so readiness is held until the load is done.
+     * A failure is logged and does not stop the application.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupEnabled) {
+            return;
+        }
+        try {
+            if (onlyIfEmpty && redisCacheService.isCacheLoaded()) {
+                logger.info("CacheWarmupService: run - Cache already loaded, skipping warm-up");
+                return;
+            }
+            rebuildCache();
+        } catch (Exception e) {
+            logger.error("CacheWarmupService: run - Error occurred while warming up the cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the cache from the active categories in Postgres and swaps it in atomically.
+     * The stream reads the table as it was when it started, so the outbox events recorded since shortly
+     * before then are replayed into the staged keys before the swap. Changes committed between that replay
+     * and the swap were written to the live keys the swap replaces, so the same events are applied once
+     * more to the live keys right after it. Replaying a change already streamed writes the same state again.
+     *
+     * @return the number of rows and parents loaded, the changes replayed and the time spent in each phase
+     * @throws RunTimeException if a rebuild is already running or the rebuild fails
+     */
+    public Map<String, Object> rebuildCache() {
+        if (!rebuildLock.tryLock()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "A cache rebuild is already in progress."),
+                    HttpStatus.CONFLICT
+            );
+        }
+        String stagingId = UUID.randomUUID().toString();
+        Set<Integer> parentIds = new HashSet<>();
+        try {
+            long start = System.nanoTime();
+            LocalDateTime replayFrom = LocalDateTime.now().minus(replayMargin);
+            long[] rows = new long[1];
+            List<CacheModel> batch = new ArrayList<>(STAGE_BATCH_SIZE);
+
+            productCategoryJdbcRepo.streamActiveCategories(category -> {
+                batch.add(builderManager.CacheModelBuilder(category));
+                parentIds.add(category.getParentid());
+                if (batch.size() == STAGE_BATCH_SIZE) {
+                    redisCacheService.stageCategories(stagingId, batch);
+                    rows[0] += batch.size();
+                    batch.clear();
+                }
+            });
+            redisCacheService.stageCategories(stagingId, batch);
+            rows[0] += batch.size();
+            long loadedAt = System.nanoTime();
+
+            LocalDateTime swapReplayFrom = LocalDateTime.now().minus(replayMargin);
+            LatestCategoryEvents staged = replayableChanges(replayFrom);
+            redisCacheService.stageCategories(stagingId, staged.saved());
+            redisCacheService.unstageCategories(stagingId, staged.removed());
+            staged.saved().forEach(category -> parentIds.add(category.getParentid()));
+
+            redisCacheService.publishStagedCategories(stagingId, parentIds);
+            long publishedAt = System.nanoTime();
+
+            LatestCategoryEvents live = replayableChanges(swapReplayFrom);
+            if (live.size() > 0 && !redisCacheService.applyProductCategoryChangesInCacheMemory(live.saved(), live.removed())) {
+                logger.warn("CacheWarmupService: rebuildCache - Changes recorded during the swap could not be replayed; the cache repair consumer applies them");
+            }
+
+            // The cache changed, so the next hierarchy read must see a fresh tree
+            categorySnapshotService.invalidate();
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rows", rows[0]);
+            result.put("parents", parentIds.size());
+            result.put("replayedBeforeSwap", staged.size());
+            result.put("replayedAfterSwap", live.size());
+            result.put("loadMillis", TimeUnit.NANOSECONDS.toMillis(loadedAt - start));
+            result.put("swapMillis", TimeUnit.NANOSECONDS.toMillis(publishedAt - loadedAt));
+            result.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(publishedAt - start));
+            result.put("completedAt", new Date());
+            lastRebuild = result;
+            logger.info("CacheWarmupService: rebuildCache - Loaded {} categories under {} parents in {} ms", rows[0], parentIds.size(), result.get("totalMillis"));
+            return result;
+        } catch (Exception e) {
+            logger.error("CacheWarmupService: rebuildCache - Error occurred while rebuilding the cache: {}", e.getMessage());
+            redisCacheService.discardStagedCategories(stagingId, parentIds);
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Unable to rebuild the cache at this time."),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Re-encodes the cached categories in the configured value format, without reading the database.
+     * It shares the rebuild lock, as a rebuild would replace the hash being migrated.
+     *
+     * @return the entries scanned and migrated, and the size of the cached values before and after
+     * @throws RunTimeException if a rebuild or migration is already running or the migration fails
+     */
+    public Map<String, Object> migrateValueFormat() {
+        if (!rebuildLock.tryLock()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "A cache rebuild is already in progress."),
+                    HttpStatus.CONFLICT
+            );
+        }
+        try {
+            Map<String, Object> result = redisCacheService.migrateValueFormat();
+            result.put("completedAt", new Date());
+            lastMigration = result;
+            return result;
+        } catch (Exception e) {
+            logger.error("CacheWarmupService: migrateValueFormat - Error occurred while migrating the cache: {}", e.getMessage());
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Unable to migrate the cache at this time."),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the result of the last successful value format migration, or an empty map if none ran.
+     */
+    public Map<String, Object> getLastMigration() {
+        return lastMigration;
+    }
+
+    /**
+     * Returns the result of the last successful rebuild, or an empty map if none ran.
+     */
+    public Map<String, Object> getLastRebuild() {
+        return lastRebuild;
+    }
+
+    private LatestCategoryEvents replayableChanges(LocalDateTime since) {
+        LatestCategoryEvents latest = new LatestCategoryEvents();
+        for (CategoryOutboxModel outboxEvent : categoryOutboxRepo.findCreatedSince(since)) {
+            try {
+                CategoryEventModel event = objectMapper.readValue(outboxEvent.getPayload(), CategoryEventModel.class);
+                if (event.getCategory() != null && event.getCategory().getId() != null) {
+                    latest.add(event);
+                }
+            } catch (Exception e) {
+                logger.error("CacheWarmupService: replayableChanges - Error reading outbox event {}: {}", outboxEvent.getId(), e.getMessage());
+            }
+        }
+        return latest;
+    }
+}
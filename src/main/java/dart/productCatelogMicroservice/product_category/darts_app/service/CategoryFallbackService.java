@@ -0,0 +1,191 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryNodeProjection;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryTreeSnapshot;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryHierarchyRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class serving the category tree from Postgres when Redis cannot.
+ * Reads of the whole tree are served from a tree loaded from a database cursor and kept for a short time,
+ * so the database sees at most one catalog read per time-to-live, however many requests arrive. Once a tree
+ * is held, a single reader refreshes it while the others keep using the previous one.
+ * Reads of a single category, its subtree or its path, run one indexed query each instead of loading the tree;
+ * a subtree not found on the materialized paths is read once more by following the parent links.
+ */
+@Service
+public class CategoryFallbackService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryFallbackService.class);
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
+    private final CategoryHierarchyRepo categoryHierarchyRepo;
+    private final BuilderManager builderManager;
+    private final long ttlMillis;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile CategoryTreeSnapshot snapshot;
+    private volatile long loadedAt;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private volatile long lastLoadMillis;
+    private final Timer treeBuilds;
+
+    /**
+     * Constructs a CategoryFallbackService instance.
+     *
+     * @param productCategoryJdbcRepo The JDBC repository streaming the categories.
+     * @param categoryHierarchyRepo   The repository reading the subtree and path of a single category.
+     * @param builderManager          The builder manager for constructing the category tree.
+     * @param ttlMillis               How long a tree loaded from the database is served.
+     * @param meterRegistry           The registry the load counter and tree build timer are published to.
+     */
+    public CategoryFallbackService(
+            ProductCategoryJdbcRepo productCategoryJdbcRepo,
+            CategoryHierarchyRepo categoryHierarchyRepo,
+            BuilderManager builderManager,
+            @Value("${category.fallback.ttl-ms:30000}") long ttlMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
+        this.categoryHierarchyRepo = categoryHierarchyRepo;
+        this.builderManager = builderManager;
+        this.ttlMillis = ttlMillis;
+        this.treeBuilds = CategorySnapshotService.treeBuildTimer("database", meterRegistry);
+        FunctionCounter.builder("category.fallback.loads", loads, LongAdder::sum)
+                .description("Trees loaded from the database").register(meterRegistry);
+        FunctionCounter.builder("category.fallback.queries", queries, LongAdder::sum)
+                .description("Subtree and path reads answered by a database query").register(meterRegistry);
+    }
+
+    /**
+     * Returns a tree of the active categories read from the database, at most one time-to-live old.
+     *
+     * @param version The catalog version to stamp on a newly loaded tree.
+     * @return The tree, or null if there are no active categories.
+     * @throws RuntimeException if the database cannot be reached and no tree is held yet.
+     */
+    public CategoryTreeSnapshot snapshot(long version) {
+        reads.increment();
+        CategoryTreeSnapshot current = snapshot;
+        boolean held = loadedAt != 0;
+        if (held && isFresh()) {
+            return current;
+        }
+
+        // With a tree held, only one reader refreshes it; the others serve the previous tree meanwhile
+        if (held) {
+            if (!loadLock.tryLock()) {
+                return current;
+            }
+        } else {
+            loadLock.lock();
+        }
+        try {
+            if (loadedAt != 0 && isFresh()) {
+                return snapshot;
+            }
+            return load(version);
+        } catch (RuntimeException e) {
+            if (held) {
+                logger.error("CategoryFallbackService: snapshot - Error refreshing fallback tree, serving the previous one: {}", e.getMessage());
+                return current;
+            }
+            throw e;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the active categories below a category from the database, nested the way the cached tree holds them.
+     *
+     * @param categoryId The ID of the category.
+     * @return The children of the category with their subtrees; empty if the category is missing or inactive.
+     */
+    public List<CacheModel> subtree(Integer categoryId) {
+        queries.increment();
+        List<CategoryNodeProjection> nodes = categoryHierarchyRepo.findDescendantsByPath(categoryId, Integer.MAX_VALUE);
+        if (nodes.isEmpty()) {
+            // The category may lack a path, as categories caught in a parent cycle do; follow the parent links instead
+            nodes = categoryHierarchyRepo.findSubtree(categoryId, Integer.MAX_VALUE);
+        }
+        List<CacheModel> descendants = new ArrayList<>();
+        for (CategoryNodeProjection node : nodes) {
+            // The category itself comes first, at depth 0
+            if (node.getDepth() > 0) {
+                descendants.add(builderManager.CacheModelBuilder(node));
+            }
+        }
+        return treeBuilds.record(() -> builderManager.buildHierarchy(descendants, categoryId));
+    }
+
+    /**
+     * Reads the chain of active categories from the root down to a category from the database.
+     * Like the chain in the cached tree, which holds only active categories, it starts below
+     * the nearest inactive ancestor and below a missing parent.
+     *
+     * @param categoryId The ID of the category.
+     * @return The chain, root first, without children; empty if the category is missing or inactive.
+     */
+    public List<CacheModel> path(Integer categoryId) {
+        queries.increment();
+        List<CategoryNodeProjection> chain = categoryHierarchyRepo.findAncestors(categoryId);
+        int top = chain.size();
+        while (top > 0 && Boolean.TRUE.equals(chain.get(top - 1).getIsactive())) {
+            top--;
+        }
+        return chain.subList(top, chain.size()).stream()
+                .map(builderManager::CacheModelBuilder)
+                .toList();
+    }
+
+    /**
+     * Returns the number of tree reads served, the loads and queries done and the age of the held tree.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        CategoryTreeSnapshot current = snapshot;
+        stats.put("reads", reads.sum());
+        stats.put("loads", loads.sum());
+        stats.put("queries", queries.sum());
+        stats.put("lastLoadMillis", lastLoadMillis);
+        stats.put("size", current == null ? 0 : current.size());
+        stats.put("ageMillis", current == null ? null : System.currentTimeMillis() - loadedAt);
+        return stats;
+    }
+
+    private boolean isFresh() {
+        return System.currentTimeMillis() - loadedAt < ttlMillis;
+    }
+
+    private CategoryTreeSnapshot load(long version) {
+        long start = System.nanoTime();
+        List<CacheModel> categories = new ArrayList<>();
+        productCategoryJdbcRepo.streamActiveCategories(category -> categories.add(builderManager.CacheModelBuilder(category)));
+
+        CategoryTreeSnapshot loaded = categories.isEmpty() ? null : treeBuilds.record(() -> builderManager.buildTreeSnapshot(categories, version));
+        snapshot = loaded;
+        loadedAt = System.currentTimeMillis();
+        loads.increment();
+        lastLoadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Loaded fallback category tree with {} categories from the database in {} ms.", categories.size(), lastLoadMillis);
+        return loaded;
+    }
+}
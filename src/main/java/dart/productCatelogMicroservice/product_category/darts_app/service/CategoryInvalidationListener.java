@@ -0,0 +1,106 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryInvalidationModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryInvalidationPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the catalog changes other instances announce on the invalidation channel to this
+ * instance's tree snapshot, near cache and name index. Announcements of this instance are skipped, since
+ * it applied its changes before publishing them.
+ * The time from publishing to applying is recorded as the invalidation lag; it is measured
+ * across hosts, so it includes the difference between their clocks.
+ */
+@Service
+public class CategoryInvalidationListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryInvalidationListener.class);
+    private final CategorySnapshotService categorySnapshotService;
+    private final CategoryNameIndex categoryNameIndex;
+    private final ObjectMapper objectMapper;
+    private final String origin;
+    private final Timer lag;
+    private final Counter applied;
+    private final Counter unreadable;
+
+    /**
+     * Constructs a CategoryInvalidationListener and subscribes it to the invalidation channel.
+     *
+     * @param listenerContainer       The container delivering the channel's messages.
+     * @param categorySnapshotService The service holding the category tree snapshot.
+     * @param categoryInvalidationPublisher The publisher of this instance, whose announcements are skipped.
+     * @param categoryNameIndex       The index of the taken category names.
+     * @param objectMapper            The object mapper reading the announcements.
+     * @param meterRegistry           The registry the lag and counters are published to.
+     */
+    public CategoryInvalidationListener(
+            RedisMessageListenerContainer listenerContainer,
+            CategorySnapshotService categorySnapshotService,
+            CategoryInvalidationPublisher categoryInvalidationPublisher,
+            CategoryNameIndex categoryNameIndex,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryNameIndex = categoryNameIndex;
+        this.objectMapper = objectMapper;
+        this.origin = categoryInvalidationPublisher.getOrigin();
+        this.lag = Timer.builder("category.invalidation.lag")
+                .description("Time from a change announced by another instance to its application here")
+                .register(meterRegistry);
+        this.applied = Counter.builder("category.invalidation.received")
+                .tag("result", "applied")
+                .description("Announcements received from other instances")
+                .register(meterRegistry);
+        this.unreadable = Counter.builder("category.invalidation.received")
+                .tag("result", "unreadable")
+                .description("Announcements received from other instances")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CategoryInvalidationPublisher.CHANNEL));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CategoryInvalidationModel invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CategoryInvalidationModel.class);
+        } catch (Exception e) {
+            unreadable.increment();
+            logger.error("CategoryInvalidationListener: onMessage - Error occurred while reading an announcement: {}", e.getMessage());
+            return;
+        }
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+
+        if (invalidation.isReload()) {
+            categorySnapshotService.invalidateAnnounced();
+        } else {
+            List<CacheModel> saved = invalidation.getSaved() == null ? Collections.emptyList() : invalidation.getSaved();
+            categorySnapshotService.applyAnnounced(
+                    saved,
+                    invalidation.getRemoved() == null ? Collections.emptyList() : invalidation.getRemoved()
+            );
+            // Names taken by a reload are not listed; the unique index rejects them until the next start
+            categoryNameIndex.recordSaved(saved);
+        }
+        applied.increment();
+        lag.record(Math.max(0, System.currentTimeMillis() - invalidation.getPublishedat()), TimeUnit.MILLISECONDS);
+    }
+}
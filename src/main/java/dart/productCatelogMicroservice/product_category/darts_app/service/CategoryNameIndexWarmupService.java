@@ -0,0 +1,50 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the category name index from Postgres at startup, before the application reports itself ready.
+ * Until the load is done, and if it fails, duplicate names are checked against the database.
+ */
+@Service
+public class CategoryNameIndexWarmupService implements ApplicationRunner {
+
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
+    private final CategoryNameIndex categoryNameIndex;
+    private static final Logger logger = LoggerFactory.getLogger(CategoryNameIndexWarmupService.class);
+
+    /**
+     * Constructs a CategoryNameIndexWarmupService instance with the required dependencies.
+     *
+     * @param productCategoryJdbcRepo the JDBC repository streaming the category names
+     * @param categoryNameIndex the in-memory index of the taken category names
+     */
+    public CategoryNameIndexWarmupService(ProductCategoryJdbcRepo productCategoryJdbcRepo, CategoryNameIndex categoryNameIndex) {
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
+        this.categoryNameIndex = categoryNameIndex;
+    }
+
+    /**
+     * Streams the ID and name of every category into the name index.
+     * A failure is logged and does not stop the application.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long start = System.nanoTime();
+            categoryNameIndex.load(productCategoryJdbcRepo.countCategories(), productCategoryJdbcRepo::streamNames);
+            logger.info("CategoryNameIndexWarmupService: run - Loaded {} category names in {} ms",
+                    categoryNameIndex.stats().get("names"), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("CategoryNameIndexWarmupService: run - Error occurred while loading the category names: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryPathsResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.AfterCommit;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNearCache;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryTreeSnapshot;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CircuitBreaker;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryInvalidationPublisher;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class holding the in-process snapshot of the product category tree.
+ * Hierarchy reads are served from the snapshot; it is loaded from Redis on first use.
+ * Single writes patch it into the next version, copying only the path from the written
+ * category to the root; other changes discard it, and the next read loads it again. While no snapshot is
+ * loaded, subtree and child reads go to the Redis child index instead of the whole catalog, through
+ * the {@link CategoryNearCache}.
+ * Every change is announced to the other instances through {@link CategoryInvalidationPublisher}, and
+ * changes they announce are applied the same way. A snapshot older than the maximum age is loaded again,
+ * which bounds how long an instance that missed an announcement serves a stale tree.
+ * Redis reads go through a circuit breaker; while Redis fails, the tree is served from the
+ * database through {@link CategoryFallbackService}, and the subtree or path of a single category
+ * is queried from it directly.
+ * Reads are counted by where they were answered from, tree builds are timed, and the size
+ * and depth of the last loaded tree are published as gauges.
+ */
+@Service
+public class CategorySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorySnapshotService.class);
+    private final RedisCacheService redisCacheService;
+    private final BuilderManager builderManager;
+    private final CategoryFallbackService categoryFallbackService;
+    private final CircuitBreaker redisBreaker;
+    private final CategoryNearCache categoryNearCache;
+    private final CategoryInvalidationPublisher categoryInvalidationPublisher;
+    private final long maxAgeMillis;
+    private final AtomicReference<CategoryTreeSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+    // When the current snapshot was loaded from Redis; patches keep it
+    private volatile long loadedAt;
+    // A lock rather than synchronized: the load does I/O, which would pin a virtual thread to its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // Kept after invalidation, so the catalog gauges do not drop out between a write and the next read
+    private volatile CategoryTreeSnapshot lastLoaded;
+    private final Counter snapshotReads;
+    private final Counter redisLoads;
+    private final Counter indexReads;
+    private final Counter nearCacheReads;
+    private final Counter databaseReads;
+    private final Timer snapshotBuilds;
+    private final Timer subtreeBuilds;
+    private final Timer snapshotPatches;
+
+    /**
+     * Constructs a CategorySnapshotService instance.
+     *
+     * @param redisCacheService The Redis cache service the snapshot is loaded from.
+     * @param builderManager    The builder manager for constructing the category tree.
+     * @param categoryFallbackService The database-backed tree served while Redis is unavailable.
+     * @param failureThreshold  The number of consecutive Redis failures that open the breaker.
+     * @param openMillis        How long the breaker stays open before probing Redis again.
+     * @param categoryNearCache The per-instance cache of reads from the Redis child index.
+     * @param categoryInvalidationPublisher The channel announcing changes to the other instances.
+     * @param maxAgeMillis      How long a snapshot is patched and served before it is loaded from Redis again.
+     * @param meterRegistry     The registry the read counters, build timers and catalog gauges are published to.
+     */
+    public CategorySnapshotService(
+            RedisCacheService redisCacheService,
+            BuilderManager builderManager,
+            CategoryFallbackService categoryFallbackService,
+            @Value("${category.redis.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${category.redis.breaker.open-ms:5000}") long openMillis,
+            CategoryNearCache categoryNearCache,
+            CategoryInvalidationPublisher categoryInvalidationPublisher,
+            @Value("${category.snapshot.max-age-ms:300000}") long maxAgeMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.redisCacheService = redisCacheService;
+        this.builderManager = builderManager;
+        this.categoryFallbackService = categoryFallbackService;
+        this.redisBreaker = new CircuitBreaker("redis-read", failureThreshold, Duration.ofMillis(openMillis));
+        this.redisBreaker.bindTo(meterRegistry);
+        this.categoryNearCache = categoryNearCache;
+        this.categoryInvalidationPublisher = categoryInvalidationPublisher;
+        this.maxAgeMillis = maxAgeMillis;
+
+        this.snapshotReads = readCounter("snapshot", meterRegistry);
+        this.redisLoads = readCounter("redis", meterRegistry);
+        this.indexReads = readCounter("redis-index", meterRegistry);
+        this.nearCacheReads = readCounter("near-cache", meterRegistry);
+        this.databaseReads = readCounter("database", meterRegistry);
+        this.snapshotBuilds = treeBuildTimer("redis", meterRegistry);
+        this.subtreeBuilds = treeBuildTimer("subtree", meterRegistry);
+        this.snapshotPatches = treeBuildTimer("patch", meterRegistry);
+        Gauge.builder("category.catalog.size", this, service -> service.lastLoaded == null ? Double.NaN : service.lastLoaded.size())
+                .description("Categories in the last loaded tree").register(meterRegistry);
+        Gauge.builder("category.tree.depth", this, service -> service.lastLoaded == null ? Double.NaN : service.lastLoaded.getDepth())
+                .description("Levels of the last loaded tree").register(meterRegistry);
+    }
+
+    /**
+     * Returns the timer of tree builds from the given source, shared with the database fallback.
+     */
+    static Timer treeBuildTimer(String source, MeterRegistry meterRegistry) {
+        return Timer.builder("category.tree.build")
+                .tag("source", source)
+                .description("Time spent building the category tree")
+                .register(meterRegistry);
+    }
+
+    private static Counter readCounter(String source, MeterRegistry meterRegistry) {
+        return Counter.builder("category.hierarchy.reads")
+                .tag("source", source)
+                .description("Hierarchy reads by where they were answered from")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the current snapshot, loading it from Redis if the catalog changed since the last load.
+     * If Redis is unavailable or empty, a tree read from the database is returned instead;
+     * it is not kept as the snapshot, so Redis is tried again on the next read.
+     *
+     * @return The current snapshot, or null if there are no categories in Redis cache or the database.
+     * @throws RuntimeException if neither Redis nor the database can be reached.
+     */
+    public CategoryTreeSnapshot currentSnapshot() {
+        return currentSnapshot(true);
+    }
+
+    /**
+     * Returns the current snapshot like {@link #currentSnapshot()}; without the database tree, null is
+     * returned when Redis is unavailable or empty, so reads of a single category can query the database instead.
+     */
+    private CategoryTreeSnapshot currentSnapshot(boolean databaseTree) {
+        CategoryTreeSnapshot current = snapshot.get();
+        if (current != null && System.currentTimeMillis() - loadedAt > maxAgeMillis) {
+            expire(current);
+            current = null;
+        }
+        if (current != null) {
+            snapshotReads.increment();
+            return current;
+        }
+
+        // Only one reader rebuilds the tree; the others wait and reuse its result
+        loadLock.lock();
+        try {
+            current = snapshot.get();
+            if (current != null) {
+                snapshotReads.increment();
+                return current;
+            }
+
+            long version = catalogVersion.get();
+            List<CacheModel> categories = redisBreaker.call(redisCacheService::fetchAllCategories, () -> null);
+
+            // Redis is unavailable or was flushed: serve the tree from the database instead
+            if (categories == null || categories.isEmpty()) {
+                if (!databaseTree) {
+                    return null;
+                }
+                databaseReads.increment();
+                return categoryFallbackService.snapshot(version);
+            }
+
+            redisLoads.increment();
+            CategoryTreeSnapshot loaded = snapshotBuilds.record(() -> builderManager.buildTreeSnapshot(categories, version));
+            lastLoaded = loaded;
+
+            // Publish the snapshot only if no write invalidated the catalog while it was being built
+            if (catalogVersion.get() == version && snapshot.compareAndSet(null, loaded)) {
+                loadedAt = System.currentTimeMillis();
+            }
+            logger.info("Loaded category tree snapshot version {} with {} categories.", version, loaded.size());
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Discards the current snapshot after a write changed the catalog, and announces it to the other instances.
+     * The next read loads a fresh snapshot from Redis.
+     */
+    public void invalidate() {
+        discard();
+        categoryInvalidationPublisher.publishReload();
+    }
+
+    /**
+     * Discards the current snapshot after another instance announced a change it did not list.
+     */
+    public void invalidateAnnounced() {
+        discard();
+    }
+
+    private void discard() {
+        catalogVersion.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+        snapshot.set(null);
+        categoryNearCache.clear();
+    }
+
+    private void expire(CategoryTreeSnapshot expired) {
+        // A new version, so response bodies built from the expired snapshot are not served again
+        if (snapshot.compareAndSet(expired, null)) {
+            catalogVersion.incrementAndGet();
+            categoryNearCache.clear();
+            logger.info("Category tree snapshot version {} reached its maximum age; it is loaded again.", expired.getVersion());
+        }
+    }
+
+    /**
+     * Applies a written category to the snapshot, see {@link #apply(List, List)}.
+     */
+    public void applySaved(CacheModel category) {
+        apply(Collections.singletonList(category), Collections.emptyList());
+    }
+
+    /**
+     * Applies a deleted category to the snapshot, see {@link #apply(List, List)}.
+     */
+    public void applyRemoved(CacheModel category) {
+        apply(Collections.emptyList(), Collections.singletonList(category));
+    }
+
+    /**
+     * Moves the catalog to its next version by patching the current snapshot: saved categories are
+     * added or replaced in place, removed ones are detached. Each change copies only the categories
+     * from it up to the root, so readers holding the previous snapshot are not affected and the new one
+     * is published in a single step. A change that cannot be applied, such as a category whose parent
+     * the snapshot does not know, discards the snapshot instead, as {@link #invalidate()} does.
+     * The change is then announced to the other instances, so writers call this once their transaction
+     * has committed, see {@link AfterCommit}.
+     *
+     * @param saved   The created and updated categories, parents before their children.
+     * @param removed The deleted categories.
+     */
+    public void apply(List<CacheModel> saved, List<CacheModel> removed) {
+        patchSnapshot(saved, removed);
+        categoryInvalidationPublisher.publishChanges(saved, removed);
+    }
+
+    /**
+     * Applies categories saved and removed by another instance, see {@link #apply(List, List)}.
+     */
+    public void applyAnnounced(List<CacheModel> saved, List<CacheModel> removed) {
+        patchSnapshot(saved, removed);
+    }
+
+    private void patchSnapshot(List<CacheModel> saved, List<CacheModel> removed) {
+        // Under the load lock, so a load running at the same time cannot publish a tree without this change
+        loadLock.lock();
+        try {
+            long version = catalogVersion.incrementAndGet();
+            lastModified = System.currentTimeMillis();
+            CategoryTreeSnapshot current = snapshot.get();
+            CategoryTreeSnapshot patched = current == null ? null : snapshotPatches.record(() -> patch(current, saved, removed, version));
+            snapshot.set(patched);
+            categoryNearCache.clear();
+            if (patched != null) {
+                lastLoaded = patched;
+            } else if (current != null) {
+                logger.info("Category tree snapshot could not be patched to version {}; it is loaded again on the next read.", version);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private CategoryTreeSnapshot patch(CategoryTreeSnapshot current, List<CacheModel> saved, List<CacheModel> removed, long version) {
+        CategoryTreeSnapshot patched = current;
+        for (CacheModel category : removed) {
+            if (category == null || category.getId() == null) {
+                return null;
+            }
+            patched = patched.withoutCategory(category.getId(), version);
+        }
+        for (CacheModel category : saved) {
+            if (category == null || category.getId() == null) {
+                return null;
+            }
+            patched = patched.withCategory(category, version);
+            if (patched == null) {
+                return null;
+            }
+        }
+        return patched;
+    }
+
+    /**
+     * Returns the version of the catalog, which changes on every write.
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Returns the time in milliseconds of the last write seen by this instance.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the state and counters of the circuit breaker around Redis reads.
+     */
+    public Map<String, Object> getRedisBreakerStats() {
+        return redisBreaker.stats();
+    }
+
+    /**
+     * Builds a hierarchy of parent and child categories based on a given category ID.
+     *
+     * @param categoryId The ID of the category for which to build the hierarchy.
+     * @return A ProductCategoryHierarchyModel containing the hierarchy or an error message if an error occurs.
+     */
+    public ProductCategoryHierarchyModel buildParentChildCategoryHierarchy(Integer categoryId) {
+        try {
+            // Without a loaded snapshot, read only the requested subtree from Redis
+            if (categoryId != 0 && snapshot.get() == null) {
+                List<CacheModel> hierarchy = categoryNearCache.getSubtree(categoryId);
+                if (hierarchy != null) {
+                    nearCacheReads.increment();
+                } else {
+                    long generation = categoryNearCache.generation();
+                    List<CacheModel> subtree = redisBreaker.call(() -> redisCacheService.fetchSubtreeCategories(categoryId), () -> null);
+                    if (subtree != null) {
+                        indexReads.increment();
+                        hierarchy = subtreeBuilds.record(() -> builderManager.buildHierarchy(subtree, categoryId));
+                        categoryNearCache.putSubtree(categoryId, hierarchy, generation);
+                    }
+                }
+                if (hierarchy != null) {
+                    return new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", hierarchy);
+                }
+            }
+
+            CategoryTreeSnapshot current = currentSnapshot(categoryId == 0);
+
+            // Redis cannot serve the tree: query the subtree of the category instead of loading the whole tree
+            if (current == null && categoryId != 0) {
+                databaseReads.increment();
+                return new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", categoryFallbackService.subtree(categoryId));
+            }
+
+            // Check if the cache holds any categories
+            if (current == null) {
+                return new ProductCategoryHierarchyModel(false, "No categories found: Empty key in Redis", Collections.emptyList());
+            }
+
+            return new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", current.getChildren(categoryId));
+        } catch (Exception e) {
+            // Log the error and return a failure response with a user-friendly message
+            logger.error("CategorySnapshotService: buildParentChildCategoryHierarchy - Error occurred: {}", e.getMessage());
+            return new ProductCategoryHierarchyModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds a hierarchy of parent categories.
+     *
+     * @return A ProductCategoryHierarchyModel containing the parent categories or an error message if an error occurs.
+     */
+    public ProductCategoryHierarchyModel buildParentCategoryHierarchy() {
+        try {
+            CategoryTreeSnapshot current = currentSnapshot();
+
+            // Check if the cache holds any categories
+            if (current == null) {
+                return new ProductCategoryHierarchyModel(true, "No categories found: Empty key in Cache", Collections.emptyList());
+            }
+
+            return new ProductCategoryHierarchyModel(true, "Parent categories retrieved successfully", current.getParentCategories());
+        } catch (Exception e) {
+            // Log the error and return a failure response
+            logger.error("CategorySnapshotService: buildParentCategoryHierarchy - Error occurred: {}", e.getMessage());
+            return new ProductCategoryHierarchyModel(false, "Error: " + e.getMessage(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds one level of the hierarchy: the direct children of a category, without their own children.
+     *
+     * @param categoryId The ID of the parent category.
+     * @return A ProductCategoryHierarchyModel containing the child categories or an error message if an error occurs.
+     */
+    public ProductCategoryHierarchyModel buildChildCategoryHierarchy(Integer categoryId) {
+        try {
+            CategoryTreeSnapshot current = snapshot.get();
+
+            // Without a loaded snapshot, read only the child set and its records from Redis
+            if (current == null) {
+                List<CacheModel> children = categoryNearCache.getChildren(categoryId);
+                if (children != null) {
+                    nearCacheReads.increment();
+                } else {
+                    long generation = categoryNearCache.generation();
+                    children = redisBreaker.call(() -> redisCacheService.fetchChildCategories(categoryId), () -> null);
+                    if (children != null) {
+                        indexReads.increment();
+                        categoryNearCache.putChildren(categoryId, children, generation);
+                    }
+                }
+                if (children != null) {
+                    return new ProductCategoryHierarchyModel(true, "Child categories retrieved successfully", children);
+                }
+                current = currentSnapshot();
+            }
+
+            // Check if the cache holds any categories
+            if (current == null) {
+                return new ProductCategoryHierarchyModel(false, "No categories found: Empty key in Redis", Collections.emptyList());
+            }
+
+            List<CacheModel> children = current.getChildren(categoryId).stream()
+                    .map(builderManager::shallowCopy)
+                    .toList();
+            return new ProductCategoryHierarchyModel(true, "Child categories retrieved successfully", children);
+        } catch (Exception e) {
+            // Log the error and return a failure response with a user-friendly message
+            logger.error("CategorySnapshotService: buildChildCategoryHierarchy - Error occurred: {}", e.getMessage());
+            return new ProductCategoryHierarchyModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds a window of the hierarchy below a category: one page of its children, each with its
+     * subtree cut to the given number of levels and at most limit children per category.
+     * The work done is proportional to the window, not to the catalog or the subtree.
+     *
+     * @param categoryId The ID of the parent category, 0 for the root categories.
+     * @param depth      The number of levels returned, at least 1.
+     * @param afterId    The ID the page of children starts after; 0 starts at the first child.
+     * @param limit      The maximum number of categories in the page and in every child list.
+     * @return A ProductCategoryHierarchyModel containing the page and the cursor of the next page,
+     *         or an error message if an error occurs.
+     */
+    public ProductCategoryHierarchyModel buildHierarchyWindow(Integer categoryId, int depth, int afterId, int limit) {
+        try {
+            CategoryTreeSnapshot current = currentSnapshot();
+
+            // Check if the cache holds any categories
+            if (current == null) {
+                return new ProductCategoryHierarchyModel(false, "No categories found: Empty key in Redis", Collections.emptyList());
+            }
+
+            List<CacheModel> children = current.getChildren(categoryId);
+            List<CacheModel> page = CategoryTreeSnapshot.page(children, afterId, limit);
+            Integer nextCursor = null;
+            if (!page.isEmpty() && page.get(page.size() - 1) != children.get(children.size() - 1)) {
+                nextCursor = page.get(page.size() - 1).getId();
+            }
+
+            return new ProductCategoryHierarchyModel(true, "Parent and child categories retrieved successfully", builderManager.windowCopy(page, depth, limit), nextCursor);
+        } catch (Exception e) {
+            // Log the error and return a failure response with a user-friendly message
+            logger.error("CategorySnapshotService: buildHierarchyWindow - Error occurred: {}", e.getMessage());
+            return new ProductCategoryHierarchyModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds the breadcrumb of a category: the chain from its root down to the category itself.
+     *
+     * @param categoryId The ID of the category.
+     * @return A ProductCategoryHierarchyModel containing the chain, root first, without children,
+     *         or an error message if an error occurs.
+     */
+    public ProductCategoryHierarchyModel buildCategoryPath(Integer categoryId) {
+        try {
+            CategoryTreeSnapshot current = currentSnapshot(false);
+
+            // Redis cannot serve the tree: query the ancestors of the category instead of loading the whole tree
+            if (current == null) {
+                databaseReads.increment();
+                return new ProductCategoryHierarchyModel(true, "Category path retrieved successfully", categoryFallbackService.path(categoryId));
+            }
+
+            return new ProductCategoryHierarchyModel(true, "Category path retrieved successfully", shallowPath(current, categoryId));
+        } catch (Exception e) {
+            // Log the error and return a failure response with a user-friendly message
+            logger.error("CategorySnapshotService: buildCategoryPath - Error occurred: {}", e.getMessage());
+            return new ProductCategoryHierarchyModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Builds the breadcrumbs of many categories from the same snapshot.
+     *
+     * @param categoryIds The IDs of the categories.
+     * @return A CategoryPathsResModel with the chain of every category found and the IDs not found,
+     *         or an error message if an error occurs.
+     */
+    public CategoryPathsResModel buildCategoryPaths(List<Integer> categoryIds) {
+        try {
+            CategoryTreeSnapshot current = currentSnapshot();
+
+            // Check if the cache holds any categories
+            if (current == null) {
+                return new CategoryPathsResModel(false, "No categories found: Empty key in Redis", Collections.emptyMap(), categoryIds);
+            }
+
+            Map<Integer, List<CacheModel>> paths = new LinkedHashMap<>();
+            List<Integer> notFound = new ArrayList<>();
+            for (Integer categoryId : categoryIds) {
+                List<CacheModel> path = shallowPath(current, categoryId);
+                if (path.isEmpty()) {
+                    notFound.add(categoryId);
+                } else {
+                    paths.put(categoryId, path);
+                }
+            }
+            return new CategoryPathsResModel(true, "Category paths retrieved successfully", paths, notFound);
+        } catch (Exception e) {
+            // Log the error and return a failure response with a user-friendly message
+            logger.error("CategorySnapshotService: buildCategoryPaths - Error occurred: {}", e.getMessage());
+            return new CategoryPathsResModel(false, "An error occurred while retrieving categories: " + e.getMessage(), Collections.emptyMap(), categoryIds);
+        }
+    }
+
+    private List<CacheModel> shallowPath(CategoryTreeSnapshot current, Integer categoryId) {
+        // Snapshot nodes carry their subtrees, so only copies without children are returned
+        return current.getPath(categoryId).stream()
+                .map(builderManager::shallowCopy)
+                .toList();
+    }
+}
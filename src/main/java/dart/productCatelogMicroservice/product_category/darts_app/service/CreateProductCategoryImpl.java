@@ -1,14 +1,20 @@
 package dart.productCatelogMicroservice.product_category.darts_app.service;
 
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.AfterCommit;
 import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryHierarchyRepo;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.CreateProductCategoryRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
 import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
 import dart.productCatelogMicroservice.product_category.darts_app.kafka.MessageBrokerManager;
 import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,32 +31,49 @@ import java.util.Optional;
  * including validation, persistence, and caching.
  */
 @Service
+@Timed("category.service")
 public class CreateProductCategoryImpl {
 
     private final CreateProductCategoryRepo productCategoryRepo;
+    private final CategoryHierarchyRepo categoryHierarchyRepo;
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
     private final RedisCacheService redisCacheService;
     private final MessageBrokerManager messageBrokerManager;
+    private final CategorySnapshotService categorySnapshotService;
     private final BuilderManager builderManager;
+    private final CategoryNameIndex categoryNameIndex;
     private static final Logger logger = LoggerFactory.getLogger(CreateProductCategoryImpl.class);
 
     /**
      * Constructs a CreateProductCategoryImpl instance with the required dependencies.
      *
      * @param productCategoryRepo the repository for product categories
+     * @param categoryHierarchyRepo the repository the parent category is read from
+     * @param productCategoryJdbcRepo the JDBC repository holding the path lock
      * @param redisCacheService the Redis cache service for product categories
      * @param messageBrokerManager the message broker manager for handling messages
      * @param builderManager the builder manager for constructing product category models
+     * @param categorySnapshotService the service holding the category tree snapshot
+     * @param categoryNameIndex the in-memory index of the taken category names
      */
     public CreateProductCategoryImpl(
             CreateProductCategoryRepo productCategoryRepo,
+            CategoryHierarchyRepo categoryHierarchyRepo,
+            ProductCategoryJdbcRepo productCategoryJdbcRepo,
             RedisCacheService redisCacheService,
             MessageBrokerManager messageBrokerManager,
-            BuilderManager builderManager
+            BuilderManager builderManager,
+            CategorySnapshotService categorySnapshotService,
+            CategoryNameIndex categoryNameIndex
     ) {
         this.productCategoryRepo = productCategoryRepo;
+        this.categoryHierarchyRepo = categoryHierarchyRepo;
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
         this.redisCacheService = redisCacheService;
         this.messageBrokerManager = messageBrokerManager;
         this.builderManager = builderManager;
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryNameIndex = categoryNameIndex;
     }
 
     /**
@@ -59,42 +82,50 @@ public class CreateProductCategoryImpl {
      * @param request the request model containing details of the product category to create
      * @return a ResponseEntity containing the response model for the created product category
      *         along with the appropriate HTTP status code
-     * @throws RunTimeException if the request is invalid or if the category already exists
+     * @throws RunTimeException if the request is invalid, the parent is missing or inactive, or if the category already exists
      */
     @Transactional
     public ResponseEntity<ProductCategoryResModel> createProductCategory(ProductCategoryReqModel request) {
         // Validate request parameters
         validateRequest(request);
 
-        // Check for existing category
-        Optional<ProductCategoryDbModel> dbListener = productCategoryRepo.findByName(request.getName().toLowerCase());
-
-        if (dbListener.isPresent()) {
-            logger.warn("Product Category already exists: {}", request.getName());
-            throw new RunTimeException(
-                    new ErrorHandler(false, "Product Category already exists!"),
-                    HttpStatus.CONFLICT
-            );
+        // Check for existing category: a name the index knows to be free skips the database lookup
+        if (categoryNameIndex.lookup(request.getName()) != CategoryNameIndex.Lookup.ABSENT
+                && productCategoryRepo.findByName(request.getName().toLowerCase()).isPresent()) {
+            throw alreadyExists(request.getName());
         }
 
+        // Resolve the parent, whose path the new category extends
+        int parentId = request.getParentid() == null ? 0 : request.getParentid();
+        ProductCategoryDbModel parent = findParent(parentId);
+
         // Build and save the new product category
         ProductCategoryDbModel productCategoryBuilder = builderManager.dbBuilder(
                 0,
                 request.getName().toLowerCase(),
                 request.getDescription(),
-                request.getParentid(),
+                parentId,
                 true,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
         ProductCategoryDbModel onSaveRecordInDb = saveProductCategory(productCategoryBuilder);
 
-        boolean onSaveRecordInCache = redisCacheService.saveUpdateProductCategoryInCacheMemory(builderManager.CacheModelBuilder(onSaveRecordInDb));
+        // The path ends with the generated ID, so it is set on the saved row and written when the transaction commits
+        builderManager.placeUnder(onSaveRecordInDb, parent);
 
-        // Send message to message broker if Redis cache service fails
-        if (!onSaveRecordInCache) {
-            messageBrokerManager.PushTopicToMessageBroker("create", onSaveRecordInDb);
-        }
+        messageBrokerManager.PushTopicToMessageBroker("create", onSaveRecordInDb);
+
+        // Take the name in the index once the category is committed
+        categoryNameIndex.recordSaved(onSaveRecordInDb.getId(), onSaveRecordInDb.getName());
+
+        // Once committed, cache the category and add it to the tree held in memory on every instance,
+        // so the next hierarchy read sees it without a rebuild
+        CacheModel cachedCategory = builderManager.CacheModelBuilder(onSaveRecordInDb);
+        AfterCommit.run("caching a created category", () -> {
+            redisCacheService.saveUpdateProductCategoryInCacheMemory(cachedCategory);
+            categorySnapshotService.applySaved(cachedCategory);
+        });
 
         return new ResponseEntity<>(new ProductCategoryResModel(true, "Category successfully created", onSaveRecordInDb), HttpStatus.CREATED);
     }
@@ -126,20 +157,62 @@ public class CreateProductCategoryImpl {
         }
     }
 
+    /**
+     * Finds the active parent of a new category, holding off moves until the category is saved.
+     *
+     * @param parentId the ID of the parent, or 0 for a root category
+     * @return the parent category, or null for a root category
+     * @throws RunTimeException if the parent is missing or inactive
+     */
+    private ProductCategoryDbModel findParent(int parentId) {
+        if (parentId == 0) {
+            return null;
+        }
+        productCategoryJdbcRepo.lockPathsForInsert();
+
+        Optional<ProductCategoryDbModel> parent = categoryHierarchyRepo.findById(parentId);
+        if (parent.isEmpty() || !parent.get().getIsactive()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Parent category not found or inactive."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (parent.get().getPath() == null) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Parent category is not placed in the hierarchy."),
+                    HttpStatus.CONFLICT
+            );
+        }
+        return parent.get();
+    }
+
     /**
      * Saves a product category to the database.
      *
      * @param productCategoryId the product category model to save
      * @return the saved product category model
-     * @throws RunTimeException if an error occurs during the save operation
+     * @throws RunTimeException if the name is taken or an error occurs during the save operation
      */
     private ProductCategoryDbModel saveProductCategory(ProductCategoryDbModel productCategoryId) {
         try {
             return productCategoryRepo.save(productCategoryId);
         } catch (Exception e) {
+            // A create of the same name that committed after the check above
+            if (CategoryNameIndex.isNameConflict(e)) {
+                categoryNameIndex.recordConflict();
+                throw alreadyExists(productCategoryId.getName());
+            }
             logger.error("CreateProductCategoryImpl createProductCategory: Error creating category: {}", e.getMessage(), e);
             throw new RunTimeException(new ErrorHandler(false, "Unable to save your record at this time."), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    private RunTimeException alreadyExists(String name) {
+        logger.warn("Product Category already exists: {}", name);
+        return new RunTimeException(
+                new ErrorHandler(false, "Product Category already exists!"),
+                HttpStatus.CONFLICT
+        );
+    }
+
 }
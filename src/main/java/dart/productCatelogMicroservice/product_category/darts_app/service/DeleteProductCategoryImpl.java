@@ -1,7 +1,9 @@
 package dart.productCatelogMicroservice.product_category.darts_app.service;
 
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
 import dart.productCatelogMicroservice.product_category.darts_app.grpc.GrpcManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.AfterCommit;
 import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.DeleteUpdateProductCategoryRepo;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
@@ -9,6 +11,8 @@ import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
 import dart.productCatelogMicroservice.product_category.darts_app.kafka.MessageBrokerManager;
 import dart.productCatelogMicroservice.product_category.utilities.ResponseHandler;
 import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -19,6 +23,7 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
+@Timed("category.service")
 public class DeleteProductCategoryImpl {
 
     private static final Logger logger = LoggerFactory.getLogger(DeleteProductCategoryImpl.class);
@@ -27,13 +32,15 @@ public class DeleteProductCategoryImpl {
     private final BuilderManager builderManager;
     private final RedisCacheService redisCacheService;
     private final MessageBrokerManager messageBrokerManager;
+    private final CategorySnapshotService categorySnapshotService;
 
-    public DeleteProductCategoryImpl(GrpcManager grpcManager, DeleteUpdateProductCategoryRepo productCategoryRepo, BuilderManager builderManager, RedisCacheService redisCacheService, MessageBrokerManager messageBrokerManager) {
+    public DeleteProductCategoryImpl(GrpcManager grpcManager, DeleteUpdateProductCategoryRepo productCategoryRepo, BuilderManager builderManager, RedisCacheService redisCacheService, MessageBrokerManager messageBrokerManager, CategorySnapshotService categorySnapshotService) {
         this.grpcManager = grpcManager;
         this.productCategoryRepo = productCategoryRepo;
         this.builderManager = builderManager;
         this.redisCacheService = redisCacheService;
         this.messageBrokerManager = messageBrokerManager;
+        this.categorySnapshotService = categorySnapshotService;
     }
 
     /**
@@ -44,6 +51,7 @@ public class DeleteProductCategoryImpl {
      * @return a ResponseEntity containing a ResponseHandler with the deletion status
      * @throws RunTimeException if the category ID is invalid, or if the category is inactive or has associated products
      */
+    @Transactional
     public ResponseEntity<ResponseHandler> deleteProductCategory(Integer categoryId) {
         validateRequest(categoryId);
 
@@ -73,15 +81,20 @@ public class DeleteProductCategoryImpl {
                     recordFetchFromDb.getCreatedat(),
                     LocalDateTime.now()
             );
+            productCategoryBuilder.setPath(recordFetchFromDb.getPath());
+            productCategoryBuilder.setDepth(recordFetchFromDb.getDepth());
 
             ProductCategoryDbModel onDeleteDbRecord = deleteProductCategory(productCategoryBuilder);
 
-            boolean onDeleteRecordInCache = redisCacheService.deleteProductCategoryFromCacheMemory(builderManager.CacheModelBuilder(onDeleteDbRecord));
+            messageBrokerManager.PushTopicToMessageBroker("delete", onDeleteDbRecord);
 
-            // Send message to message broker if Redis cache service fails
-            if (!onDeleteRecordInCache) {
-                messageBrokerManager.PushTopicToMessageBroker("delete", onDeleteDbRecord);
-            }
+            // Once committed, drop the category from the cache and detach it from the tree held in memory
+            // on every instance, so the next hierarchy read no longer sees it
+            CacheModel cachedCategory = builderManager.CacheModelBuilder(onDeleteDbRecord);
+            AfterCommit.run("removing a deleted category from the cache", () -> {
+                redisCacheService.deleteProductCategoryFromCacheMemory(cachedCategory);
+                categorySnapshotService.applyRemoved(cachedCategory);
+            });
 
             return new ResponseEntity<>(new ResponseHandler(true, "Product category deleted successfully."), HttpStatus.OK);
         }
@@ -0,0 +1,100 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Service implementation for exporting the whole category catalog as NDJSON,
+ * one flat category per line. Rows are read from a database cursor and written
+ * straight to the response, so memory use does not grow with the catalog.
+ */
+@Service
+public class ExportProductCategoryImpl {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
+    private final ObjectMapper objectMapper;
+    private final UtilityManager utilityManager;
+    private static final Logger logger = LoggerFactory.getLogger(ExportProductCategoryImpl.class);
+
+    /**
+     * Constructs an ExportProductCategoryImpl instance with the required dependencies.
+     *
+     * @param productCategoryJdbcRepo the JDBC repository providing the category cursor
+     * @param objectMapper the object mapper whose factory creates the JSON generator
+     * @param utilityManager the utility manager used to format dates like the cache does
+     */
+    public ExportProductCategoryImpl(ProductCategoryJdbcRepo productCategoryJdbcRepo, ObjectMapper objectMapper, UtilityManager utilityManager) {
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
+        this.objectMapper = objectMapper;
+        this.utilityManager = utilityManager;
+    }
+
+    /**
+     * Streams every category, ordered by ID, as newline-delimited JSON.
+     * The status and headers are committed before the first row, so a failure
+     * mid-stream ends the response early and is only visible in the logs.
+     *
+     * @return a ResponseEntity whose body writes the catalog incrementally
+     */
+    public ResponseEntity<StreamingResponseBody> exportProductCategories() {
+        StreamingResponseBody body = outputStream -> {
+            long[] rows = new long[1];
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // The servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                productCategoryJdbcRepo.streamCategories(category -> {
+                    try {
+                        writeCategory(generator, category);
+                        if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("ExportProductCategoryImpl: exportProductCategories - Export stopped after {} rows: {}", rows[0], e.getMessage());
+                throw e;
+            }
+            logger.info("ExportProductCategoryImpl: exportProductCategories - Exported {} categories", rows[0]);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"categories.ndjson\"")
+                .body(body);
+    }
+
+    private void writeCategory(JsonGenerator generator, ProductCategoryDbModel category) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", category.getId());
+        generator.writeStringField("name", category.getName());
+        generator.writeStringField("description", category.getDescription());
+        generator.writeNumberField("parentid", category.getParentid());
+        generator.writeBooleanField("isactive", category.getIsactive());
+        generator.writeStringField("createdat", formatDate(category.getCreatedat()));
+        generator.writeStringField("updatedat", formatDate(category.getUpdatedat()));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private String formatDate(LocalDateTime date) {
+        return date == null ? null : utilityManager.DateToStringDate(date);
+    }
+}
@@ -1,46 +1,52 @@
 package dart.productCatelogMicroservice.product_category.darts_app.service;
 
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryPathsResModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
-import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
 import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
 import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service class responsible for managing product category hierarchies.
- * This service communicates with the Redis cache service to retrieve
- * product categories, validate requests, and handle errors.
+ * This service reads product categories from the in-process category tree
+ * snapshot, validates requests, and handles errors.
  */
 @Service
+@Timed("category.service")
 public class ProductCategoryHierarchyImpl {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductCategoryHierarchyImpl.class);
-    private final RedisCacheService redisCacheService;
+    private static final int MAX_PATH_IDS = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final CategorySnapshotService categorySnapshotService;
 
     /**
      * Constructs a ProductCategoryHierarchyImpl instance with the provided
-     * Redis cache service for product category management.
+     * snapshot service for product category reads.
      *
-     * @param redisCacheService The Redis cache service used to manage product categories.
+     * @param categorySnapshotService The service holding the category tree snapshot.
      */
-    public ProductCategoryHierarchyImpl(RedisCacheService redisCacheService) {
-        this.redisCacheService = redisCacheService;
+    public ProductCategoryHierarchyImpl(CategorySnapshotService categorySnapshotService) {
+        this.categorySnapshotService = categorySnapshotService;
     }
 
     /**
      * Fetches all root (parent) product categories.
-     * Communicates with Redis to build and return the parent category hierarchy.
+     * Reads the parent categories from the category tree snapshot.
      *
      * @return A ResponseEntity containing the ProductCategoryHierarchyModel
      *         representing all parent categories, or an error if none are found.
      * @throws RunTimeException if an error occurs during the category retrieval process.
      */
     public ResponseEntity<ProductCategoryHierarchyModel> fetchOnlyParentProductCategory() {
-        ProductCategoryHierarchyModel cacheListener = redisCacheService.buildParentCategoryHierarchy();
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildParentCategoryHierarchy();
 
         if (!cacheListener.getStatus()) {
             throw new RunTimeException(
@@ -77,7 +83,7 @@ public class ProductCategoryHierarchyImpl {
     public ResponseEntity<ProductCategoryHierarchyModel> fetchProductCategoryByCategoryId(Integer categoryId) {
         validateRequest(categoryId);
 
-        ProductCategoryHierarchyModel cacheListener = redisCacheService.buildParentChildCategoryHierarchy(categoryId);
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildParentChildCategoryHierarchy(categoryId);
 
         if (!cacheListener.getStatus()) {
             throw new RunTimeException(
@@ -103,6 +109,43 @@ public class ProductCategoryHierarchyImpl {
         );
     }
 
+    /**
+     * Fetches the direct children of a product category, one level at a time.
+     *
+     * @param categoryId The ID of the parent product category.
+     * @return A ResponseEntity containing the ProductCategoryHierarchyModel
+     *         with the child categories, without their own children.
+     * @throws RunTimeException if the category ID is null, has no children, or an error occurs during retrieval.
+     */
+    public ResponseEntity<ProductCategoryHierarchyModel> fetchChildProductCategory(Integer categoryId) {
+        validateRequest(categoryId);
+
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildChildCategoryHierarchy(categoryId);
+
+        if (!cacheListener.getStatus()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, cacheListener.getMessage()),
+                    HttpStatus.CONFLICT
+            );
+        }
+
+        if (cacheListener.getCategory().isEmpty()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "No child product category is associated with this ID."),
+                    HttpStatus.NOT_FOUND
+            );
+        }
+
+        return new ResponseEntity<>(
+                new ProductCategoryHierarchyModel(
+                        true,
+                        cacheListener.getMessage(),
+                        cacheListener.getCategory()
+                ),
+                HttpStatus.OK
+        );
+    }
+
     /**
      * Fetches the entire product category hierarchy, including all root, parent, and child categories.
      *
@@ -110,7 +153,7 @@ public class ProductCategoryHierarchyImpl {
      * @throws RunTimeException if an error occurs during retrieval.
      */
     public ResponseEntity<ProductCategoryHierarchyModel> fetchAllProductCategory() {
-        ProductCategoryHierarchyModel cacheListener = redisCacheService.buildParentChildCategoryHierarchy(0);
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildParentChildCategoryHierarchy(0);
 
         if (!cacheListener.getStatus()) {
             throw new RunTimeException(
@@ -136,6 +179,144 @@ public class ProductCategoryHierarchyImpl {
         );
     }
 
+    /**
+     * Fetches a window of the hierarchy below a product category: one page of its children,
+     * ordered by ID, each with its subtree cut to the given number of levels. Clients load a large
+     * tree progressively by following the returned cursor and the child counts of the categories.
+     *
+     * @param categoryId The ID of the parent product category, 0 for the root categories.
+     * @param depth      The number of levels to return, at least 1; null for every level.
+     * @param after      The ID the page starts after, taken from the previous page; null for the first page.
+     * @param limit      The maximum number of categories in the page and in every child list,
+     *                   at most 1000; null for no limit.
+     * @return A ResponseEntity containing the ProductCategoryHierarchyModel with the page and the cursor
+     *         of the next page; a page after the last one is empty.
+     * @throws RunTimeException if a parameter is out of range, the first page is empty, or an error occurs during retrieval.
+     */
+    public ResponseEntity<ProductCategoryHierarchyModel> fetchProductCategoryWindow(Integer categoryId, Integer depth, Integer after, Integer limit) {
+        validateRequest(categoryId);
+        validateWindow(depth, after, limit);
+
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildHierarchyWindow(
+                categoryId,
+                depth == null ? Integer.MAX_VALUE : depth,
+                after == null ? 0 : after,
+                limit == null ? Integer.MAX_VALUE : limit
+        );
+
+        if (!cacheListener.getStatus()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, cacheListener.getMessage()),
+                    HttpStatus.CONFLICT
+            );
+        }
+
+        if (cacheListener.getCategory().isEmpty() && after == null) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "No child product category is associated with this ID."),
+                    HttpStatus.NOT_FOUND
+            );
+        }
+
+        return new ResponseEntity<>(cacheListener, HttpStatus.OK);
+    }
+
+    /**
+     * Fetches the breadcrumb of a product category: its ancestors from the root down to the category.
+     *
+     * @param categoryId The ID of the product category.
+     * @return A ResponseEntity containing the ProductCategoryHierarchyModel with the chain, root first.
+     * @throws RunTimeException if the category ID is null, not found, or an error occurs during retrieval.
+     */
+    public ResponseEntity<ProductCategoryHierarchyModel> fetchProductCategoryPath(Integer categoryId) {
+        validateRequest(categoryId);
+
+        ProductCategoryHierarchyModel cacheListener = categorySnapshotService.buildCategoryPath(categoryId);
+
+        if (!cacheListener.getStatus()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, cacheListener.getMessage()),
+                    HttpStatus.CONFLICT
+            );
+        }
+
+        if (cacheListener.getCategory().isEmpty()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Unable to fetch product category by ID. No product category is associated with this ID."),
+                    HttpStatus.NOT_FOUND
+            );
+        }
+
+        return new ResponseEntity<>(
+                new ProductCategoryHierarchyModel(
+                        true,
+                        cacheListener.getMessage(),
+                        cacheListener.getCategory()
+                ),
+                HttpStatus.OK
+        );
+    }
+
+    /**
+     * Fetches the breadcrumbs of many product categories at once.
+     *
+     * @param categoryIds The IDs of the product categories, at most 1000.
+     * @return A ResponseEntity containing the CategoryPathsResModel with the chain of every category found
+     *         and the IDs that were not found.
+     * @throws RunTimeException if no ID or too many IDs are given, or an error occurs during retrieval.
+     */
+    public ResponseEntity<CategoryPathsResModel> fetchProductCategoryPaths(List<Integer> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty() || categoryIds.contains(null)) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Category IDs cannot be empty."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (categoryIds.size() > MAX_PATH_IDS) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "No more than " + MAX_PATH_IDS + " category IDs can be requested at once."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        CategoryPathsResModel cacheListener = categorySnapshotService.buildCategoryPaths(categoryIds);
+
+        if (!cacheListener.getStatus()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, cacheListener.getMessage()),
+                    HttpStatus.CONFLICT
+            );
+        }
+
+        return new ResponseEntity<>(cacheListener, HttpStatus.OK);
+    }
+
+    /**
+     * Validates the window parameters of a hierarchy request; null parameters are not limited.
+     *
+     * @throws RunTimeException if the depth or limit is below 1, the limit is too large, or the cursor is negative.
+     */
+    private void validateWindow(Integer depth, Integer after, Integer limit) {
+        if (depth != null && depth < 1) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Depth must be at least 1."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (after != null && after < 0) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "The cursor cannot be negative."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Limit must be between 1 and " + MAX_PAGE_SIZE + "."),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
     /**
      * Validates the category ID for the request, ensuring it is not null.
      *
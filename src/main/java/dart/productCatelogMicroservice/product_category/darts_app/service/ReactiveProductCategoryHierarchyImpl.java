@@ -0,0 +1,145 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNearCache;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ReactiveRedisCacheService;
+import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Service class for the non-blocking reads of the product category hierarchy.
+ * Categories are read from the Redis child index without holding a thread while Redis answers,
+ * unless the near cache of this instance already holds the read.
+ * When the index is not ready or Redis fails, the request is answered by the blocking
+ * {@link ProductCategoryHierarchyImpl} on a bounded worker pool, which falls back to the database.
+ */
+@Service
+public class ReactiveProductCategoryHierarchyImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductCategoryHierarchyImpl.class);
+    private final ReactiveRedisCacheService reactiveRedisCacheService;
+    private final BuilderManager builderManager;
+    private final ProductCategoryHierarchyImpl productCategoryHierarchy;
+    private final CategoryNearCache categoryNearCache;
+
+    /**
+     * Constructs a ReactiveProductCategoryHierarchyImpl instance.
+     *
+     * @param reactiveRedisCacheService The non-blocking reads of the Redis cache.
+     * @param builderManager            The builder manager for constructing the category tree.
+     * @param productCategoryHierarchy  The blocking reads used when the cache cannot answer.
+     * @param categoryNearCache         The per-instance cache of reads from the child index.
+     */
+    public ReactiveProductCategoryHierarchyImpl(ReactiveRedisCacheService reactiveRedisCacheService, BuilderManager builderManager, ProductCategoryHierarchyImpl productCategoryHierarchy, CategoryNearCache categoryNearCache) {
+        this.reactiveRedisCacheService = reactiveRedisCacheService;
+        this.builderManager = builderManager;
+        this.productCategoryHierarchy = productCategoryHierarchy;
+        this.categoryNearCache = categoryNearCache;
+    }
+
+    /**
+     * Fetches all root (parent) product categories, without their children.
+     *
+     * @return A Mono of the ResponseEntity containing the root categories sorted by ID.
+     * @throws RunTimeException (signalled) if no root category is found.
+     */
+    public Mono<ResponseEntity<ProductCategoryHierarchyModel>> fetchOnlyParentProductCategory() {
+        String message = "Parent categories retrieved successfully";
+        String notFoundMessage = "Unable to fetch product category by ID. No product category is associated with this ID.";
+        List<CacheModel> cached = categoryNearCache.getChildren(0);
+        if (cached != null) {
+            // Both the blocking and this read cache the children sorted by ID
+            return Mono.fromCallable(() -> respond(cached, message, notFoundMessage));
+        }
+        long generation = categoryNearCache.generation();
+        return readFromIndex(
+                () -> reactiveRedisCacheService.fetchChildCategories(0)
+                        .collectSortedList(Comparator.comparing(CacheModel::getId))
+                        .doOnNext(parents -> categoryNearCache.putChildren(0, parents, generation))
+                        .map(parents -> respond(parents, message, notFoundMessage)),
+                productCategoryHierarchy::fetchOnlyParentProductCategory
+        );
+    }
+
+    /**
+     * Fetches the hierarchy below a product category.
+     *
+     * @param categoryId The ID of the product category.
+     * @return A Mono of the ResponseEntity containing the children of the category, each with its subtree.
+     * @throws RunTimeException (signalled) if the category ID is null or the category has no children.
+     */
+    public Mono<ResponseEntity<ProductCategoryHierarchyModel>> fetchProductCategoryByCategoryId(Integer categoryId) {
+        if (categoryId == null) {
+            return Mono.error(new RunTimeException(
+                    new ErrorHandler(false, "Category ID cannot be null."),
+                    HttpStatus.BAD_REQUEST
+            ));
+        }
+        String message = "Parent and child categories retrieved successfully";
+        String notFoundMessage = "No base hierarchy can be fetched, nor is the root product category found.";
+        List<CacheModel> cached = categoryNearCache.getSubtree(categoryId);
+        if (cached != null) {
+            return Mono.fromCallable(() -> respond(cached, message, notFoundMessage));
+        }
+        long generation = categoryNearCache.generation();
+        return readFromIndex(
+                () -> reactiveRedisCacheService.fetchSubtreeCategories(categoryId)
+                        .map(subtree -> builderManager.buildHierarchy(subtree, categoryId))
+                        .doOnNext(hierarchy -> categoryNearCache.putSubtree(categoryId, hierarchy, generation))
+                        .map(hierarchy -> respond(hierarchy, message, notFoundMessage)),
+                () -> productCategoryHierarchy.fetchProductCategoryByCategoryId(categoryId)
+        );
+    }
+
+    /**
+     * Streams every cached category as it is read, each with its parent ID and without children.
+     * Clients that need the nested hierarchy rebuild it from the parent IDs.
+     *
+     * @return A Flux of the cached categories, in no particular order.
+     */
+    public Flux<CacheModel> streamAllProductCategories() {
+        return reactiveRedisCacheService.streamAllCategories()
+                .doOnError(e -> logger.error("ReactiveProductCategoryHierarchyImpl: streamAllProductCategories - Error occurred: {}", e.getMessage()));
+    }
+
+    /**
+     * Answers from the Redis child index, or with the blocking read if the index is not ready or Redis fails.
+     */
+    private Mono<ResponseEntity<ProductCategoryHierarchyModel>> readFromIndex(
+            Supplier<Mono<ResponseEntity<ProductCategoryHierarchyModel>>> indexRead,
+            Callable<ResponseEntity<ProductCategoryHierarchyModel>> blockingRead
+    ) {
+        Mono<ResponseEntity<ProductCategoryHierarchyModel>> fallback = Mono.fromCallable(blockingRead).subscribeOn(Schedulers.boundedElastic());
+        return reactiveRedisCacheService.isChildIndexReady()
+                .flatMap(ready -> ready ? indexRead.get() : fallback)
+                .onErrorResume(e -> !(e instanceof RunTimeException), e -> {
+                    logger.error("ReactiveProductCategoryHierarchyImpl: readFromIndex - Error reading from Redis, using the blocking read: {}", e.getMessage());
+                    return fallback;
+                });
+    }
+
+    private ResponseEntity<ProductCategoryHierarchyModel> respond(List<CacheModel> categories, String message, String notFoundMessage) {
+        if (categories.isEmpty()) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, notFoundMessage),
+                    HttpStatus.NOT_FOUND
+            );
+        }
+        return new ResponseEntity<>(new ProductCategoryHierarchyModel(true, message, categories), HttpStatus.OK);
+    }
+}
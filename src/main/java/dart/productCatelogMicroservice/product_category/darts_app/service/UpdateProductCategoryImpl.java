@@ -1,53 +1,82 @@
 package dart.productCatelogMicroservice.product_category.darts_app.service;
 
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
 import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryReqModel;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.AfterCommit;
 import dart.productCatelogMicroservice.product_category.darts_app.helper.BuilderManager;
+import dart.productCatelogMicroservice.product_category.darts_app.helper.CategoryNameIndex;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryHierarchyRepo;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.DeleteUpdateProductCategoryRepo;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.ProductCategoryJdbcRepo;
 import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
 import dart.productCatelogMicroservice.product_category.utilities.ErrorHandler;
 import dart.productCatelogMicroservice.product_category.darts_app.kafka.MessageBrokerManager;
 import dart.productCatelogMicroservice.product_category.utilities.ResponseHandler;
 import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
+@Timed("category.service")
 public class UpdateProductCategoryImpl {
 
     private static final Logger logger = LoggerFactory.getLogger(UpdateProductCategoryImpl.class);
     private final DeleteUpdateProductCategoryRepo productCategoryRepo;
+    private final CategoryHierarchyRepo categoryHierarchyRepo;
+    private final ProductCategoryJdbcRepo productCategoryJdbcRepo;
     private final BuilderManager builderManager;
     private final RedisCacheService redisCacheService;
     private final MessageBrokerManager messageBrokerManager;
+    private final CategorySnapshotService categorySnapshotService;
+    private final CategoryNameIndex categoryNameIndex;
 
     public UpdateProductCategoryImpl(
             DeleteUpdateProductCategoryRepo productCategoryRepo,
+            CategoryHierarchyRepo categoryHierarchyRepo,
+            ProductCategoryJdbcRepo productCategoryJdbcRepo,
             BuilderManager builderManager,
             RedisCacheService redisCacheService,
-            MessageBrokerManager messageBrokerManager) {
+            MessageBrokerManager messageBrokerManager,
+            CategorySnapshotService categorySnapshotService,
+            CategoryNameIndex categoryNameIndex) {
         this.productCategoryRepo = productCategoryRepo;
+        this.categoryHierarchyRepo = categoryHierarchyRepo;
+        this.productCategoryJdbcRepo = productCategoryJdbcRepo;
         this.builderManager = builderManager;
         this.redisCacheService = redisCacheService;
         this.messageBrokerManager = messageBrokerManager;
+        this.categorySnapshotService = categorySnapshotService;
+        this.categoryNameIndex = categoryNameIndex;
     }
 
     /**
      * Updates an existing product category with the provided details.
+     * A "parentid" different from the current one moves the category, with its subtree, under that parent;
+     * without a "parentid" the category keeps its parent.
      *
      * @param request    the request model containing updated category information
      * @param productId  the ID of the product category to be updated
      * @return a ResponseEntity containing a ResponseHandler with the update status
-     * @throws RunTimeException if the request is invalid, the category is inactive, or it cannot be found
+     * @throws RunTimeException if the request is invalid, the category is inactive, it cannot be found,
+     *                          the new name is taken, or the new parent is missing, inactive or inside the category's subtree
      */
+    @Transactional
     public ResponseEntity<ResponseHandler> updateProductCategory(ProductCategoryReqModel request, Integer productId) {
         validateRequest(request); // Validation step
 
+        // A possible move must see the paths as they are once no other move or insert is running
+        if (request.getParentid() != null) {
+            productCategoryJdbcRepo.lockPathsForMove();
+        }
+
         Optional<ProductCategoryDbModel> dbListener = productCategoryRepo.findById(productId);
 
         if (dbListener.isPresent()) {
@@ -59,25 +88,44 @@ public class UpdateProductCategoryImpl {
             }
 
             ProductCategoryDbModel recordFetchFromDb = dbListener.get();
+            Integer previousParentId = recordFetchFromDb.getParentid();
+            Integer parentId = request.getParentid() == null ? previousParentId : request.getParentid();
 
             ProductCategoryDbModel productCategoryBuilder = builderManager.dbBuilder(
                     recordFetchFromDb.getId(),
                     request.getName(),
                     request.getDescription(),
-                    recordFetchFromDb.getParentid(),
+                    parentId,
                     true,
                     recordFetchFromDb.getCreatedat(),
                     LocalDateTime.now()
             );
+            productCategoryBuilder.setPath(recordFetchFromDb.getPath());
+            productCategoryBuilder.setDepth(recordFetchFromDb.getDepth());
+
+            boolean moved = !parentId.equals(previousParentId);
+            if (moved) {
+                moveSubtree(productCategoryBuilder);
+            }
 
             ProductCategoryDbModel onUpdateRecordInDb = updateProductCategory(productCategoryBuilder);
 
-            boolean onUpdateRecordInCache = redisCacheService.saveUpdateProductCategoryInCacheMemory(builderManager.CacheModelBuilder(onUpdateRecordInDb));
+            messageBrokerManager.PushTopicToMessageBroker("update", onUpdateRecordInDb);
 
-            // Send message to message broker if Redis cache service fails
-            if (!onUpdateRecordInCache) {
-                messageBrokerManager.PushTopicToMessageBroker("update", onUpdateRecordInDb);
-            }
+            // A rename frees the old name and takes the new one once the update is committed
+            categoryNameIndex.recordSaved(onUpdateRecordInDb.getId(), onUpdateRecordInDb.getName());
+
+            // Once committed, replace the category in the cache and in the tree held in memory on every instance;
+            // a moved category takes its subtree along
+            CacheModel cachedCategory = builderManager.CacheModelBuilder(onUpdateRecordInDb);
+            AfterCommit.run("caching an updated category", () -> {
+                if (moved) {
+                    redisCacheService.moveProductCategoryInCacheMemory(cachedCategory, previousParentId);
+                } else {
+                    redisCacheService.saveUpdateProductCategoryInCacheMemory(cachedCategory);
+                }
+                categorySnapshotService.applySaved(cachedCategory);
+            });
 
             return new ResponseEntity<>(new ResponseHandler(true, "Product category updated successfully."), HttpStatus.OK);
         }
@@ -115,17 +163,75 @@ public class UpdateProductCategoryImpl {
         }
     }
 
+    /**
+     * Moves a category under its new parent by rewriting the materialized paths of its whole subtree
+     * in one range update. The subtree keeps its shape, so only the paths and depths change.
+     *
+     * @param category the category, carrying its new parent ID and its current path
+     * @throws RunTimeException if the new parent is missing, inactive or inside the category's subtree,
+     *                          or if the paths cannot be rewritten
+     */
+    private void moveSubtree(ProductCategoryDbModel category) {
+        ProductCategoryDbModel parent = null;
+        if (category.getParentid() != 0) {
+            Optional<ProductCategoryDbModel> parentListener = categoryHierarchyRepo.findById(category.getParentid());
+            if (parentListener.isEmpty() || !parentListener.get().getIsactive()) {
+                throw new RunTimeException(
+                        new ErrorHandler(false, "Parent category not found or inactive."),
+                        HttpStatus.BAD_REQUEST
+                );
+            }
+            parent = parentListener.get();
+        }
+
+        if (category.getPath() == null || (parent != null && parent.getPath() == null)) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Category is not placed in the hierarchy."),
+                    HttpStatus.CONFLICT
+            );
+        }
+        // The path of a descendant starts with the path of the category, so this also rejects the category itself
+        if (parent != null && parent.getPath().startsWith(category.getPath())) {
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Cannot move a category under itself or one of its descendants."),
+                    HttpStatus.CONFLICT
+            );
+        }
+
+        String oldPath = category.getPath();
+        int oldDepth = category.getDepth();
+        builderManager.placeUnder(category, parent);
+        try {
+            int rewritten = categoryHierarchyRepo.movePaths(oldPath, category.getPath(), category.getDepth() - oldDepth);
+            logger.info("Moved product category {} from {} to {}, rewriting {} paths.", category.getId(), oldPath, category.getPath(), rewritten);
+        } catch (Exception e) {
+            logger.error("UpdateProductCategoryImpl moveSubtree - Error moving Product Category: {}", e.getMessage());
+            throw new RunTimeException(
+                    new ErrorHandler(false, "Unable to update your record at this time."),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
     /**
      * Saves the updated product category in the database.
      *
      * @param productCategoryId the product category model to save
      * @return the saved ProductCategoryDbModel
-     * @throws RunTimeException if an error occurs while saving to the database
+     * @throws RunTimeException if the name is taken by another category or an error occurs while saving to the database
      */
     private ProductCategoryDbModel updateProductCategory(ProductCategoryDbModel productCategoryId) {
         try {
-            return productCategoryRepo.save(productCategoryId);
+            // Flushed here, so a name taken by another category is rejected by the unique index now and not at commit
+            return productCategoryRepo.saveAndFlush(productCategoryId);
         } catch (Exception e) {
+            if (CategoryNameIndex.isNameConflict(e)) {
+                categoryNameIndex.recordConflict();
+                throw new RunTimeException(
+                        new ErrorHandler(false, "Product Category already exists!"),
+                        HttpStatus.CONFLICT
+                );
+            }
             logger.error("UpdateProductCategoryImpl updateProductCategory - Error updating Product Category: {}", e.getMessage());
             throw new RunTimeException(
                     new ErrorHandler(false, "Unable to update your record at this time."),
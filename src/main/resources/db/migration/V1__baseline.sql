@@ -0,0 +1,22 @@
+-- Baseline schema. Databases created before migrations were introduced are baselined at
+-- this version (spring.flyway.baseline-on-migrate), so these statements only run on new databases.
+CREATE TABLE IF NOT EXISTS categories (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    parentid INT DEFAULT 0,
+    isactive BOOLEAN DEFAULT TRUE,
+    createdat TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updatedat TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_categories_name ON categories(name);
+
+CREATE TABLE IF NOT EXISTS category_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    categoryid INT NOT NULL,
+    eventtype VARCHAR(16) NOT NULL,
+    payload TEXT NOT NULL,
+    createdat TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    publishedat TIMESTAMP DEFAULT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_category_outbox_unpublished ON category_outbox(id) WHERE publishedat IS NULL;
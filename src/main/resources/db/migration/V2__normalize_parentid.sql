@@ -0,0 +1,26 @@
+-- Early databases were created with parentid as VARCHAR; the application and the
+-- recursive hierarchy queries compare it with integer IDs, so store it as INT.
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'categories' AND column_name = 'parentid' AND data_type <> 'integer'
+    ) THEN
+        ALTER TABLE categories ALTER COLUMN parentid DROP DEFAULT;
+        ALTER TABLE categories ALTER COLUMN parentid TYPE INT USING NULLIF(parentid, '')::INT;
+    END IF;
+END $$;
+
+UPDATE categories SET parentid = 0 WHERE parentid IS NULL;
+ALTER TABLE categories ALTER COLUMN parentid SET DEFAULT 0;
+
+-- Create the outbox on databases baselined before it existed
+CREATE TABLE IF NOT EXISTS category_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    categoryid INT NOT NULL,
+    eventtype VARCHAR(16) NOT NULL,
+    payload TEXT NOT NULL,
+    createdat TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    publishedat TIMESTAMP DEFAULT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_category_outbox_unpublished ON category_outbox(id) WHERE publishedat IS NULL;
@@ -0,0 +1,11 @@
+-- Hot-path indexes, built CONCURRENTLY so writes are not blocked on large catalogs
+-- (this script runs outside a transaction, see the .conf file next to it).
+
+-- Children of a parent: recursive subtree queries and child listings
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_parentid ON categories(parentid);
+
+-- Category names are unique regardless of case; fails if the table already holds such duplicates
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_categories_lower_name ON categories(lower(name));
+
+-- Only active categories are served, so the active children of a parent get their own small index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_active_parentid ON categories(parentid, id) WHERE isactive = TRUE;
@@ -0,0 +1,23 @@
+-- Materialized path of every category: the IDs from its root down to itself, e.g. "/1/5/12/",
+-- and its depth (0 for a root). Descendants of a category are the rows whose path starts with
+-- its path, which a btree answers as one range scan; ancestors are the IDs spelled in the path.
+-- The column is compared byte-wise (COLLATE "C") so the range bounds follow the path characters.
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS path TEXT COLLATE "C";
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS depth INT;
+
+-- Backfill from the roots down; rows caught in a parentid cycle are not reachable and keep a NULL path.
+-- A category whose parent does not exist (an orphan) gets a path starting at itself, so its subtree can still
+-- be read as a range. It is not a root otherwise: the tree builders list only parentid 0 as roots and report
+-- orphans, which stay reachable by ID with their subtrees.
+WITH RECURSIVE tree AS (
+    SELECT c.id, '/' || c.id || '/' AS path, 0 AS depth
+    FROM categories c
+    WHERE c.parentid = 0 OR NOT EXISTS (SELECT 1 FROM categories p WHERE p.id = c.parentid)
+    UNION ALL
+    SELECT c.id, t.path || c.id || '/', t.depth + 1
+    FROM categories c
+    JOIN tree t ON c.parentid = t.id
+)
+UPDATE categories c SET path = t.path, depth = t.depth
+FROM tree t
+WHERE c.id = t.id;
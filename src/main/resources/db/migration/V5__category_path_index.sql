@@ -0,0 +1,3 @@
+-- Range scans on the materialized path: subtree reads and the path rewrite of a reparented subtree
+-- (this script runs outside a transaction, see the .conf file next to it).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_path ON categories(path);
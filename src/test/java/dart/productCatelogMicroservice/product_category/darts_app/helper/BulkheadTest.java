@@ -0,0 +1,43 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+	private final Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(50));
+
+	@Test
+	void rejectsCallersBeyondTheLimitAfterTheTimeout() throws Exception {
+		CountDownLatch inside = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = Thread.ofVirtual().start(() -> bulkhead.call(() -> {
+			inside.countDown();
+			await(release);
+			return null;
+		}));
+		inside.await();
+
+		assertThrows(Bulkhead.FullException.class, () -> bulkhead.call(() -> "value"));
+		assertEquals(1, bulkhead.stats().get("active"));
+		assertEquals(1L, bulkhead.stats().get("rejected"));
+
+		release.countDown();
+		holder.join();
+		assertEquals("value", bulkhead.call(() -> "value"));
+		assertEquals(0, bulkhead.stats().get("active"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
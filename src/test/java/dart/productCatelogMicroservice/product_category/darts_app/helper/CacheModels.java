@@ -0,0 +1,43 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Categories for tests, built the way the cache holds them.
+ */
+public final class CacheModels {
+
+	private CacheModels() {
+	}
+
+	/**
+	 * A category named after its ID.
+	 */
+	public static CacheModel category(int id, int parentId) {
+		return category(id, parentId, "category " + id);
+	}
+
+	/**
+	 * An active category with a description derived from its name and no children yet.
+	 */
+	public static CacheModel category(int id, int parentId, String name) {
+		return category(id, name, "about " + name, parentId, true, null, null);
+	}
+
+	/**
+	 * A category with every field given; any of them may be null.
+	 */
+	public static CacheModel category(Integer id, String name, String description, Integer parentId, Boolean active, String createdAt, String updatedAt) {
+		return new CacheModel(id, name, description, parentId, active, createdAt, updatedAt, null, new ArrayList<>());
+	}
+
+	/**
+	 * The IDs of the categories, in order.
+	 */
+	public static List<Integer> ids(List<CacheModel> categories) {
+		return categories.stream().map(CacheModel::getId).toList();
+	}
+}
@@ -0,0 +1,58 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheValueCodecTest {
+
+	private final RedisTemplate<String, Object> template = template();
+	private final CacheValueCodec binary = new CacheValueCodec(template, new ObjectMapper(), "binary", 64);
+	private final CacheValueCodec json = new CacheValueCodec(template, new ObjectMapper(), "json", 64);
+
+	@Test
+	void binaryRoundTripKeepsEveryField() {
+		CacheModel category = category(42, "laptops", "Portable computers", 7, true, "2024-03-01 10:15:30", "2024-03-02 08:00:00");
+
+		byte[] value = binary.encode(category);
+
+		assertEquals(CacheValueCodec.BINARY_V1, value[0]);
+		assertEquals(category, binary.decode(value));
+	}
+
+	@Test
+	void longDescriptionsAreCompressedAndNullsSurvive() {
+		String description = "Accessories for gaming and office setups. ".repeat(20);
+		CacheModel category = category(1, "accessories", description, null, null, null, "not a cache date");
+
+		byte[] value = binary.encode(category);
+
+		assertTrue(value.length < description.length());
+		assertEquals(category, binary.decode(value));
+	}
+
+	@Test
+	void readsJsonValuesAndReportsThemForMigration() {
+		CacheModel category = category(5, "phones", "Mobile phones", 0, true, "2024-01-01 00:00:00", "2024-01-01 00:00:00");
+
+		byte[] legacy = json.encode(category);
+
+		assertFalse(binary.isCurrentFormat(legacy));
+		assertTrue(json.isCurrentFormat(legacy));
+		assertEquals(category, binary.decode(legacy));
+		assertTrue(binary.encode(category).length < legacy.length);
+	}
+
+	private static RedisTemplate<String, Object> template() {
+		RedisTemplate<String, Object> template = new RedisTemplate<>();
+		template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+		return template;
+	}
+}
@@ -0,0 +1,46 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CategoryNameIndexTest {
+
+	@Test
+	void answersFromTheIndexOnceLoaded() {
+		CategoryNameIndex index = new CategoryNameIndex(1000, 0.01);
+		assertEquals(CategoryNameIndex.Lookup.UNKNOWN, index.lookup("Shoes"));
+
+		index.load(2, names -> {
+			names.accept(1, "shoes");
+			names.accept(2, "hats");
+		});
+
+		assertEquals(CategoryNameIndex.Lookup.TAKEN, index.lookup("SHOES"));
+		assertEquals(CategoryNameIndex.Lookup.TAKEN, index.lookup("hats"));
+		int absent = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (index.lookup("new category " + i) == CategoryNameIndex.Lookup.ABSENT) {
+				absent++;
+			}
+		}
+		// At a 1% false positive rate nearly every new name skips the name map
+		assertEquals(1000, absent, 30);
+	}
+
+	@Test
+	void aRenameFreesTheOldName() {
+		CategoryNameIndex index = new CategoryNameIndex(1000, 0.01);
+		index.load(1, names -> names.accept(1, "shoes"));
+
+		index.recordSaved(1, "Boots");
+		index.recordSaved(2, "sandals");
+
+		assertEquals(CategoryNameIndex.Lookup.TAKEN, index.lookup("boots"));
+		assertEquals(CategoryNameIndex.Lookup.TAKEN, index.lookup("sandals"));
+		// The Bloom filter still holds the old name, so the database is asked
+		assertNotEquals(CategoryNameIndex.Lookup.TAKEN, index.lookup("shoes"));
+		assertEquals(2, index.stats().get("names"));
+	}
+}
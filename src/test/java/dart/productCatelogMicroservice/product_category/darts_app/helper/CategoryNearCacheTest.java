@@ -0,0 +1,45 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CategoryNearCacheTest {
+
+	@Test
+	void doesNotStoreReadsThatStartedBeforeAClear() {
+		CategoryNearCache nearCache = new CategoryNearCache(10, 1 << 20, 60_000);
+		List<CacheModel> children = List.of(category(2, 0, "b"));
+
+		long generation = nearCache.generation();
+		nearCache.clear();
+		nearCache.putChildren(1, children, generation);
+		assertNull(nearCache.getChildren(1));
+
+		nearCache.putChildren(1, children, nearCache.generation());
+		assertSame(children, nearCache.getChildren(1));
+		nearCache.clear();
+		assertNull(nearCache.getChildren(1));
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedReadsBeyondItsLimit() {
+		CategoryNearCache nearCache = new CategoryNearCache(2, 1 << 20, 60_000);
+		long generation = nearCache.generation();
+
+		nearCache.putChildren(1, List.of(category(11, 0, "a")), generation);
+		nearCache.putSubtree(2, List.of(category(12, 0, "b")), generation);
+		nearCache.getChildren(1);
+		nearCache.putChildren(3, List.of(category(13, 0, "c")), generation);
+
+		assertEquals(11, nearCache.getChildren(1).get(0).getId());
+		assertNull(nearCache.getSubtree(2));
+		assertEquals(1L, nearCache.stats().get("evictions"));
+	}
+}
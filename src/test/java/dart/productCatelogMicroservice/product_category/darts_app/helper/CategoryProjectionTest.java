@@ -0,0 +1,63 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryHierarchyModel;
+import dart.productCatelogMicroservice.product_category.utilities.RunTimeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CategoryProjectionTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesOnlyTheRequestedFieldsOfTheTree() throws Exception {
+		CategoryProjection projection = CategoryProjection.parse("id, name", null);
+
+		String body = write(projection, hierarchy());
+
+		assertEquals("{\"status\":true,\"message\":\"ok\",\"category\":["
+				+ "{\"id\":1,\"name\":\"a\",\"children\":[{\"id\":2,\"name\":\"b\"},{\"id\":3,\"name\":\"c\",\"children\":[{\"id\":4,\"name\":\"d\"}]}]},"
+				+ "{\"id\":5,\"name\":\"e\"}]}", body);
+	}
+
+	@Test
+	void writesTheFlatFormatAsParallelArraysParentsFirst() throws Exception {
+		CategoryProjection projection = CategoryProjection.parse(null, "flat");
+
+		String body = write(projection, hierarchy());
+
+		assertEquals("{\"status\":true,\"message\":\"ok\",\"count\":5,"
+				+ "\"id\":[1,2,3,4,5],\"parentid\":[0,1,1,3,0],\"name\":[\"a\",\"b\",\"c\",\"d\",\"e\"]}", body);
+	}
+
+	@Test
+	void rejectsUnknownFieldsAndFormats() {
+		assertNull(CategoryProjection.parse(null, null));
+		RunTimeException unknownField = assertThrows(RunTimeException.class, () -> CategoryProjection.parse("id,colour", null));
+		assertEquals(HttpStatus.BAD_REQUEST, unknownField.getStatus());
+		assertThrows(RunTimeException.class, () -> CategoryProjection.parse(null, "table"));
+	}
+
+	private String write(CategoryProjection projection, ProductCategoryHierarchyModel response) throws Exception {
+		return new String(projection.write(objectMapper.getFactory(), response), StandardCharsets.UTF_8);
+	}
+
+	private static ProductCategoryHierarchyModel hierarchy() {
+		CacheModel a = category(1, 0, "a");
+		CacheModel c = category(3, 1, "c");
+		c.getChildren().add(category(4, 3, "d"));
+		a.getChildren().add(category(2, 1, "b"));
+		a.getChildren().add(c);
+		return new ProductCategoryHierarchyModel(true, "ok", List.of(a, category(5, 0, "e")));
+	}
+}
@@ -0,0 +1,56 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.ids;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryTreeIndexTest {
+
+	@Test
+	void linksSubtreeSortedById() {
+		List<CacheModel> categories = List.of(category(3, 1), category(1, 0), category(2, 1), category(4, 0), category(5, 2));
+
+		List<CacheModel> roots = new CategoryTreeIndex(categories).linkSubtree(0);
+
+		assertEquals(List.of(1, 4), ids(roots));
+		assertEquals(List.of(2, 3), ids(roots.get(0).getChildren()));
+		assertEquals(List.of(5), ids(roots.get(0).getChildren().get(0).getChildren()));
+		assertTrue(roots.get(1).getChildren().isEmpty());
+	}
+
+	@Test
+	void reportsOrphansAndCyclesAndCutsCycles() {
+		List<CacheModel> categories = List.of(category(1, 0), category(2, 99), category(3, 4), category(4, 3));
+
+		CategoryTreeIndex treeIndex = new CategoryTreeIndex(categories);
+
+		assertArrayEquals(new int[]{2}, treeIndex.getOrphanIds());
+		assertArrayEquals(new int[]{3, 4}, treeIndex.getCycleIds());
+		List<CacheModel> subtree = treeIndex.linkSubtree(3);
+		assertEquals(List.of(4), ids(subtree));
+		assertEquals(List.of(3), ids(subtree.get(0).getChildren()));
+		assertTrue(subtree.get(0).getChildren().get(0).getChildren().isEmpty());
+	}
+
+	@Test
+	void handlesDeepChainsWithoutRecursion() {
+		List<CacheModel> categories = new ArrayList<>();
+		for (int id = 1; id <= 200_000; id++) {
+			categories.add(category(id, id - 1));
+		}
+
+		CategoryTreeIndex treeIndex = new CategoryTreeIndex(categories);
+		List<CacheModel> roots = treeIndex.linkAll();
+
+		assertEquals(200_000, treeIndex.getMaxDepth());
+		assertEquals(List.of(1), ids(roots));
+	}
+}
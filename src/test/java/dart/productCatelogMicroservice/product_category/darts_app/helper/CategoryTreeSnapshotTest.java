@@ -0,0 +1,88 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CategoryTreeSnapshotTest {
+
+	private final BuilderManager builderManager = new BuilderManager(new UtilityManager());
+
+	@Test
+	void patchedSnapshotsMatchTreesBuiltFromScratch() {
+		List<CacheModel> categories = new ArrayList<>(List.of(
+				category(1, 0, "a"), category(2, 1, "b"), category(4, 1, "d"), category(5, 4, "e"), category(9, 0, "i")));
+		CategoryTreeSnapshot snapshot = builderManager.buildTreeSnapshot(categories, 1);
+
+		// Create between two siblings, rename, move a subtree, then delete
+		snapshot = snapshot.withCategory(category(3, 1, "c"), 2);
+		categories.add(category(3, 1, "c"));
+		assertEquals(render(rebuilt(categories)), render(snapshot));
+
+		snapshot = snapshot.withCategory(category(2, 1, "b2"), 3);
+		categories.set(1, category(2, 1, "b2"));
+		assertEquals(render(rebuilt(categories)), render(snapshot));
+
+		snapshot = snapshot.withCategory(category(4, 9, "d"), 4);
+		categories.set(2, category(4, 9, "d"));
+		assertEquals(render(rebuilt(categories)), render(snapshot));
+		assertEquals(List.of(9, 4, 5), snapshot.getPath(5).stream().map(CacheModel::getId).toList());
+
+		snapshot = snapshot.withoutCategory(1, 5);
+		categories.remove(0);
+		assertEquals(render(rebuilt(categories)), render(snapshot));
+		assertEquals(List.of(9), snapshot.getParentCategories().stream().map(CacheModel::getId).toList());
+		assertEquals(5, snapshot.getVersion());
+		assertEquals(categories.size(), snapshot.size());
+	}
+
+	@Test
+	void patchesCopyOnlyThePathToTheRoot() {
+		CategoryTreeSnapshot snapshot = builderManager.buildTreeSnapshot(List.of(
+				category(1, 0, "a"), category(2, 1, "b"), category(3, 2, "c"), category(4, 1, "d"), category(5, 0, "e")), 1);
+
+		CategoryTreeSnapshot patched = snapshot.withCategory(category(3, 2, "c2"), 2);
+
+		assertEquals("c", snapshot.getCategory(3).getName());
+		assertEquals("c2", patched.getCategory(3).getName());
+		assertSame(snapshot.getCategory(4), patched.getCategory(4));
+		assertSame(snapshot.getCategory(5), patched.getCategory(5));
+		assertSame(patched.getCategory(2), patched.getChildren(1).get(0));
+		assertSame(patched.getCategory(1), patched.getChildren(0).get(0));
+	}
+
+	@Test
+	void refusesChangesItCannotPlace() {
+		CategoryTreeSnapshot snapshot = builderManager.buildTreeSnapshot(List.of(category(1, 0, "a"), category(2, 1, "b")), 1);
+
+		assertNull(snapshot.withCategory(category(3, 7, "c"), 2));
+		assertNull(snapshot.withCategory(category(1, 2, "a"), 2));
+	}
+
+	private CategoryTreeSnapshot rebuilt(List<CacheModel> categories) {
+		// The builder links the categories it is given, so it gets fresh copies
+		return builderManager.buildTreeSnapshot(categories.stream().map(c -> category(c.getId(), c.getParentid(), c.getName())).toList(), 1);
+	}
+
+	private static String render(CategoryTreeSnapshot snapshot) {
+		StringBuilder tree = new StringBuilder();
+		render(snapshot.getChildren(0), tree);
+		return tree.toString();
+	}
+
+	private static void render(List<CacheModel> categories, StringBuilder tree) {
+		for (CacheModel category : categories) {
+			tree.append(category.getId()).append(category.getName()).append('(');
+			render(category.getChildren(), tree);
+			tree.append(')');
+		}
+	}
+}
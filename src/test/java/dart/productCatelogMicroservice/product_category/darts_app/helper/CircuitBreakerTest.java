@@ -0,0 +1,83 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker("test", 2, Duration.ofMillis(100), now::get);
+	private final AtomicInteger actionCalls = new AtomicInteger();
+
+	@Test
+	void opensAfterConsecutiveFailuresAndShortCircuits() {
+		assertEquals("fallback", breaker.call(failing(), () -> "fallback"));
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals("fallback", breaker.call(failing(), () -> "fallback"));
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		assertEquals("fallback", breaker.call(succeeding(), () -> "fallback"));
+		assertEquals(2, actionCalls.get());
+	}
+
+	@Test
+	void probesAfterOpenPeriodAndClosesOnSuccess() {
+		breaker.call(failing(), () -> "fallback");
+		breaker.call(failing(), () -> "fallback");
+
+		now.addAndGet(100);
+		assertEquals("value", breaker.call(succeeding(), () -> "fallback"));
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void failedProbeOpensAgain() {
+		breaker.call(failing(), () -> "fallback");
+		breaker.call(failing(), () -> "fallback");
+
+		now.addAndGet(100);
+		breaker.call(failing(), () -> "fallback");
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		now.addAndGet(50);
+		breaker.call(succeeding(), () -> "fallback");
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(3, actionCalls.get());
+	}
+
+	@Test
+	void publishesStateAndCountersAsMetrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		breaker.bindTo(registry);
+
+		breaker.call(failing(), () -> "fallback");
+		breaker.call(failing(), () -> "fallback");
+		breaker.call(succeeding(), () -> "fallback");
+
+		assertEquals(1.0, registry.get("category.breaker.state").tag("state", "open").gauge().value());
+		assertEquals(0.0, registry.get("category.breaker.state").tag("state", "closed").gauge().value());
+		assertEquals(3.0, registry.get("category.breaker.fallbacks").functionCounter().count());
+		assertEquals(1.0, registry.get("category.breaker.short.circuited").functionCounter().count());
+	}
+
+	private Supplier<String> failing() {
+		return () -> {
+			actionCalls.incrementAndGet();
+			throw new IllegalStateException("down");
+		};
+	}
+
+	private Supplier<String> succeeding() {
+		return () -> {
+			actionCalls.incrementAndGet();
+			return "value";
+		};
+	}
+}
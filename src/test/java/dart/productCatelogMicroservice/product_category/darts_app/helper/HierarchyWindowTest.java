@@ -0,0 +1,52 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.utilities.UtilityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.ids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchyWindowTest {
+
+	private final BuilderManager builderManager = new BuilderManager(new UtilityManager());
+
+	@Test
+	void pagesStartAfterTheCursor() {
+		List<CacheModel> categories = List.of(category(2, 0), category(5, 0), category(9, 0), category(14, 0));
+
+		assertEquals(List.of(2, 5), ids(CategoryTreeSnapshot.page(categories, 0, 2)));
+		assertEquals(List.of(9, 14), ids(CategoryTreeSnapshot.page(categories, 5, 2)));
+		assertEquals(List.of(9, 14), ids(CategoryTreeSnapshot.page(categories, 7, 10)));
+		assertTrue(CategoryTreeSnapshot.page(categories, 14, 2).isEmpty());
+	}
+
+	@Test
+	void copiesOnlyTheRequestedLevelsAndChildren() {
+		List<CacheModel> categories = new ArrayList<>();
+		categories.add(category(1, 0));
+		for (int id = 2; id <= 6; id++) {
+			categories.add(category(id, 1));
+		}
+		categories.add(category(7, 2));
+		CategoryTreeSnapshot snapshot = builderManager.buildTreeSnapshot(categories, 1);
+
+		List<CacheModel> window = builderManager.windowCopy(snapshot.getChildren(0), 2, 3);
+
+		CacheModel root = window.get(0);
+		assertEquals(5, root.getChildcount());
+		assertEquals(List.of(2, 3, 4), ids(root.getChildren()));
+		CacheModel firstChild = root.getChildren().get(0);
+		assertEquals(1, firstChild.getChildcount());
+		assertNull(firstChild.getChildren());
+		// The snapshot itself is left untouched
+		assertEquals(5, snapshot.getChildren(1).size());
+		assertNull(snapshot.getCategory(1).getChildcount());
+	}
+}
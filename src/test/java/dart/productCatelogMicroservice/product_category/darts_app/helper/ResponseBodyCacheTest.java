@@ -0,0 +1,132 @@
+package dart.productCatelogMicroservice.product_category.darts_app.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseBodyCacheTest {
+
+	private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+	@Test
+	void keepsOnlySuccessfulBodies() {
+		ResponseBodyCache cache = new ResponseBodyCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20);
+		AtomicInteger loads = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			cache.respond("failing", 1, 0, request, () -> {
+				loads.incrementAndGet();
+				return new ResponseEntity<>(Map.of("status", false), HttpStatus.CONFLICT);
+			});
+		}
+		assertEquals(2, loads.get());
+
+		for (int i = 0; i < 2; i++) {
+			cache.respond("working", 1, 0, request, () -> {
+				loads.incrementAndGet();
+				return new ResponseEntity<>(Map.of("status", true), HttpStatus.OK);
+			});
+		}
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void stopsKeepingBodiesBeyondItsByteBound() {
+		// Each body takes about 150 bytes plain and compressed, so only one fits
+		ResponseBodyCache cache = new ResponseBodyCache(new ObjectMapper(), new SimpleMeterRegistry(), 200);
+		AtomicInteger loads = new AtomicInteger();
+		String text = "x".repeat(100);
+
+		for (String key : new String[]{"a", "b", "a", "b"}) {
+			ResponseEntity<byte[]> response = cache.respond(key, 1, 0, request, () -> {
+				loads.incrementAndGet();
+				return new ResponseEntity<>(Map.of("text", text), HttpStatus.OK);
+			});
+			assertEquals(HttpStatus.OK, response.getStatusCode());
+		}
+		// "a" was kept, "b" was served without being kept
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void plainAndGzipBodiesCarryTheirOwnTags() {
+		ResponseBodyCache cache = new ResponseBodyCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20);
+		String plainTag = cache.respond("tree", 1, 0, conditional(null, null), ResponseBodyCacheTest::ok)
+				.getHeaders().getETag();
+		String gzipTag = cache.respond("tree", 1, 0, conditional("gzip", null), ResponseBodyCacheTest::ok)
+				.getHeaders().getETag();
+		assertNotEquals(plainTag, gzipTag);
+
+		assertEquals(HttpStatus.OK, cache.respond("tree", 1, 0, conditional("gzip", plainTag), ResponseBodyCacheTest::ok).getStatusCode());
+		assertEquals(HttpStatus.NOT_MODIFIED, cache.respond("tree", 1, 0, conditional("gzip", gzipTag), ResponseBodyCacheTest::ok).getStatusCode());
+		assertEquals(HttpStatus.OK, cache.respond("tree", 1, 0, conditional(null, gzipTag), ResponseBodyCacheTest::ok).getStatusCode());
+		assertEquals(HttpStatus.NOT_MODIFIED, cache.respond("tree", 1, 0, conditional(null, plainTag), ResponseBodyCacheTest::ok).getStatusCode());
+	}
+
+	@Test
+	void answersAMatchingConditionalRequestWithoutLoading() {
+		// No body is ever kept, so every load shows up in the count
+		ResponseBodyCache cache = new ResponseBodyCache(new ObjectMapper(), new SimpleMeterRegistry(), 0);
+		AtomicInteger loads = new AtomicInteger();
+		String tag = cache.respond("tree", 1, 0, request, () -> {
+			loads.incrementAndGet();
+			return ok();
+		}).getHeaders().getETag();
+		assertEquals(1, loads.get());
+
+		ResponseEntity<byte[]> response = cache.respond("tree", 1, 0, conditional(null, tag), () -> {
+			loads.incrementAndGet();
+			return ok();
+		});
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(tag, response.getHeaders().getETag());
+		assertEquals(1, loads.get());
+
+		// A new catalog version no longer matches the old tag
+		response = cache.respond("tree", 2, 0, conditional(null, tag), () -> {
+			loads.incrementAndGet();
+			return ok();
+		});
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void readsQualityValuesOfAcceptEncoding() {
+		assertTrue(ResponseBodyCache.acceptsGzip("gzip, deflate, br"));
+		assertTrue(ResponseBodyCache.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+		assertTrue(ResponseBodyCache.acceptsGzip("*"));
+		assertFalse(ResponseBodyCache.acceptsGzip("gzip;q=0"));
+		assertFalse(ResponseBodyCache.acceptsGzip("*;q=0.5, gzip;q=0.0"));
+		assertFalse(ResponseBodyCache.acceptsGzip("identity"));
+		assertFalse(ResponseBodyCache.acceptsGzip(null));
+	}
+
+	private static ResponseEntity<?> ok() {
+		return new ResponseEntity<>(Map.of("status", true), HttpStatus.OK);
+	}
+
+	private static ServletWebRequest conditional(String acceptEncoding, String ifNoneMatch) {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+		if (acceptEncoding != null) {
+			servletRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		if (ifNoneMatch != null) {
+			servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return new ServletWebRequest(servletRequest);
+	}
+}
@@ -0,0 +1,143 @@
+package dart.productCatelogMicroservice.product_category.darts_app.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CacheModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryEventModel;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.RedisCacheService;
+import dart.productCatelogMicroservice.product_category.darts_app.service.CategorySnapshotService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dart.productCatelogMicroservice.product_category.darts_app.helper.CacheModels.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryEventConsumerTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final RedisCacheService redisCacheService = mock(RedisCacheService.class);
+	private final CategorySnapshotService categorySnapshotService = mock(CategorySnapshotService.class);
+	private final Consumer<?, ?> consumer = mock(Consumer.class);
+	private final CategoryEventConsumer eventConsumer = new CategoryEventConsumer(redisCacheService, categorySnapshotService, objectMapper);
+	private final List<ConsumerRecord<String, String>> records = new ArrayList<>();
+
+	@BeforeEach
+	void acceptCacheWrites() {
+		when(redisCacheService.applyProductCategoryChangesInCacheMemory(anyList(), anyList())).thenReturn(true);
+	}
+
+	@Test
+	void keepsTheLaterRecordOfDuplicatesWithEqualTimestamps() throws JsonProcessingException {
+		add("update", category(1, "first", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("update", category(1, "second", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("update", category(1, "second", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+
+		eventConsumer.onCategoryEvents(records, consumer);
+
+		List<CacheModel> saved = savedInCache();
+		assertEquals(1, saved.size());
+		assertEquals("second", saved.get(0).getName());
+		assertEquals(2L, eventConsumer.stats().get("superseded"));
+		verify(categorySnapshotService).apply(saved, List.of());
+	}
+
+	@Test
+	void keepsTheNewestStateOfRecordsOutOfOrder() throws JsonProcessingException {
+		add("update", category(1, "newest", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:02"));
+		add("update", category(1, "oldest", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("create", category(2, "other", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:01"));
+
+		eventConsumer.onCategoryEvents(records, consumer);
+
+		List<CacheModel> saved = savedInCache();
+		assertEquals(List.of(1, 2), saved.stream().map(CacheModel::getId).toList());
+		assertEquals("newest", saved.get(0).getName());
+	}
+
+	@Test
+	void skipsMalformedRecords() throws JsonProcessingException {
+		records.add(record("not json"));
+		records.add(record("{\"eventtype\":\"update\"}"));
+		records.add(record("{\"eventtype\":\"update\",\"category\":{\"name\":\"no id\"}}"));
+		add("update", category(3, "readable", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+
+		eventConsumer.onCategoryEvents(records, consumer);
+
+		assertEquals(List.of(3), savedInCache().stream().map(CacheModel::getId).toList());
+		assertEquals(3L, eventConsumer.stats().get("unreadable"));
+		assertEquals(1L, eventConsumer.stats().get("applied"));
+	}
+
+	@Test
+	void leavesTheCacheAloneWhenNoRecordIsReadable() {
+		records.add(record("not json"));
+
+		eventConsumer.onCategoryEvents(records, consumer);
+
+		verify(redisCacheService, never()).applyProductCategoryChangesInCacheMemory(anyList(), anyList());
+		verify(categorySnapshotService, never()).apply(anyList(), anyList());
+	}
+
+	@Test
+	void removesDeletedAndInactiveCategories() throws JsonProcessingException {
+		add("delete", category(1, "deleted", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("update", category(2, "deactivated", null, 0, false, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("update", category(3, "active", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		// A delete followed by a newer create of the same category leaves it saved
+		add("delete", category(4, "recreated", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+		add("create", category(4, "recreated", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:01"));
+
+		eventConsumer.onCategoryEvents(records, consumer);
+
+		ArgumentCaptor<List<CacheModel>> saved = listCaptor();
+		ArgumentCaptor<List<CacheModel>> removed = listCaptor();
+		verify(redisCacheService).applyProductCategoryChangesInCacheMemory(saved.capture(), removed.capture());
+		assertEquals(List.of(3, 4), saved.getValue().stream().map(CacheModel::getId).toList());
+		assertEquals(List.of(1, 2), removed.getValue().stream().map(CacheModel::getId).toList());
+		verify(categorySnapshotService).apply(saved.getValue(), removed.getValue());
+	}
+
+	@Test
+	void failsTheBatchWhenTheCacheCannotBeWritten() throws JsonProcessingException {
+		when(redisCacheService.applyProductCategoryChangesInCacheMemory(anyList(), anyList())).thenReturn(false);
+		add("update", category(1, "shoes", null, 0, true, "2024-01-01 00:00:00", "2024-01-01 10:00:00"));
+
+		assertThrows(IllegalStateException.class, () -> eventConsumer.onCategoryEvents(records, consumer));
+
+		verify(categorySnapshotService, never()).apply(any(), any());
+		assertEquals(1L, eventConsumer.stats().get("failedBatches"));
+		assertEquals(0L, eventConsumer.stats().get("applied"));
+	}
+
+	private void add(String eventType, CacheModel category) throws JsonProcessingException {
+		records.add(record(objectMapper.writeValueAsString(new CategoryEventModel(eventType, category))));
+	}
+
+	private ConsumerRecord<String, String> record(String value) {
+		return new ConsumerRecord<>("product.category.events", 0, records.size(), null, value);
+	}
+
+	private List<CacheModel> savedInCache() {
+		ArgumentCaptor<List<CacheModel>> saved = listCaptor();
+		verify(redisCacheService).applyProductCategoryChangesInCacheMemory(saved.capture(), anyList());
+		return saved.getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArgumentCaptor<List<CacheModel>> listCaptor() {
+		return ArgumentCaptor.forClass(List.class);
+	}
+}
@@ -0,0 +1,102 @@
+package dart.productCatelogMicroservice.product_category.darts_app.kafka;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.CategoryOutboxModel;
+import dart.productCatelogMicroservice.product_category.darts_app.repository.CategoryOutboxRepo;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@EmbeddedKafka(partitions = 2, topics = OutboxRelayTest.TOPIC)
+class OutboxRelayTest {
+
+	static final String TOPIC = "product.category.events";
+
+	@Test
+	void publishesBatchKeyedByCategoryAndMarksItPublished(EmbeddedKafkaBroker broker) {
+		CategoryOutboxRepo repo = mock(CategoryOutboxRepo.class);
+		List<CategoryOutboxModel> events = List.of(event(1L, 10, "create"), event(2L, 11, "create"), event(3L, 10, "update"));
+		when(repo.tryLockRelay()).thenReturn(true);
+		when(repo.lockUnpublished(anyInt())).thenReturn(events, List.of());
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+		KafkaTemplate<String, String> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps, new StringSerializer(), new StringSerializer()));
+		OutboxRelay relay = new OutboxRelay(repo, template, transactionManager, TOPIC, 500, 10000, 1000, Duration.ofDays(7));
+
+		relay.relay();
+
+		verify(repo).markPublished(eq(List.of(1L, 2L, 3L)), any(LocalDateTime.class));
+		assertEquals(3L, relay.stats().get("published"));
+
+		Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-test", "false", broker);
+		try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+			broker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+			List<ConsumerRecord<String, String>> received = new ArrayList<>();
+			while (received.size() < 3) {
+				ConsumerRecords<String, String> records = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10));
+				records.forEach(received::add);
+			}
+
+			// Events of one category land on one partition in outbox order
+			List<String> category10 = received.stream().filter(record -> record.key().equals("10")).map(ConsumerRecord::value).toList();
+			assertEquals(List.of("create-10", "update-10"), category10);
+			assertEquals(1, received.stream().filter(record -> record.key().equals("10")).map(ConsumerRecord::partition).distinct().count());
+		}
+	}
+
+	@Test
+	void skipsTheRunWhileAnotherInstanceRelays() {
+		CategoryOutboxRepo repo = mock(CategoryOutboxRepo.class);
+		when(repo.tryLockRelay()).thenReturn(false);
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		@SuppressWarnings("unchecked")
+		KafkaTemplate<String, String> template = mock(KafkaTemplate.class);
+		OutboxRelay relay = new OutboxRelay(repo, template, transactionManager, TOPIC, 500, 10000, 1000, Duration.ofDays(7));
+
+		assertEquals(0, relay.relayBatch());
+		verify(repo, never()).lockUnpublished(anyInt());
+		verifyNoInteractions(template);
+	}
+
+	private static CategoryOutboxModel event(long id, int categoryId, String type) {
+		return CategoryOutboxModel.builder()
+				.id(id)
+				.categoryid(categoryId)
+				.eventtype(type)
+				.payload(type + "-" + categoryId)
+				.createdat(LocalDateTime.now())
+				.build();
+	}
+}
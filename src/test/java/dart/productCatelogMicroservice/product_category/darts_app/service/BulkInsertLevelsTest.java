@@ -0,0 +1,96 @@
+package dart.productCatelogMicroservice.product_category.darts_app.service;
+
+import dart.productCatelogMicroservice.product_category.darts_app.entity.BulkItemResModel;
+import dart.productCatelogMicroservice.product_category.darts_app.entity.ProductCategoryDbModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkInsertLevelsTest {
+
+	private static final int NONE = -1;
+
+	@Test
+	void placesParentsInEarlierLevelsThanTheirChildren() {
+		// 0 under 2, 1 under 0, 2 and 3 under existing parents
+		Batch batch = new Batch(2, 0, NONE, NONE);
+
+		List<List<Integer>> levels = batch.levels();
+
+		assertEquals(List.of(List.of(2, 3), List.of(0), List.of(1)), levels);
+		assertTrue(Arrays.stream(batch.results).allMatch(result -> result == null));
+	}
+
+	@Test
+	void failsATwoItemCycleAndWhatHangsBelowIt() {
+		// 0 and 1 name each other as parent, 2 sits under 1, 3 is independent
+		Batch batch = new Batch(1, 0, 1, NONE);
+
+		List<List<Integer>> levels = batch.levels();
+
+		assertEquals(List.of(List.of(3)), levels);
+		assertEquals("Parent reference cycle in this batch.", batch.results[0].getMessage());
+		assertEquals("Parent reference cycle in this batch.", batch.results[1].getMessage());
+		assertFalse(batch.results[2].getStatus());
+		assertNull(batch.results[3]);
+	}
+
+	@Test
+	void failsTheDescendantsOfAFailedItem() {
+		// 2 failed before the levels were built; 1 sits under 2, and 0 and 3 under 1
+		Batch batch = new Batch(1, 2, NONE, 1);
+		batch.results[2] = new BulkItemResModel(2, "c2", false, "Parent category not found: shoes", null);
+
+		List<List<Integer>> levels = batch.levels();
+
+		assertTrue(levels.isEmpty());
+		assertEquals("Parent category not found: shoes", batch.results[2].getMessage());
+		for (int i : new int[]{0, 1, 3}) {
+			assertFalse(batch.results[i].getStatus());
+			assertEquals("Parent category in this batch could not be processed.", batch.results[i].getMessage());
+		}
+	}
+
+	@Test
+	void leavesUpdatesOutOfTheLevels() {
+		// 0 names an existing category and is updated; 1 is inserted under an existing parent
+		Batch batch = new Batch(NONE, NONE);
+		ProductCategoryDbModel existing = new ProductCategoryDbModel();
+		existing.setId(7);
+
+		List<List<Integer>> levels = BulkProductCategoryImpl.insertLevels(batch.rows, batch.parentInBatch, Map.of("c0", existing), batch.names, batch.results);
+
+		assertEquals(List.of(List.of(1)), levels);
+		assertNull(batch.results[0]);
+	}
+
+	private static final class Batch {
+		final ProductCategoryDbModel[] rows;
+		final int[] parentInBatch;
+		final String[] names;
+		final BulkItemResModel[] results;
+
+		Batch(int... parentInBatch) {
+			int size = parentInBatch.length;
+			this.parentInBatch = parentInBatch;
+			this.rows = new ProductCategoryDbModel[size];
+			this.names = new String[size];
+			this.results = new BulkItemResModel[size];
+			for (int i = 0; i < size; i++) {
+				rows[i] = new ProductCategoryDbModel();
+				names[i] = "c" + i;
+			}
+		}
+
+		List<List<Integer>> levels() {
+			return BulkProductCategoryImpl.insertLevels(rows, parentInBatch, Map.of(), names, results);
+		}
+	}
+}